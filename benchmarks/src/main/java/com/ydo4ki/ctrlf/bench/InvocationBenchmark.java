@@ -0,0 +1,70 @@
+package com.ydo4ki.ctrlf.bench;
+
+import com.ydo4ki.ctrlf.MethodSequence;
+import com.ydo4ki.ctrlf.SearchMode;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares invocation of found method handles with a direct Java call:
+ * handles stored in {@code static final} and instance fields, invoked with {@code invokeExact} and {@code invoke}
+ *
+ * @author Sulphuris
+ * @since 16.10.2026 22:05
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InvocationBenchmark {
+	private static final MethodType TYPE = MethodType.methodType(int.class, int.class);
+
+	private static final MethodHandle STATIC_FINAL = MethodSequence.of(TYPE, SearchMode.findStatic).withName("twice")
+			.find(Targets.class.getName() + "$Absent")
+			.fallback(Targets.class.getName())
+			.methodHandle();
+
+	private static final MethodHandle LAZY = MethodSequence.lazy(TYPE, () ->
+			MethodSequence.of(TYPE, SearchMode.findStatic).withName("twice")
+					.find(Targets.class.getName() + "$Absent")
+					.fallback(Targets.class.getName()));
+
+	private MethodHandle field = STATIC_FINAL;
+
+	public int x = 42;
+
+	@Benchmark
+	public int direct() {
+		return Targets.twice(x);
+	}
+
+	@Benchmark
+	public int staticFinalInvokeExact() throws Throwable {
+		return (int) STATIC_FINAL.invokeExact(x);
+	}
+
+	@Benchmark
+	public int staticFinalInvoke() throws Throwable {
+		return (int) STATIC_FINAL.invoke(x);
+	}
+
+	@Benchmark
+	public int fieldInvokeExact() throws Throwable {
+		return (int) field.invokeExact(x);
+	}
+
+	@Benchmark
+	public int fieldInvoke() throws Throwable {
+		return (int) field.invoke(x);
+	}
+
+	@Benchmark
+	public int lazyInvokeExact() throws Throwable {
+		return (int) LAZY.invokeExact(x);
+	}
+}
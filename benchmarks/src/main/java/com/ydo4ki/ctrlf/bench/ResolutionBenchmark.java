@@ -0,0 +1,167 @@
+package com.ydo4ki.ctrlf.bench;
+
+import com.ydo4ki.ctrlf.FoundMethod;
+import com.ydo4ki.ctrlf.MethodFinder;
+import com.ydo4ki.ctrlf.MethodSequence;
+import com.ydo4ki.ctrlf.ResolutionCache;
+import com.ydo4ki.ctrlf.SearchMode;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how long it takes to resolve a method sequence of {@value #LENGTH} candidates for every search mode,
+ * when the first candidate is found, when only the last one is found, and when nothing is found.
+ * <p>
+ * Run with {@code -prof gc} to see allocation per resolution.
+ *
+ * @author Sulphuris
+ * @since 16.10.2026 21:44
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResolutionBenchmark {
+	static final int LENGTH = 5;
+	private static final String TARGETS = Targets.class.getName();
+	private static final String CALLER = Targets.Caller.class.getName();
+
+	/**
+	 * Index of the candidate that is found: {@code first}, {@code last} or {@code none}
+	 */
+	@Param({"first", "last", "none"})
+	public String found;
+
+	/**
+	 * Whether {@link ResolutionCache} is enabled
+	 */
+	@Param({"true", "false"})
+	public boolean cached;
+
+	private String[] owners;
+	private String[] classes;
+	private String[] methods;
+	private String[] staticMethods;
+	private String[] fields;
+	private String[] staticFields;
+	private Object[] receivers;
+
+	private final MethodSequence.MethodSequenceGenericDefault statics =
+			MethodSequence.of(MethodType.methodType(int.class, int.class), SearchMode.findStatic);
+	private final MethodSequence.MethodSequenceGenericDefault virtuals =
+			MethodSequence.of(MethodType.methodType(int.class, int.class), SearchMode.findVirtual);
+	private final MethodSequence.MethodSequenceBindNamed binds =
+			MethodSequence.of(MethodHandles.publicLookup(), MethodType.methodType(int.class, int.class), SearchMode.bind).withName("plus");
+	private final MethodSequence.MethodSequenceField getters =
+			MethodSequence.of(int.class, SearchMode.findGetter);
+	private final MethodSequence.MethodSequenceField staticGetters =
+			MethodSequence.of(int.class, SearchMode.findStaticGetter);
+	private final MethodSequence.MethodSequenceField setters =
+			MethodSequence.of(int.class, SearchMode.findSetter);
+	private final MethodSequence.MethodSequenceField staticSetters =
+			MethodSequence.of(int.class, SearchMode.findStaticSetter);
+	private final MethodSequence.MethodSequenceConstructor constructors =
+			MethodSequence.of(MethodType.methodType(void.class), SearchMode.findConstructor);
+	private final MethodSequence.MethodSequenceSpecialDefault specials =
+			MethodSequence.of(Targets.Caller.LOOKUP, MethodType.methodType(int.class, int.class), SearchMode.findSpecial);
+
+	@Setup
+	public void setup() {
+		ResolutionCache.setEnabled(cached);
+		ResolutionCache.invalidateAll();
+
+		int hit = found.equals("first") ? 0 : found.equals("last") ? LENGTH - 1 : -1;
+		owners = new String[LENGTH];
+		classes = new String[LENGTH];
+		methods = new String[LENGTH];
+		staticMethods = new String[LENGTH];
+		fields = new String[LENGTH];
+		staticFields = new String[LENGTH];
+		receivers = new Object[LENGTH];
+		for (int i = 0; i < LENGTH; i++) {
+			// misses alternate between absent classes and absent members of present classes
+			String absentClass = TARGETS + "$Absent" + i;
+			owners[i] = i == hit || i % 2 != 0 ? TARGETS : absentClass;
+			// a present class always has the constructor, so constructor misses are absent classes only
+			classes[i] = i == hit ? TARGETS : absentClass;
+			methods[i] = i == hit ? "plus" : "absent" + i;
+			staticMethods[i] = i == hit ? "twice" : "absent" + i;
+			fields[i] = i == hit ? "instanceField" : "absent" + i;
+			staticFields[i] = i == hit ? "staticField" : "absent" + i;
+			receivers[i] = new Targets();
+		}
+	}
+
+	@TearDown
+	public void tearDown() {
+		ResolutionCache.setEnabled(true);
+	}
+
+	@Benchmark
+	public FoundMethod findStatic() {
+		MethodFinder.MethodFinderGeneric finder = statics.find(owners[0], staticMethods[0]);
+		for (int i = 1; i < LENGTH - 1; i++) finder.orElse(owners[i], staticMethods[i]);
+		return finder.fallback(owners[LENGTH - 1], staticMethods[LENGTH - 1]);
+	}
+
+	@Benchmark
+	public FoundMethod findVirtual() {
+		MethodFinder.MethodFinderGeneric finder = virtuals.find(owners[0], methods[0]);
+		for (int i = 1; i < LENGTH - 1; i++) finder.orElse(owners[i], methods[i]);
+		return finder.fallback(owners[LENGTH - 1], methods[LENGTH - 1]);
+	}
+
+	@Benchmark
+	public FoundMethod bind() {
+		MethodFinder.MethodFinderBindNamed finder = binds.find(receivers[0], methods[0]);
+		for (int i = 1; i < LENGTH - 1; i++) finder.orElse(receivers[i], methods[i]);
+		return finder.fallback(receivers[LENGTH - 1], methods[LENGTH - 1]);
+	}
+
+	@Benchmark
+	public FoundMethod findGetter() {
+		MethodFinder.MethodFinderField finder = getters.find(owners[0], fields[0]);
+		for (int i = 1; i < LENGTH - 1; i++) finder.orElse(owners[i], fields[i]);
+		return finder.fallback(owners[LENGTH - 1], fields[LENGTH - 1]);
+	}
+
+	@Benchmark
+	public FoundMethod findStaticGetter() {
+		MethodFinder.MethodFinderField finder = staticGetters.find(owners[0], staticFields[0]);
+		for (int i = 1; i < LENGTH - 1; i++) finder.orElse(owners[i], staticFields[i]);
+		return finder.fallback(owners[LENGTH - 1], staticFields[LENGTH - 1]);
+	}
+
+	@Benchmark
+	public FoundMethod findSetter() {
+		MethodFinder.MethodFinderField finder = setters.find(owners[0], fields[0]);
+		for (int i = 1; i < LENGTH - 1; i++) finder.orElse(owners[i], fields[i]);
+		return finder.fallback(owners[LENGTH - 1], fields[LENGTH - 1]);
+	}
+
+	@Benchmark
+	public FoundMethod findStaticSetter() {
+		MethodFinder.MethodFinderField finder = staticSetters.find(owners[0], staticFields[0]);
+		for (int i = 1; i < LENGTH - 1; i++) finder.orElse(owners[i], staticFields[i]);
+		return finder.fallback(owners[LENGTH - 1], staticFields[LENGTH - 1]);
+	}
+
+	@Benchmark
+	public FoundMethod findConstructor() {
+		MethodFinder.MethodFinderConstructor finder = constructors.find(classes[0]);
+		for (int i = 1; i < LENGTH - 1; i++) finder.orElse(classes[i]);
+		return finder.fallback(classes[LENGTH - 1]);
+	}
+
+	@Benchmark
+	public FoundMethod findSpecial() {
+		MethodFinder.MethodFinderSpecial finder = specials.find(owners[0], methods[0], CALLER);
+		for (int i = 1; i < LENGTH - 1; i++) finder.orElse(owners[i], methods[i], CALLER);
+		return finder.fallback(owners[LENGTH - 1], methods[LENGTH - 1], CALLER);
+	}
+}
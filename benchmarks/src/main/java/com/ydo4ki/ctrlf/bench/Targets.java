@@ -0,0 +1,37 @@
+package com.ydo4ki.ctrlf.bench;
+
+import java.lang.invoke.MethodHandles;
+
+/**
+ * Members that benchmarked method sequences resolve to
+ *
+ * @author Sulphuris
+ * @since 16.10.2026 21:40
+ */
+public class Targets {
+	public static int staticField = 1;
+	public int instanceField = 1;
+
+	public Targets() {}
+
+	public static int twice(int x) {
+		return x * 2;
+	}
+
+	public int plus(int x) {
+		return x + instanceField;
+	}
+
+	/**
+	 * Special caller for {@link com.ydo4ki.ctrlf.SearchMode#findSpecial} benchmarks
+	 * (findSpecial requires a lookup with private access to the special caller)
+	 */
+	public static final class Caller extends Targets {
+		static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+		@Override
+		public int plus(int x) {
+			return x - instanceField;
+		}
+	}
+}
@@ -0,0 +1,438 @@
+package com.ydo4ki.ctrlf.processor;
+
+import com.sun.source.tree.CompilationUnitTree;
+import com.sun.source.tree.ExpressionTree;
+import com.sun.source.tree.IdentifierTree;
+import com.sun.source.tree.LiteralTree;
+import com.sun.source.tree.MemberSelectTree;
+import com.sun.source.tree.MethodInvocationTree;
+import com.sun.source.tree.Tree;
+import com.sun.source.util.TreePath;
+import com.sun.source.util.TreePathScanner;
+import com.sun.source.util.Trees;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Elements;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Generates the resolution manifest ({@code META-INF/ctrl-fallback/resolution.manifest})
+ * for method sequences declared in compiled sources.
+ * <p>
+ * The processor reads {@code MethodSequence.of(...)...find(...).orElse(...).fallback(...)} chains
+ * whose owner and member names are compile-time constants, and checks candidates owned by JDK classes
+ * (candidates declared with their own signature are checked against that signature, and name patterns are not checked)
+ * against the JDK the compiler runs on. Candidates that cannot be found there (absent class,
+ * no method with the given name, or no method with the given name and method type) are written to the manifest
+ * for that JDK feature level, so at runtime on the same feature level the predicted winner is probed first.
+ * <p>
+ * A class is a JDK class if it is loaded by the bootstrap or platform (extension) class loader.
+ * A class is recorded as absent only if it is not on the compile class path either and its package belongs
+ * to a module of the JDK (so on Java 8, where JDK packages can not be told apart, classes are never recorded as absent).
+ * <p>
+ * Chains with calls the processor does not know are not checked, and a note is reported for each of their candidates.
+ * <p>
+ * Only javac is supported (the processor does nothing with other compilers).
+ *
+ * @author Sulphuris
+ * @since 17.10.2026 00:48
+ */
+@SupportedAnnotationTypes("*")
+public class ManifestProcessor extends AbstractProcessor {
+	static final String RESOURCE = "META-INF/ctrl-fallback/resolution.manifest";
+	private static final String METHOD_SEQUENCE = "com.ydo4ki.ctrlf.MethodSequence";
+
+	private static final Set<String> CHAIN_METHODS = new HashSet<>(Arrays.asList(
+			"find", "orElse", "orElseMatching", "withClassLoader", "withClassLoaders", "withInitialization",
+			"withParallelProbing", "withFailover", "withCalibration", "withAdaptiveBinding"));
+	private static final Set<String> METHOD_MODES = new HashSet<>(Arrays.asList(
+			"findStatic", "findVirtual", "findSpecial"));
+	private static final Set<String> FIELD_MODES = new HashSet<>(Arrays.asList(
+			"findGetter", "findSetter", "findStaticGetter", "findStaticSetter"));
+	private static final String CONSTRUCTOR_MODE = "findConstructor";
+
+	/* loads JDK classes only: the extension class loader on Java 8, the platform class loader on Java 9+ */
+	private static final ClassLoader JDK_LOADER = ClassLoader.getSystemClassLoader().getParent();
+
+	private Trees trees;
+	private Elements elements;
+	private final Set<String> absent = new TreeSet<>();
+	private final Set<String> checked = new HashSet<>();
+
+	@Override
+	public synchronized void init(ProcessingEnvironment processingEnv) {
+		super.init(processingEnv);
+		try {
+			trees = Trees.instance(processingEnv);
+			elements = processingEnv.getElementUtils();
+		} catch (IllegalArgumentException e) {
+			processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE,
+					"Ctrl-Fallback resolution manifest is not generated: the compiler does not support com.sun.source trees");
+		}
+	}
+
+	@Override
+	public SourceVersion getSupportedSourceVersion() {
+		return SourceVersion.latestSupported();
+	}
+
+	@Override
+	public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+		if (trees == null) return false;
+		if (roundEnv.processingOver()) {
+			if (!absent.isEmpty()) writeManifest();
+			return false;
+		}
+		for (Element element : roundEnv.getRootElements()) {
+			if (!element.getKind().isClass() && !element.getKind().isInterface()) continue;
+			TreePath path = trees.getPath(element);
+			if (path != null) new ChainScanner().scan(path, null);
+		}
+		return false;
+	}
+
+	private void writeManifest() {
+		String feature = String.valueOf(featureLevel(System.getProperty("java.specification.version")));
+		try {
+			FileObject file = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", RESOURCE);
+			try (Writer out = new OutputStreamWriter(file.openOutputStream(), StandardCharsets.UTF_8)) {
+				out.write("# Ctrl-Fallback resolution manifest: candidates absent on JDK " + feature + "\n");
+				for (String entry : absent) out.write(feature + " " + entry + "\n");
+			}
+		} catch (IOException e) {
+			processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING,
+					"Could not write Ctrl-Fallback resolution manifest: " + e);
+		}
+	}
+
+	static int featureLevel(String version) {
+		if (version.startsWith("1.")) version = version.substring(2);
+		int dot = version.indexOf('.');
+		return Integer.parseInt(dot < 0 ? version : version.substring(0, dot));
+	}
+
+	/**
+	 * Checks the candidate against the JDK the compiler runs on and remembers it if it is absent
+	 * @param owner owner class name
+	 * @param name member name ({@code null} for constructors)
+	 * @param specialCaller special caller class name ({@code null} unless the mode is findSpecial)
+	 * @param mode search mode name
+	 * @param descriptor method descriptor of the sequence, or {@code null} if it is not known at compile time
+	 */
+	private void check(String owner, String name, String specialCaller, String mode, String descriptor) {
+		if (specialCaller != null) check(specialCaller, null, null, mode, null);
+		if (!checked.add(owner + '#' + name + (descriptor != null ? descriptor : "") + ' ' + mode)) return;
+		Class<?> c = jdkClass(owner);
+		if (c == null) {
+			if (isAbsentJdkClass(owner)) absent.add(owner);
+			return;
+		}
+		// reflection hides some fields of JDK classes, so only methods are checked
+		if (name == null || !METHOD_MODES.contains(mode)) return;
+		List<Method> methods = methods(c, name);
+		if (methods == null) return;
+		if (methods.isEmpty()) absent.add(owner + '#' + name);
+		else if (descriptor != null && !hasMethod(methods, descriptor, mode.equals("findStatic")))
+			absent.add(owner + '#' + name + descriptor);
+	}
+
+	/**
+	 * @param owner class name
+	 * @return the class of the running JDK with the given name, or {@code null} if it is not a JDK class
+	 */
+	private static Class<?> jdkClass(String owner) {
+		try {
+			Class<?> c = Class.forName(owner, false, JDK_LOADER);
+			ClassLoader loader = c.getClassLoader();
+			return loader == null || loader == JDK_LOADER ? c : null;
+		} catch (ClassNotFoundException | LinkageError e) {
+			return null;
+		}
+	}
+
+	/**
+	 * @param owner name of a class that is not a class of the running JDK
+	 * @return true if the class is not on the compile class path and its package belongs to a JDK module
+	 */
+	private boolean isAbsentJdkClass(String owner) {
+		if (elements.getTypeElement(owner.replace('$', '.')) != null) return false;
+		int dot = owner.lastIndexOf('.');
+		return dot > 0 && JdkPackages.contains(owner.substring(0, dot));
+	}
+
+	/**
+	 * @param c class
+	 * @param name method name
+	 * @return methods with the given name declared in the class or its supertypes,
+	 * or {@code null} if they can not be listed
+	 */
+	private static List<Method> methods(Class<?> c, String name) {
+		try {
+			List<Method> result = new ArrayList<>();
+			List<Class<?>> queue = new ArrayList<>();
+			queue.add(c);
+			if (c.isInterface()) queue.add(Object.class);
+			for (int i = 0; i < queue.size(); i++) {
+				Class<?> k = queue.get(i);
+				for (Method m : k.getDeclaredMethods()) if (m.getName().equals(name)) result.add(m);
+				if (k.getSuperclass() != null) queue.add(k.getSuperclass());
+				queue.addAll(Arrays.asList(k.getInterfaces()));
+			}
+			return result;
+		} catch (LinkageError | SecurityException e) {
+			return null; // cannot tell
+		}
+	}
+
+	private static boolean hasMethod(List<Method> methods, String descriptor, boolean isStatic) {
+		for (Method m : methods) {
+			if (Modifier.isStatic(m.getModifiers()) != isStatic) continue;
+			if (isSignaturePolymorphic(m) || descriptor(m).equals(descriptor)) return true;
+		}
+		return false;
+	}
+
+	/* MethodHandle.invoke, VarHandle.get, ...: any method type is found */
+	private static boolean isSignaturePolymorphic(Method m) {
+		return Modifier.isNative(m.getModifiers()) && m.isVarArgs()
+				&& m.getParameterCount() == 1 && m.getParameterTypes()[0] == Object[].class
+				&& m.getDeclaringClass().getName().startsWith("java.lang.invoke.");
+	}
+
+	private static String descriptor(Method m) {
+		StringBuilder sb = new StringBuilder("(");
+		for (Class<?> p : m.getParameterTypes()) sb.append(descriptor(p));
+		return sb.append(')').append(descriptor(m.getReturnType())).toString();
+	}
+
+	private static String descriptor(Class<?> c) {
+		if (c.isArray()) return c.getName().replace('.', '/');
+		if (c.isPrimitive()) return primitiveDescriptor(c.getName());
+		return 'L' + c.getName().replace('.', '/') + ';';
+	}
+
+	private static String primitiveDescriptor(String name) {
+		switch (name) {
+			case "boolean": return "Z";
+			case "byte": return "B";
+			case "char": return "C";
+			case "short": return "S";
+			case "int": return "I";
+			case "long": return "J";
+			case "float": return "F";
+			case "double": return "D";
+			case "void": return "V";
+			default: return null;
+		}
+	}
+
+	/**
+	 * Packages of JDK modules (of the bootstrap and platform class loaders in the boot layer).
+	 * Looked up reflectively, because the processor runs on Java 8 too
+	 */
+	private static final class JdkPackages {
+		private static final Set<String> packages = load();
+
+		static boolean contains(String pkg) {
+			return packages.contains(pkg);
+		}
+
+		private static Set<String> load() {
+			Set<String> result = new HashSet<>();
+			try {
+				Class<?> layer = Class.forName("java.lang.ModuleLayer");
+				Class<?> module = Class.forName("java.lang.Module");
+				Method getClassLoader = module.getMethod("getClassLoader");
+				Method getPackages = module.getMethod("getPackages");
+				Object boot = layer.getMethod("boot").invoke(null);
+				for (Object m : (Set<?>) layer.getMethod("modules").invoke(boot)) {
+					Object loader = getClassLoader.invoke(m);
+					if (loader != null && loader != JDK_LOADER) continue;
+					for (Object pkg : (Set<?>) getPackages.invoke(m)) result.add((String) pkg);
+				}
+			} catch (ReflectiveOperationException | RuntimeException e) {
+				// Java 8: no modules
+			}
+			return result;
+		}
+	}
+
+	/**
+	 * Finds {@code find}/{@code orElse}/{@code fallback} calls of method sequences
+	 */
+	private final class ChainScanner extends TreePathScanner<Void, Void> {
+		@Override
+		public Void visitMethodInvocation(MethodInvocationTree node, Void unused) {
+			if (node.getMethodSelect() instanceof MemberSelectTree) {
+				String method = ((MemberSelectTree) node.getMethodSelect()).getIdentifier().toString();
+				if (method.equals("find") || method.equals("orElse") || method.equals("fallback")) candidate(node);
+			}
+			return super.visitMethodInvocation(node, unused);
+		}
+
+		private void candidate(MethodInvocationTree node) {
+			String defaultName = null, defaultOwner = null, defaultCaller = null, mode = null, descriptor = null, unknown = null;
+			ExpressionTree expr = ((MemberSelectTree) node.getMethodSelect()).getExpression();
+			while (expr instanceof MethodInvocationTree) {
+				MethodInvocationTree call = (MethodInvocationTree) expr;
+				String method = methodName(call);
+				if (method == null) return;
+				if (method.equals("of")) {
+					if (!isMethodSequenceOf(call)) return;
+					List<? extends ExpressionTree> of = call.getArguments();
+					mode = modeName(of.get(of.size() - 1));
+					descriptor = descriptor(of.get(of.size() - 2));
+					break;
+				}
+				if (method.equals("withName")) defaultName = constant(call.getArguments().get(0));
+				else if (method.equals("withOwner")) defaultOwner = constant(call.getArguments().get(0));
+				else if (method.equals("withCaller")) defaultCaller = constant(call.getArguments().get(0));
+				else if (!CHAIN_METHODS.contains(method)) unknown = method;
+				if (!(call.getMethodSelect() instanceof MemberSelectTree)) return;
+				expr = ((MemberSelectTree) call.getMethodSelect()).getExpression();
+			}
+			if (mode == null) return;
+			if (unknown != null) {
+				trees.printMessage(Diagnostic.Kind.NOTE, "Ctrl-Fallback candidate is not checked for the resolution manifest: unknown call "
+						+ unknown, node, getCurrentPath().getCompilationUnit());
+				return;
+			}
+
+			List<? extends ExpressionTree> arguments = node.getArguments();
+			if (arguments.size() >= 3 && !mode.equals("findSpecial") && METHOD_MODES.contains(mode)) {
+				// declared with its own signature (and parameter order)
+				String owner = constant(arguments.get(0)), name = constant(arguments.get(1));
+				if (owner != null && name != null) check(owner, name, null, mode, descriptor(arguments.get(2)));
+				return;
+			}
+			List<String> args = new ArrayList<>();
+			for (ExpressionTree arg : arguments) {
+				String value = constant(arg);
+				if (value == null) return;
+				args.add(value);
+			}
+			if (mode.equals(CONSTRUCTOR_MODE)) {
+				if (args.size() == 1) check(args.get(0), null, null, mode, null);
+			} else if (mode.equals("findSpecial")) {
+				if (args.size() == 3) check(args.get(0), args.get(1), args.get(2), mode, descriptor);
+				else if (args.size() == 2 && defaultName != null) check(args.get(0), defaultName, args.get(1), mode, descriptor);
+				else if (args.size() == 2 && defaultOwner != null) check(defaultOwner, args.get(0), args.get(1), mode, descriptor);
+				else if (args.size() == 2 && defaultCaller != null) check(args.get(0), args.get(1), defaultCaller, mode, descriptor);
+			} else if (METHOD_MODES.contains(mode) || FIELD_MODES.contains(mode)) {
+				if (args.size() == 2) check(args.get(0), args.get(1), null, mode, descriptor);
+				else if (args.size() == 1 && defaultName != null) check(args.get(0), defaultName, null, mode, descriptor);
+				else if (args.size() == 1 && defaultOwner != null) check(defaultOwner, args.get(0), null, mode, descriptor);
+			}
+		}
+
+		private String methodName(MethodInvocationTree call) {
+			ExpressionTree select = call.getMethodSelect();
+			if (select instanceof MemberSelectTree) return ((MemberSelectTree) select).getIdentifier().toString();
+			if (select instanceof IdentifierTree) return ((IdentifierTree) select).getName().toString();
+			return null;
+		}
+
+		private boolean isMethodSequenceOf(MethodInvocationTree call) {
+			Element method = trees.getElement(pathOf(call));
+			if (method == null || method.getKind() != ElementKind.METHOD) return false;
+			Element owner = method.getEnclosingElement();
+			return owner instanceof TypeElement && ((TypeElement) owner).getQualifiedName().contentEquals(METHOD_SEQUENCE);
+		}
+
+		private String modeName(ExpressionTree mode) {
+			if (mode instanceof MemberSelectTree) return ((MemberSelectTree) mode).getIdentifier().toString();
+			if (mode instanceof IdentifierTree) return ((IdentifierTree) mode).getName().toString();
+			return null;
+		}
+
+		/**
+		 * @param type method type argument of {@code MethodSequence.of}
+		 * @return its method descriptor if it is {@code MethodType.methodType} of class literals, otherwise {@code null}
+		 */
+		private String descriptor(ExpressionTree type) {
+			if (!(type instanceof MethodInvocationTree)) return null;
+			MethodInvocationTree call = (MethodInvocationTree) type;
+			Element method = trees.getElement(pathOf(call));
+			if (method == null || !method.getSimpleName().contentEquals("methodType")) return null;
+			Element owner = method.getEnclosingElement();
+			if (!(owner instanceof TypeElement) || !((TypeElement) owner).getQualifiedName().contentEquals("java.lang.invoke.MethodType"))
+				return null;
+			List<String> types = new ArrayList<>();
+			for (ExpressionTree arg : call.getArguments()) {
+				if (!(arg instanceof MemberSelectTree) || !((MemberSelectTree) arg).getIdentifier().contentEquals("class")) return null;
+				TreePath path = pathOf(((MemberSelectTree) arg).getExpression());
+				String descriptor = path == null ? null : descriptor(trees.getTypeMirror(path));
+				if (descriptor == null) return null;
+				types.add(descriptor);
+			}
+			if (types.isEmpty()) return null;
+			StringBuilder sb = new StringBuilder("(");
+			for (int i = 1; i < types.size(); i++) sb.append(types.get(i));
+			return sb.append(')').append(types.get(0)).toString();
+		}
+
+		private String descriptor(TypeMirror type) {
+			if (type == null) return null;
+			type = processingEnv.getTypeUtils().erasure(type);
+			if (type.getKind() == TypeKind.VOID) return "V";
+			if (type.getKind().isPrimitive()) return primitiveDescriptor(type.getKind().name().toLowerCase(Locale.ROOT));
+			if (type.getKind() == TypeKind.ARRAY) {
+				String component = descriptor(((ArrayType) type).getComponentType());
+				return component == null ? null : '[' + component;
+			}
+			if (type.getKind() == TypeKind.DECLARED) {
+				TypeElement element = (TypeElement) ((DeclaredType) type).asElement();
+				return 'L' + elements.getBinaryName(element).toString().replace('.', '/') + ';';
+			}
+			return null;
+		}
+
+		private String constant(ExpressionTree expr) {
+			if (expr instanceof LiteralTree) {
+				Object value = ((LiteralTree) expr).getValue();
+				return value instanceof String ? (String) value : null;
+			}
+			if (expr instanceof IdentifierTree || expr instanceof MemberSelectTree) {
+				Element element = trees.getElement(pathOf(expr));
+				if (element instanceof VariableElement) {
+					Object value = ((VariableElement) element).getConstantValue();
+					return value instanceof String ? (String) value : null;
+				}
+			}
+			return null;
+		}
+
+		private TreePath pathOf(Tree tree) {
+			CompilationUnitTree unit = getCurrentPath().getCompilationUnit();
+			TreePath path = TreePath.getPath(getCurrentPath(), tree);
+			return path != null ? path : TreePath.getPath(unit, tree);
+		}
+	}
+}
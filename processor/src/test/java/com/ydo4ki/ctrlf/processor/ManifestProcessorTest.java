@@ -0,0 +1,155 @@
+package com.ydo4ki.ctrlf.processor;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Sulphuris
+ * @since 17.10.2026 11:05
+ */
+class ManifestProcessorTest {
+	private static final String FEATURE = String.valueOf(ManifestProcessor.featureLevel(System.getProperty("java.specification.version")));
+
+	@TempDir
+	Path out;
+
+	private static JavaFileObject source(String name, String code) {
+		return new SimpleJavaFileObject(URI.create("string:///" + name.replace('.', '/') + ".java"), JavaFileObject.Kind.SOURCE) {
+			@Override
+			public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+				return code;
+			}
+		};
+	}
+
+	private static JavaFileObject sequence(String type, String mode, String owner, String name) {
+		return source("sample.Sample", "package sample;\n"
+				+ "import com.ydo4ki.ctrlf.*;\n"
+				+ "import java.lang.invoke.*;\n"
+				+ "class Sample {\n"
+				+ "  static final Object m = MethodSequence.of(" + type + ", SearchMode." + mode + ")\n"
+				+ "      .find(\"" + owner + "\", \"" + name + "\")\n"
+				+ "      .fallback(\"" + owner + "\", \"" + name + "\");\n"
+				+ "}\n");
+	}
+
+	/**
+	 * Compiles the sources with the processor
+	 * @return lines of the generated manifest without the header, or an empty list if there is none
+	 */
+	private List<String> manifest(JavaFileObject... sources) throws IOException {
+		Path manifest = out.resolve(ManifestProcessor.RESOURCE);
+		Files.deleteIfExists(manifest);
+		JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+		List<String> options = Arrays.asList("-d", out.toString(), "-classpath", System.getProperty("java.class.path"));
+		JavaCompiler.CompilationTask task = compiler.getTask(null, null, null, options, null, Arrays.asList(sources));
+		task.setProcessors(Collections.singletonList(new ManifestProcessor()));
+		assertTrue(task.call());
+		if (!Files.exists(manifest)) return Collections.emptyList();
+		List<String> entries = new ArrayList<>();
+		for (String line : Files.readAllLines(manifest, StandardCharsets.UTF_8)) {
+			if (line.startsWith("#")) continue;
+			assertTrue(line.startsWith(FEATURE + " "), line);
+			entries.add(line.substring(FEATURE.length() + 1));
+		}
+		return entries;
+	}
+
+	@Test
+	void absentMethodIsRecorded() throws IOException {
+		assertEquals(Collections.singletonList("java.lang.Math#noSuchMethod"), manifest(sequence(
+				"MethodType.methodType(int.class, int.class)", "findStatic", "java.lang.Math", "noSuchMethod")));
+	}
+
+	@Test
+	void methodTypeIsChecked() throws IOException {
+		assertEquals(Collections.singletonList("java.lang.Math#max(Ljava/lang/String;)I"), manifest(sequence(
+				"MethodType.methodType(int.class, String.class)", "findStatic", "java.lang.Math", "max")));
+		assertEquals(Collections.emptyList(), manifest(sequence(
+				"MethodType.methodType(int.class, int.class, int.class)", "findStatic", "java.lang.Math", "max")));
+	}
+
+	@Test
+	void staticnessIsChecked() throws IOException {
+		assertEquals(Collections.singletonList("java.lang.String#length()I"), manifest(sequence(
+				"MethodType.methodType(int.class)", "findStatic", "java.lang.String", "length")));
+		assertEquals(Collections.emptyList(), manifest(sequence(
+				"MethodType.methodType(int.class)", "findVirtual", "java.lang.String", "length")));
+	}
+
+	@Test
+	void signaturePolymorphicMethodsAreFound() throws IOException {
+		assertEquals(Collections.emptyList(), manifest(sequence(
+				"MethodType.methodType(long.class, String[].class)", "findVirtual", "java.lang.invoke.MethodHandle", "invokeExact")));
+	}
+
+	@Test
+	void classesOutsideOfTheJdkAreNotRecorded() throws IOException {
+		// a library on the compile class path, in a package prefix that the JDK also uses
+		JavaFileObject library = source("com.sun.jna.Native", "package com.sun.jna;\n"
+				+ "public class Native { public static int abs(int x) { return x; } }\n");
+		assertEquals(Collections.emptyList(), manifest(library, sequence(
+				"MethodType.methodType(int.class, int.class)", "findStatic", "com.sun.jna.Native", "abs")));
+		assertEquals(Collections.emptyList(), manifest(sequence(
+				"MethodType.methodType(int.class, int.class)", "findStatic", "javax.inject.Provider", "abs")));
+	}
+
+	@Test
+	void absentJdkClassIsRecorded() throws IOException {
+		List<String> entries = manifest(sequence(
+				"MethodType.methodType(int.class, int.class)", "findStatic", "java.lang.NoSuchMath", "abs"));
+		// JDK packages are only known on Java 9+
+		if (ManifestProcessor.featureLevel(System.getProperty("java.specification.version")) >= 9)
+			assertEquals(Collections.singletonList("java.lang.NoSuchMath"), entries);
+		else
+			assertEquals(Collections.emptyList(), entries);
+	}
+
+	@Test
+	void sequenceOptionsAreFollowed() throws IOException {
+		assertEquals(Collections.singletonList("java.lang.Math#noSuchMethod"), manifest(source("sample.Sample", "package sample;\n"
+				+ "import com.ydo4ki.ctrlf.*;\n"
+				+ "import java.lang.invoke.*;\n"
+				+ "import java.time.Duration;\n"
+				+ "class Sample {\n"
+				+ "  static final Object m = MethodSequence.of(MethodType.methodType(int.class, int.class), SearchMode.findStatic)\n"
+				+ "      .withClassLoaders(ClassLoader.getSystemClassLoader())\n"
+				+ "      .withFailover()\n"
+				+ "      .withCalibration(Duration.ZERO, 1)\n"
+				+ "      .withAdaptiveBinding(2)\n"
+				+ "      .find(\"java.lang.Math\", \"abs\")\n"
+				+ "      .orElseMatching(\"java.lang.Math\", MemberPattern.regex(\"abs.*\"))\n"
+				+ "      .fallback(\"java.lang.Math\", \"noSuchMethod\");\n"
+				+ "}\n")));
+	}
+
+	@Test
+	void candidatesWithTheirOwnSignatureAreChecked() throws IOException {
+		assertEquals(Arrays.asList("java.lang.Math#max(Ljava/lang/String;)I", "java.lang.Math#noSuchMethod"), manifest(source("sample.Sample", "package sample;\n"
+				+ "import com.ydo4ki.ctrlf.*;\n"
+				+ "import java.lang.invoke.*;\n"
+				+ "class Sample {\n"
+				+ "  static final Object m = MethodSequence.of(MethodType.methodType(long.class, long.class), SearchMode.findStatic)\n"
+				+ "      .find(\"java.lang.Math\", \"max\", MethodType.methodType(int.class, String.class))\n"
+				+ "      .orElse(\"java.lang.Math\", \"abs\", MethodType.methodType(int.class, int.class))\n"
+				+ "      .orElse(\"java.lang.Math\", \"noSuchMethod\", MethodType.methodType(int.class, int.class), 0)\n"
+				+ "      .fallback(\"java.lang.Math\", \"abs\");\n"
+				+ "}\n")));
+	}
+}
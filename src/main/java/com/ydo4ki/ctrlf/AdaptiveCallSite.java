@@ -0,0 +1,221 @@
+package com.ydo4ki.ctrlf;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.MutableCallSite;
+import java.lang.invoke.WrongMethodTypeException;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Call site that invokes one of the interchangeable candidates of a method sequence
+ * and relinks itself to another one when the current candidate gets slower.
+ * <p>
+ * The target is
+ * <pre>
+ * guardWithTest(countdown(), current, sample(args))
+ * </pre>
+ * where {@code countdown} decrements a plain counter, so all invocations but every {@code sampleInterval}-th one
+ * go straight to the current candidate without a random number or a memory barrier on the way.
+ * Sampled invocations are spread round-robin over all found candidates and timed; latency of every candidate
+ * is the median of its last {@value #WINDOW} samples, so single slow invocations (such as ones interrupted by GC)
+ * do not matter. Once every candidate has been sampled {@value #WINDOW} times since the last relink,
+ * and the current one is more than {@code ratio} times slower than the fastest one,
+ * the call site is relinked to the fastest one.
+ * <p>
+ * A candidate that throws on a sampled invocation is never sampled or chosen again,
+ * and the invocation is repeated with the current candidate.
+ *
+ * @author Sulphuris
+ * @since 17.10.2026 05:02
+ * @see MethodSequence.Options#withAdaptiveBinding(double, int)
+ */
+public final class AdaptiveCallSite extends MutableCallSite {
+	/**
+	 * Default number of invocations per one sample
+	 */
+	public static final int DEFAULT_SAMPLE_INTERVAL = 1024;
+
+	/* number of last samples of a candidate its latency is computed from */
+	private static final int WINDOW = 32;
+
+	private static final MethodHandle COUNTDOWN;
+	private static final MethodHandle SAMPLE;
+
+	static {
+		MethodHandles.Lookup lookup = MethodHandles.lookup();
+		try {
+			COUNTDOWN = lookup.findVirtual(AdaptiveCallSite.class, "countdown", MethodType.methodType(boolean.class));
+			SAMPLE = lookup.findVirtual(AdaptiveCallSite.class, "sample", MethodType.methodType(Object.class, Object[].class));
+		} catch (ReflectiveOperationException e) {
+			throw new ExceptionInInitializerError(e);
+		}
+	}
+
+	private final List<Calibration.Entry> candidates;
+	private final MethodHandle[] handles;
+	private final MethodHandle[] spreaders;
+	private final double ratio;
+	private final int sampleInterval;
+	private final MethodHandle sample;
+	/* invocations left until the next sample; updated without synchronization, so samples may be off by a few invocations */
+	private int countdown;
+
+	/* guarded by this: last samples of every candidate (ring buffers) and numbers of samples since the last relink */
+	private final long[][] window;
+	private final int[] total;
+	private final int[] samples;
+	private final boolean[] broken;
+	private int next;
+	private volatile int current;
+	private volatile int relinks;
+
+	AdaptiveCallSite(MethodType type, List<Calibration.Entry> candidates, int current, double ratio, int sampleInterval) {
+		super(type);
+		int n = candidates.size();
+		this.candidates = candidates;
+		this.handles = new MethodHandle[n];
+		this.spreaders = new MethodHandle[n];
+		this.ratio = ratio;
+		this.sampleInterval = sampleInterval;
+		this.countdown = sampleInterval;
+		this.window = new long[n][WINDOW];
+		this.total = new int[n];
+		this.samples = new int[n];
+		this.broken = new boolean[n];
+		for (int i = 0; i < n; i++) {
+			try {
+				handles[i] = candidates.get(i).handle.asFixedArity().asType(type);
+				spreaders[i] = handles[i].asType(type.generic()).asSpreader(Object[].class, type.parameterCount());
+			} catch (WrongMethodTypeException e) {
+				broken[i] = true;
+			}
+		}
+		this.sample = SAMPLE.bindTo(this).asCollector(Object[].class, type.parameterCount()).asType(type);
+		this.current = current;
+		link();
+	}
+
+	static void check(double ratio, int sampleInterval) {
+		if (!(ratio >= 1)) throw new IllegalArgumentException("Illegal ratio: " + ratio);
+		if (sampleInterval <= 0 || Integer.bitCount(sampleInterval) != 1)
+			throw new IllegalArgumentException("Illegal sample interval: " + sampleInterval);
+	}
+
+	private void link() {
+		setTarget(MethodHandles.guardWithTest(COUNTDOWN.bindTo(this), handles[current], sample));
+	}
+
+	/**
+	 * @return false once per {@code sampleInterval} invocations (then the invocation is sampled)
+	 */
+	private boolean countdown() {
+		if (--countdown > 0) return true;
+		countdown = sampleInterval;
+		return false;
+	}
+
+	private Object sample(Object[] args) throws Throwable {
+		int k = pick();
+		if (k != current) {
+			long start = System.nanoTime();
+			Object result;
+			try {
+				result = (Object) spreaders[k].invokeExact(args);
+			} catch (Throwable t) {
+				exclude(k);
+				return (Object) spreaders[current].invokeExact(args);
+			}
+			record(k, System.nanoTime() - start);
+			return result;
+		}
+		long start = System.nanoTime();
+		Object result = (Object) spreaders[k].invokeExact(args);
+		record(k, System.nanoTime() - start);
+		return result;
+	}
+
+	private synchronized int pick() {
+		for (int i = 0; i < broken.length; i++) {
+			int k = next;
+			next = (next + 1) % broken.length;
+			if (!broken[k]) return k;
+		}
+		return current;
+	}
+
+	private synchronized void exclude(int k) {
+		broken[k] = true;
+	}
+
+	private synchronized void record(int k, long nanos) {
+		window[k][total[k]++ % WINDOW] = nanos;
+		if (total[k] == 2 * WINDOW) total[k] = WINDOW; // keeps the ring buffer position, avoids overflow
+		samples[k]++;
+		for (int i = 0; i < samples.length; i++) if (!broken[i] && samples[i] < WINDOW) return;
+		double[] latency = new double[samples.length];
+		Arrays.fill(latency, Double.NaN); // an excluded current candidate is always replaced
+		int best = -1;
+		for (int i = 0; i < samples.length; i++) {
+			if (broken[i]) continue;
+			latency[i] = median(i);
+			if (best < 0 || latency[i] < latency[best]) best = i;
+		}
+		if (best >= 0 && best != current && !(latency[current] <= ratio * latency[best])) {
+			current = best;
+			relinks++;
+			Arrays.fill(samples, 0);
+			link();
+		}
+	}
+
+	private double median(int k) {
+		int n = Math.min(total[k], WINDOW);
+		if (n == 0) return Double.NaN;
+		long[] sorted = Arrays.copyOf(window[k], n);
+		Arrays.sort(sorted);
+		return n % 2 == 1 ? sorted[n / 2] : (sorted[n / 2 - 1] + sorted[n / 2]) / 2.0;
+	}
+
+	/**
+	 * @return index (in its sequence) of the candidate the call site is currently linked to
+	 */
+	public int getCurrentIndex() {
+		return candidates.get(current).getIndex();
+	}
+
+	/**
+	 * @return number of times the call site was relinked to another candidate
+	 */
+	public int getRelinkCount() {
+		return relinks;
+	}
+
+	/**
+	 * @param index index of a candidate in its sequence
+	 * @return median latency of last sampled invocations of the candidate in nanoseconds
+	 *         (including the overhead of sampling, which is the same for all candidates),
+	 *         or NaN if the candidate was not found, was not sampled yet or threw on a sampled invocation
+	 */
+	public synchronized double getLatencyNanos(int index) {
+		for (int i = 0; i < candidates.size(); i++)
+			if (candidates.get(i).getIndex() == index)
+				return broken[i] ? Double.NaN : median(i);
+		return Double.NaN;
+	}
+
+	@Override
+	public synchronized String toString() {
+		StringBuilder sb = new StringBuilder("adaptive call site, ").append(relinks).append(" relinks:");
+		for (int i = 0; i < candidates.size(); i++) {
+			Calibration.Entry candidate = candidates.get(i);
+			sb.append("\n  ").append(i == current ? "* #" : "  #").append(candidate.getIndex()).append(' ');
+			candidate.getOwner().ifPresent(o -> sb.append(o instanceof Class ? ((Class<?>) o).getName() : o));
+			candidate.getName().ifPresent(n -> sb.append('.').append(n));
+			if (broken[i]) sb.append(": failed");
+			else if (total[i] != 0) sb.append(String.format(": %.1f ns", median(i)));
+		}
+		return sb.toString();
+	}
+}
@@ -0,0 +1,433 @@
+package com.ydo4ki.ctrlf;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.invoke.MethodHandle;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * Registry of many method sequences (bindings) that are resolved together in one parallel pass.
+ * <p>
+ * All not yet resolved bindings are resolved concurrently by {@link #resolveAll()}.
+ * During the pass, identical probes of different bindings are performed only once
+ * (the other bindings wait for the result of the first one), and owner classes are loaded once.
+ * Every binding gets exactly the same {@link FoundMethod} as its sequence would give when resolved on its own.
+ * <p>
+ * Example:
+ * <pre>{@code
+ * BindingRegistry registry = new BindingRegistry();
+ * BindingRegistry.Binding caller = registry.register("caller", () ->
+ *         MethodSequence.of(MethodType.methodType(Class.class, int.class), SearchMode.findStatic)
+ *                 .find("sun.reflect.Reflection", "getCallerClass")
+ *                 .fallback("me.random.CallersSlow", "getCallerClass"));
+ * // ... register other bindings
+ * System.out.println(registry.resolveAll());
+ * MethodHandle mh = caller.methodHandle();
+ * }</pre>
+ * With {@link #withInstrumentation()}, method handles of bindings count their invocations
+ * and sample their latency (see {@link InvocationMetrics}), and {@link #getMetrics()} tells
+ * how often and how slowly every binding is invoked.
+ * <p>
+ * {@link #registerMBean(String)} exposes decisions and resolution traces of all bindings
+ * through the platform MBean server (see {@link BindingRegistryMXBean}).
+ *
+ * @author Sulphuris
+ * @since 16.10.2026 23:12
+ */
+public final class BindingRegistry {
+	/* resolution pass the current thread works for */
+	private static final ThreadLocal<Pass> currentPass = new ThreadLocal<>();
+
+	private final List<Binding> bindings = new ArrayList<>();
+	private volatile int sampleInterval;
+	private volatile ObjectName objectName;
+
+	/**
+	 * Creates an empty registry
+	 */
+	public BindingRegistry() {}
+
+	/**
+	 * Instruments method handles of bindings registered after this call,
+	 * sampling latency of every {@value InvocationMetrics#DEFAULT_SAMPLE_INTERVAL}-th invocation
+	 * @return this
+	 */
+	public BindingRegistry withInstrumentation() {
+		return withInstrumentation(InvocationMetrics.DEFAULT_SAMPLE_INTERVAL);
+	}
+
+	/**
+	 * Instruments method handles of bindings registered after this call
+	 * @param sampleInterval number of invocations per one latency sample (power of two)
+	 * @return this
+	 * @throws IllegalArgumentException if sampleInterval is not a positive power of two
+	 */
+	public BindingRegistry withInstrumentation(int sampleInterval) {
+		this.sampleInterval = InvocationMetrics.checkSampleInterval(sampleInterval);
+		return this;
+	}
+
+	/**
+	 * Registers a binding. The method sequence is not resolved until {@link #resolveAll()}
+	 * or {@link Binding#get()} is called
+	 * @param name name of the binding (used in the summary)
+	 * @param chain method sequence of the binding
+	 * @return the registered binding
+	 */
+	public Binding register(String name, Supplier<? extends FoundMethod> chain) {
+		int interval = sampleInterval;
+		Binding binding = new Binding(Objects.requireNonNull(name), Objects.requireNonNull(chain),
+				interval == 0 ? null : new InvocationMetrics(interval));
+		synchronized (bindings) {
+			bindings.add(binding);
+		}
+		return binding;
+	}
+
+	/**
+	 * @return all registered bindings in registration order
+	 */
+	public List<Binding> getBindings() {
+		synchronized (bindings) {
+			return Collections.unmodifiableList(new ArrayList<>(bindings));
+		}
+	}
+
+	/**
+	 * @return metrics of all instrumented bindings by binding name, in registration order
+	 */
+	public Map<String, InvocationMetrics.Snapshot> getMetrics() {
+		Map<String, InvocationMetrics.Snapshot> result = new LinkedHashMap<>();
+		for (Binding binding : getBindings())
+			binding.getMetrics().ifPresent(metrics -> result.put(binding.getName(), metrics));
+		return result;
+	}
+
+	/**
+	 * Registers the {@link BindingRegistryMXBean} of this registry in the platform MBean server
+	 * as {@code com.ydo4ki.ctrlf:type=BindingRegistry,name=<name>}
+	 * @param name name of the registry
+	 * @return object name of the registered MBean
+	 * @throws JMException if the MBean can not be registered (for example, the name is already taken)
+	 * @throws IllegalStateException if the MBean of this registry is already registered
+	 */
+	public synchronized ObjectName registerMBean(String name) throws JMException {
+		if (objectName != null) throw new IllegalStateException("MBean is already registered as " + objectName);
+		ObjectName on = new ObjectName("com.ydo4ki.ctrlf:type=BindingRegistry,name=" + ObjectName.quote(name));
+		ManagementFactory.getPlatformMBeanServer().registerMBean(new Management(), on);
+		return objectName = on;
+	}
+
+	/**
+	 * Unregisters the MBean registered with {@link #registerMBean(String)}, if any
+	 * @throws JMException if the MBean can not be unregistered
+	 */
+	public synchronized void unregisterMBean() throws JMException {
+		ObjectName on = objectName;
+		if (on == null) return;
+		objectName = null;
+		ManagementFactory.getPlatformMBeanServer().unregisterMBean(on);
+	}
+
+	/**
+	 * Resolves all not yet resolved bindings in parallel on virtual threads if the runtime supports them,
+	 * or on the common {@link java.util.concurrent.ForkJoinPool} otherwise
+	 * @return summary of all registered bindings
+	 */
+	public Summary resolveAll() {
+		return resolveAll(ProbeExecutors.defaultExecutor());
+	}
+
+	/**
+	 * Resolves all not yet resolved bindings in parallel on the given executor
+	 * @param executor executor to resolve bindings on
+	 * @return summary of all registered bindings
+	 */
+	public Summary resolveAll(Executor executor) {
+		List<Binding> all = getBindings();
+		Pass pass = new Pass();
+		List<CompletableFuture<?>> futures = new ArrayList<>();
+		for (Binding binding : all) {
+			if (binding.result == null) futures.add(CompletableFuture.runAsync(() -> {
+				currentPass.set(pass);
+				try {
+					binding.get();
+				} finally {
+					currentPass.remove();
+				}
+			}, executor));
+		}
+		try {
+			CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+		} catch (CompletionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof Error) throw (Error) cause;
+			if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+			throw e;
+		}
+		return new Summary(all);
+	}
+
+	/**
+	 * Probes the given candidate through {@link ResolutionCache},
+	 * sharing the probe with other bindings if the current thread resolves a binding of a registry.
+	 * If the sequence has several class loaders, the candidate is probed in each of them until it is found.
+	 * If the candidate declares its own signature, the found method is adapted to the type of its sequence
+	 * @param candidate candidate to probe
+	 * @return found or not found resolution (the one of the last class loader if nothing is found)
+	 */
+	static Resolution resolve(Candidate candidate) {
+		Pass pass = currentPass.get();
+		ClassLoader[] loaders = candidate.sequence.classLoaders;
+		if (loaders == null) return candidate.adapt(resolve(pass, candidate));
+		Resolution resolution = null;
+		for (ClassLoader loader : loaders) {
+			resolution = resolve(pass, candidate.in(loader));
+			if (resolution.isFound()) break;
+		}
+		return candidate.adapt(resolution);
+	}
+
+	private static Resolution resolve(Pass pass, Candidate candidate) {
+		return pass == null ? ResolutionCache.resolve(candidate) : pass.resolve(candidate);
+	}
+
+	/**
+	 * {@link BindingRegistryMXBean} of this registry
+	 */
+	private final class Management implements BindingRegistryMXBean {
+		@Override
+		public int getBindingCount() {
+			return getBindings().size();
+		}
+
+		@Override
+		public int getResolvedCount() {
+			int count = 0;
+			for (Binding binding : getBindings()) if (binding.isResolved()) count++;
+			return count;
+		}
+
+		@Override
+		public String[] getFoundFirst() {
+			return names(0);
+		}
+
+		@Override
+		public String[] getFellBack() {
+			return names(1);
+		}
+
+		@Override
+		public String[] getNotFound() {
+			return names(-1);
+		}
+
+		/* names of resolved bindings found first (0), fell back (1) or not found (-1) */
+		private String[] names(int kind) {
+			List<String> names = new ArrayList<>();
+			for (Binding binding : getBindings()) {
+				FoundMethod r = binding.result;
+				if (r == null) continue;
+				int k = r.getFoundIndex().isPresent() ? Math.min(r.getFoundIndex().getAsInt(), 1) : -1;
+				if (k == kind) names.add(binding.getName());
+			}
+			return names.toArray(new String[0]);
+		}
+
+		@Override
+		public Map<String, String> getDecisions() {
+			Map<String, String> decisions = new LinkedHashMap<>();
+			for (Binding binding : getBindings()) decisions.put(binding.getName(), binding.decision());
+			return decisions;
+		}
+
+		@Override
+		public String[] getTrace(String name) {
+			for (Binding binding : getBindings()) {
+				if (!binding.getName().equals(name)) continue;
+				return binding.getTrace().map(trace -> {
+					List<ResolutionTrace.Step> steps = trace.getSteps();
+					String[] lines = new String[steps.size()];
+					for (int i = 0; i < lines.length; i++) lines[i] = steps.get(i).toString();
+					return lines;
+				}).orElse(new String[0]);
+			}
+			return new String[0];
+		}
+
+		@Override
+		public long getResolutionNanos(String name) {
+			for (Binding binding : getBindings())
+				if (binding.getName().equals(name)) return binding.getTrace().map(ResolutionTrace::getTotalNanos).orElse(-1L);
+			return -1;
+		}
+	}
+
+	/**
+	 * Probes performed during one {@link #resolveAll(Executor)} call
+	 */
+	private static final class Pass {
+		private final InFlight<Candidate, Resolution> probes = new InFlight<>(true);
+
+		Resolution resolve(Candidate candidate) {
+			return probes.resolve(candidate, ResolutionCache::resolve);
+		}
+	}
+
+	/**
+	 * Method sequence registered in a {@link BindingRegistry}
+	 */
+	public static final class Binding {
+		private final String name;
+		private final Supplier<? extends FoundMethod> chain;
+		private final InvocationMetrics metrics;
+		private volatile FoundMethod result;
+		private volatile MethodHandle instrumented;
+
+		Binding(String name, Supplier<? extends FoundMethod> chain, InvocationMetrics metrics) {
+			this.name = name;
+			this.chain = chain;
+			this.metrics = metrics;
+		}
+
+		/**
+		 * @return name of the binding
+		 */
+		public String getName() {
+			return name;
+		}
+
+		/**
+		 * Gets the result of the method sequence of this binding, resolving it if it was not resolved yet
+		 * @return the result of the method sequence
+		 */
+		public FoundMethod get() {
+			FoundMethod r = result;
+			if (r == null) synchronized (this) {
+				r = result;
+				if (r == null) result = r = Objects.requireNonNull(chain.get(), "chain returned null");
+			}
+			return r;
+		}
+
+		/**
+		 * Shortcut for {@code get().methodHandle()}.
+		 * If the registry is instrumented, the found method is wrapped to record its invocations
+		 * @return the found method
+		 * @see FoundMethod#methodHandle()
+		 */
+		public MethodHandle methodHandle() {
+			if (metrics == null) return get().methodHandle();
+			MethodHandle mh = instrumented;
+			if (mh == null) instrumented = mh = metrics.instrument(get().methodHandle());
+			return mh;
+		}
+
+		/**
+		 * @return invocation metrics of this binding, or empty if the registry was not instrumented when it was registered
+		 */
+		public Optional<InvocationMetrics.Snapshot> getMetrics() {
+			return metrics == null ? Optional.empty() : Optional.of(metrics.snapshot());
+		}
+
+		/**
+		 * @return resolution trace of this binding, or empty if it was not resolved yet
+		 */
+		public Optional<ResolutionTrace> getTrace() {
+			FoundMethod r = result;
+			return r == null ? Optional.empty() : Optional.of(r.getTrace());
+		}
+
+		/**
+		 * @return true if the method sequence of this binding was already resolved
+		 */
+		public boolean isResolved() {
+			return result != null;
+		}
+
+		@Override
+		public String toString() {
+			return name + ": " + decision();
+		}
+
+		/**
+		 * @return what this binding was resolved to, such as {@code found java.lang.Math.max (fallback #1)}
+		 */
+		String decision() {
+			FoundMethod r = result;
+			if (r == null) return "not resolved";
+			if (!r.getFoundIndex().isPresent())
+				return "not found (" + r.getErr().map(String::valueOf).orElse("no candidates") + ")";
+			StringBuilder sb = new StringBuilder("found ");
+			r.getFoundOwner().ifPresent(o -> sb.append(o instanceof Class ? ((Class<?>) o).getName() : o));
+			if (r instanceof FoundMethod.Named) ((FoundMethod.Named) r).getFoundName().ifPresent(n -> sb.append('.').append(n));
+			int index = r.getFoundIndex().getAsInt();
+			if (index > 0) sb.append(" (fallback #").append(index).append(')');
+			return sb.toString();
+		}
+	}
+
+	/**
+	 * Summary of a {@link #resolveAll()} pass: which bindings were found on the first candidate,
+	 * which fell back to later candidates, and which were not found at all
+	 */
+	public static final class Summary {
+		private final List<Binding> first = new ArrayList<>();
+		private final List<Binding> fellBack = new ArrayList<>();
+		private final List<Binding> notFound = new ArrayList<>();
+
+		Summary(List<Binding> bindings) {
+			for (Binding binding : bindings) {
+				FoundMethod r = binding.get();
+				if (!r.getFoundIndex().isPresent()) notFound.add(binding);
+				else if (r.getFoundIndex().getAsInt() == 0) first.add(binding);
+				else fellBack.add(binding);
+			}
+		}
+
+		/**
+		 * @return bindings whose first candidate was found
+		 */
+		public List<Binding> getFoundFirst() {
+			return Collections.unmodifiableList(first);
+		}
+
+		/**
+		 * @return bindings whose first candidate was not found, but some later one was
+		 */
+		public List<Binding> getFellBack() {
+			return Collections.unmodifiableList(fellBack);
+		}
+
+		/**
+		 * @return bindings with nothing found
+		 */
+		public List<Binding> getNotFound() {
+			return Collections.unmodifiableList(notFound);
+		}
+
+		@Override
+		public String toString() {
+			StringBuilder sb = new StringBuilder()
+					.append(first.size() + fellBack.size() + notFound.size()).append(" bindings: ")
+					.append(first.size()).append(" found first, ")
+					.append(fellBack.size()).append(" fell back, ")
+					.append(notFound.size()).append(" not found");
+			for (Binding binding : fellBack) sb.append("\n  ").append(binding);
+			for (Binding binding : notFound) sb.append("\n  ").append(binding);
+			return sb.toString();
+		}
+	}
+}
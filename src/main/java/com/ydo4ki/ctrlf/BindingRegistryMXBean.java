@@ -0,0 +1,60 @@
+package com.ydo4ki.ctrlf;
+
+import java.util.Map;
+
+/**
+ * Management interface of a {@link BindingRegistry}, registered with {@link BindingRegistry#registerMBean(String)}.
+ * <p>
+ * Tells which candidate every binding resolved to, and how every candidate was probed,
+ * so hosts whose bindings fell back to slow candidates can be found with any JMX client.
+ * Reading the attributes never resolves bindings.
+ *
+ * @author Sulphuris
+ * @since 17.10.2026 03:02
+ */
+public interface BindingRegistryMXBean {
+	/**
+	 * @return number of registered bindings
+	 */
+	int getBindingCount();
+
+	/**
+	 * @return number of resolved bindings
+	 */
+	int getResolvedCount();
+
+	/**
+	 * @return names of resolved bindings whose first candidate was found
+	 */
+	String[] getFoundFirst();
+
+	/**
+	 * @return names of resolved bindings whose first candidate was not found, but some later one was
+	 */
+	String[] getFellBack();
+
+	/**
+	 * @return names of resolved bindings with nothing found
+	 */
+	String[] getNotFound();
+
+	/**
+	 * @return decision of every binding by binding name, such as {@code found java.lang.Math.max (fallback #1)}
+	 */
+	Map<String, String> getDecisions();
+
+	/**
+	 * @param binding binding name
+	 * @return every probe of the binding (candidate, outcome, failure class and nanoseconds),
+	 *         or an empty array if there is no such resolved binding or it was resolved without tracing
+	 *         (see {@link ResolutionTrace#setEnabled(boolean)})
+	 */
+	String[] getTrace(String binding);
+
+	/**
+	 * @param binding binding name
+	 * @return nanoseconds spent on probes of the binding, or -1 if there is no such resolved binding
+	 *         (0 if it was resolved without tracing)
+	 */
+	long getResolutionNanos(String binding);
+}
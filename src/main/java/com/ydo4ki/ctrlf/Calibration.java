@@ -0,0 +1,211 @@
+package com.ydo4ki.ctrlf;
+
+import java.lang.invoke.MethodHandle;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Result of calibration of a method sequence: how fast every found candidate was
+ * when invoked with the representative arguments, and which one was chosen.
+ * <p>
+ * Candidates are benchmarked in rounds, one time slice of invocations per candidate per round,
+ * so all candidates are warmed up alike. The first round is only a warm-up; the best time per invocation
+ * of the other rounds is taken. Candidates that throw are not chosen.
+ * <p>
+ * The budget is a limit: the clock is checked after every invocation, and once the budget is spent,
+ * the current round is discarded and no more rounds are run (so only rounds that measured all candidates count).
+ *
+ * @author Sulphuris
+ * @since 17.10.2026 04:16
+ * @see MethodSequence.Options#withCalibration(java.time.Duration, Object...)
+ */
+public final class Calibration {
+	private static final int ROUNDS = 8;
+
+	/* keeps results of benchmarked invocations alive */
+	@SuppressWarnings("unused")
+	private static volatile Object sink;
+
+	private final List<Entry> entries;
+	private final Entry chosen;
+	private final long elapsedNanos;
+
+	private Calibration(List<Entry> entries, Entry chosen, long elapsedNanos) {
+		this.entries = entries;
+		this.chosen = chosen;
+		this.elapsedNanos = elapsedNanos;
+	}
+
+	/**
+	 * Benchmarks the given found candidates
+	 * @param entries found candidates in declaration order
+	 * @param arguments representative arguments
+	 * @param budgetNanos time to spend on all candidates
+	 * @return calibration result; if no candidate could be invoked, the first one is chosen
+	 */
+	static Calibration run(List<Entry> entries, Object[] arguments, long budgetNanos) {
+		long start = System.nanoTime();
+		if (entries.size() > 1) {
+			long deadline = start + budgetNanos;
+			long slice = Math.max(budgetNanos / ((long) ROUNDS * entries.size()), 1);
+			for (Entry entry : entries) entry.prepare(arguments);
+			rounds:
+			for (int round = 0; round < ROUNDS; round++) {
+				for (Entry entry : entries) if (!entry.measure(arguments, slice, deadline)) break rounds;
+				if (round != 0) for (Entry entry : entries) entry.commit();
+			}
+		}
+		Entry chosen = entries.get(0);
+		for (Entry entry : entries)
+			if (entry.failure == null && (chosen.failure != null || entry.nanos < chosen.nanos)) chosen = entry;
+		return new Calibration(Collections.unmodifiableList(new ArrayList<>(entries)), chosen, System.nanoTime() - start);
+	}
+
+	/**
+	 * @return found candidates in declaration order with their timings
+	 */
+	public List<Entry> getEntries() {
+		return entries;
+	}
+
+	/**
+	 * @return the chosen (fastest) candidate
+	 */
+	public Entry getChosen() {
+		return chosen;
+	}
+
+	/**
+	 * @return time the calibration took in nanoseconds
+	 */
+	public long getElapsedNanos() {
+		return elapsedNanos;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder("calibrated in ").append(elapsedNanos / 1_000_000).append(" ms:");
+		for (Entry entry : entries) {
+			sb.append("\n  ").append(entry == chosen ? "* " : "  ").append(entry);
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Found candidate with its timing
+	 */
+	public static final class Entry {
+		private final int index;
+		private final Object owner;
+		private final String name;
+		final MethodHandle handle;
+		private MethodHandle spreader;
+		private double nanos = Double.NaN;
+		/* time per invocation measured in the current round */
+		private double measured = Double.NaN;
+		private Throwable failure;
+
+		Entry(int index, Object owner, String name, MethodHandle handle) {
+			this.index = index;
+			this.owner = owner;
+			this.name = name;
+			this.handle = handle;
+		}
+
+		private void prepare(Object[] arguments) {
+			try {
+				MethodHandle mh = handle.asFixedArity();
+				if (mh.type().parameterCount() != arguments.length)
+					throw new IllegalArgumentException("Expected " + mh.type().parameterCount()
+							+ " representative arguments for " + mh.type() + ", got " + arguments.length);
+				spreader = mh.asType(mh.type().generic()).asSpreader(Object[].class, arguments.length);
+			} catch (RuntimeException e) {
+				failure = e;
+			}
+		}
+
+		/**
+		 * Invokes the candidate for the given time slice
+		 * @param deadline end of the whole calibration budget
+		 * @return false if the budget was spent before the slice ended
+		 */
+		private boolean measure(Object[] arguments, long slice, long deadline) {
+			if (failure != null) return true;
+			MethodHandle mh = spreader;
+			Object result = null;
+			long ops = 0;
+			long start = System.nanoTime();
+			long end = Math.min(start + slice, deadline) - start;
+			long now;
+			try {
+				do {
+					result = (Object) mh.invokeExact(arguments);
+					ops++;
+					now = System.nanoTime();
+				} while (now - start < end);
+			} catch (Throwable t) {
+				failure = t;
+				nanos = measured = Double.NaN;
+				return true;
+			}
+			sink = result;
+			measured = (double) (now - start) / ops;
+			return now - deadline < 0;
+		}
+
+		/**
+		 * Takes the time measured in a completed round into account
+		 */
+		private void commit() {
+			if (failure == null && !(measured >= nanos)) nanos = measured;
+		}
+
+		/**
+		 * @return index of the candidate in its sequence
+		 */
+		public int getIndex() {
+			return index;
+		}
+
+		/**
+		 * @return owner of the candidate, or empty if it is unknown (a method handle that is not a direct method handle)
+		 */
+		public Optional<Object> getOwner() {
+			return Optional.ofNullable(owner);
+		}
+
+		/**
+		 * @return name of the candidate, or empty for constructors and unknown method handles
+		 */
+		public Optional<String> getName() {
+			return Optional.ofNullable(name);
+		}
+
+		/**
+		 * @return best measured time per invocation in nanoseconds (including the invocation and clock overhead,
+		 *         which is the same for all candidates), or NaN if the candidate was not measured
+		 */
+		public double getNanosPerInvocation() {
+			return nanos;
+		}
+
+		/**
+		 * @return the exception the candidate threw when it was invoked with the representative arguments, if any
+		 */
+		public Optional<Throwable> getFailure() {
+			return Optional.ofNullable(failure);
+		}
+
+		@Override
+		public String toString() {
+			StringBuilder sb = new StringBuilder().append('#').append(index).append(' ');
+			sb.append(owner instanceof Class ? ((Class<?>) owner).getName() : String.valueOf(owner));
+			if (name != null) sb.append('.').append(name);
+			if (failure != null) sb.append(": failed (").append(failure).append(')');
+			else if (!Double.isNaN(nanos)) sb.append(String.format(": %.1f ns", nanos));
+			return sb.toString();
+		}
+	}
+}
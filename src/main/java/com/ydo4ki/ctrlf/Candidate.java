@@ -0,0 +1,155 @@
+package com.ydo4ki.ctrlf;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.WrongMethodTypeException;
+import java.util.Objects;
+
+/**
+ * Single element of a method sequence: the owner class name, member name and (for {@link SearchMode#findSpecial})
+ * special caller class name, together with the sequence that provides lookup, type and search mode,
+ * and the class loader the candidate is probed in (one of the class loaders of the sequence).
+ * <p>
+ * Two candidates are equal if probing them is guaranteed to give the same result
+ * (including whether the owner class is initialized), so candidates are used as keys of shared probes, and (without the sequence) of {@link ResolutionCache}.
+ *
+ * @author Sulphuris
+ * @since 16.10.2026 19:02
+ */
+final class Candidate {
+	final MethodSequence<?> sequence;
+	final String owner;
+	final String name;
+	final String specialCaller;
+	final ClassLoader loader;
+	/* method type the found method is adapted to if the candidate declares its own signature
+	   (the method type of its sequence), or null; does not affect probing, so it is not part of equality */
+	final MethodType adaptTo;
+	/* sequence parameter every parameter of the candidate takes, or null to take them by position (see SignatureAdapter) */
+	final int[] order;
+
+	private final int hash;
+
+	Candidate(MethodSequence<?> sequence, String owner, String name, String specialCaller) {
+		this(sequence, owner, name, specialCaller, sequence.classLoader, null, null);
+	}
+
+	private Candidate(MethodSequence<?> sequence, String owner, String name, String specialCaller, ClassLoader loader,
+					  MethodType adaptTo, int[] order) {
+		this.sequence = sequence;
+		this.owner = owner;
+		this.name = name;
+		this.specialCaller = specialCaller;
+		this.loader = loader;
+		this.adaptTo = adaptTo;
+		this.order = order;
+		this.hash = computeHash();
+	}
+
+	/**
+	 * @param loader class loader
+	 * @return the same candidate probed in the given class loader
+	 */
+	Candidate in(ClassLoader loader) {
+		return loader == this.loader ? this : new Candidate(sequence, owner, name, specialCaller, loader, adaptTo, order);
+	}
+
+	/**
+	 * @return the same candidate, probed without initializing its owner class
+	 */
+	Candidate withoutInitialization() {
+		MethodSequence<?> s = sequence.withoutInitialization();
+		return s == sequence ? this : new Candidate(s, owner, name, specialCaller, loader, adaptTo, order);
+	}
+
+	/**
+	 * @param type method type of the sequence the candidate is declared in
+	 * @param order order checked with {@link SignatureAdapter#checkOrder}, or {@code null} to match parameters by position
+	 * @return the same candidate, whose found method is adapted to the given type (see {@link SignatureAdapter})
+	 */
+	Candidate adaptedTo(MethodType type, int[] order) {
+		if (order == null && type.equals(sequence.methodType)) return this;
+		return new Candidate(sequence, owner, name, specialCaller, loader, type, order);
+	}
+
+	/**
+	 * @param resolution result of probing this candidate
+	 * @return the resolution with the found method adapted to the method type of the sequence the candidate is declared in
+	 */
+	Resolution adapt(Resolution resolution) {
+		if (adaptTo == null || !resolution.isFound()) return resolution;
+		try {
+			return Resolution.found(resolution.owner, SignatureAdapter.adapt(resolution.handle, sequence.methodType, adaptTo, order));
+		} catch (WrongMethodTypeException e) {
+			return Resolution.notfound(e);
+		}
+	}
+
+	/**
+	 * Probes this candidate without any caching
+	 * @return found or not found resolution
+	 */
+	Resolution resolve() {
+		Class<?> refc = ClassProbe.find(owner, loader, sequence.initialize);
+		if (refc == null) return Resolution.notfound(ClassProbe.absence(owner, loader));
+		Class<?> caller = null;
+		if (specialCaller != null) {
+			caller = ClassProbe.find(specialCaller, loader, sequence.initialize);
+			if (caller == null) return Resolution.notfound(ClassProbe.absence(specialCaller, loader));
+		}
+		try {
+			Platform.checkAccess(sequence.lookup, refc);
+			ReflectiveOperationException absent = sequence.searchMode.knownAbsence(sequence, refc, name);
+			if (absent != null) return Resolution.notfound(absent);
+			MethodHandle mh = sequence.searchMode.findMember(sequence, refc, name, caller);
+			return Resolution.found(refc, mh);
+		} catch (Exception e) {
+			return Resolution.notfound(e);
+		}
+	}
+
+	private int computeHash() {
+		int h = sequence.searchMode.hashCode();
+		h = 31 * h + sequence.lookup.lookupClass().hashCode();
+		h = 31 * h + sequence.lookup.lookupModes();
+		h = 31 * h + System.identityHashCode(loader);
+		h = 31 * h + sequence.methodType.hashCode();
+		h = 31 * h + owner.hashCode();
+		h = 31 * h + Objects.hashCode(name);
+		h = 31 * h + Objects.hashCode(specialCaller);
+		h = 31 * h + Boolean.hashCode(sequence.initialize);
+		return h;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) return true;
+		if (!(o instanceof Candidate)) return false;
+		Candidate that = (Candidate) o;
+		return hash == that.hash
+				&& sequence.searchMode == that.sequence.searchMode
+				&& sequence.lookup.lookupClass() == that.sequence.lookup.lookupClass()
+				&& sequence.lookup.lookupModes() == that.sequence.lookup.lookupModes()
+				&& loader == that.loader
+				&& sequence.methodType.equals(that.sequence.methodType)
+				&& owner.equals(that.owner)
+				&& Objects.equals(name, that.name)
+				&& Objects.equals(specialCaller, that.specialCaller)
+				&& sequence.initialize == that.sequence.initialize;
+	}
+
+	@Override
+	public int hashCode() {
+		return hash;
+	}
+
+	@Override
+	public String toString() {
+		MethodType type = sequence.methodType;
+		StringBuilder sb = new StringBuilder(owner);
+		if (name != null) sb.append('.').append(name);
+		sb.append(type);
+		if (specialCaller != null) sb.append(" (special caller: ").append(specialCaller).append(')');
+		return sb.toString();
+	}
+}
@@ -0,0 +1,115 @@
+package com.ydo4ki.ctrlf;
+
+import java.net.URLClassLoader;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Loads owner classes for probes, avoiding the cost of {@link ClassNotFoundException} for absent classes.
+ * <p>
+ * Before calling {@link Class#forName(String, boolean, ClassLoader)}, the class file is looked up as a resource
+ * of the class loader. If there is no such resource, the class is remembered as absent for that class loader,
+ * and a shared stackless {@link ClassNotFoundException} is used as the failure record instead of a new exception.
+ * <p>
+ * Resource lookup is only trusted for class loaders that load classes from resources
+ * (the bootstrap, platform/extension and system class loaders and {@link URLClassLoader}s).
+ * Classes of other class loaders are always loaded with {@code Class.forName}.
+ *
+ * @author Sulphuris
+ * @since 16.10.2026 20:14
+ */
+final class ClassProbe {
+	private static final ClassLoader system = ClassLoader.getSystemClassLoader();
+
+	/* class loader -> (class name -> absence record) */
+	private static final Map<ClassLoader, Map<String, ClassNotFoundException>> knownAbsent =
+			Collections.synchronizedMap(new WeakHashMap<>());
+
+	private ClassProbe() {}
+
+	/**
+	 * Finds class with the given name in the given class loader
+	 * @param name binary class name
+	 * @param loader class loader ({@code null} for the bootstrap class loader)
+	 * @param initialize whether the class must be initialized
+	 * @return loaded class, or {@code null} if there is no such class
+	 *         (in that case {@link #absence(String, ClassLoader)} returns the failure record)
+	 */
+	static Class<?> find(String name, ClassLoader loader, boolean initialize) {
+		Map<String, ClassNotFoundException> absent = absentIn(loader);
+		if (absent.containsKey(name)) return null;
+		if (isResourceBacked(loader) && resource(name, loader) == null) {
+			absent.putIfAbsent(name, new Absent(name));
+			return null;
+		}
+		try {
+			return Class.forName(name, initialize, loader);
+		} catch (ClassNotFoundException e) {
+			absent.putIfAbsent(name, e);
+			return null;
+		}
+	}
+
+	/**
+	 * @param name binary class name
+	 * @param loader class loader
+	 * @return the failure record for a class that {@link #find(String, ClassLoader, boolean)} reported absent
+	 */
+	static ClassNotFoundException absence(String name, ClassLoader loader) {
+		ClassNotFoundException e = absentIn(loader).get(name);
+		return e == null ? new Absent(name) : e;
+	}
+
+	/**
+	 * Forgets that the class with the given name is absent in any class loader
+	 * @param name binary class name
+	 */
+	static void forget(String name) {
+		synchronized (knownAbsent) {
+			for (Map<String, ClassNotFoundException> absent : knownAbsent.values()) absent.remove(name);
+		}
+	}
+
+	/**
+	 * Forgets all absent classes
+	 */
+	static void forgetAll() {
+		knownAbsent.clear();
+	}
+
+	private static Map<String, ClassNotFoundException> absentIn(ClassLoader loader) {
+		synchronized (knownAbsent) {
+			return knownAbsent.computeIfAbsent(loader, l -> new ConcurrentHashMap<>());
+		}
+	}
+
+	private static Object resource(String name, ClassLoader loader) {
+		String path = name.replace('.', '/').concat(".class");
+		return loader == null ? ClassLoader.getSystemResource(path) : loader.getResource(path);
+	}
+
+	private static boolean isResourceBacked(ClassLoader loader) {
+		return loader == null
+				|| loader == system
+				|| loader == system.getParent()
+				|| loader instanceof URLClassLoader;
+	}
+
+	/**
+	 * Stackless failure record for a class that has no class file
+	 */
+	static final class Absent extends ClassNotFoundException {
+		private static final long serialVersionUID = 1L;
+
+		Absent(String name) {
+			super(name);
+		}
+
+		@Override
+		public synchronized Throwable fillInStackTrace() {
+			return this;
+		}
+	}
+}
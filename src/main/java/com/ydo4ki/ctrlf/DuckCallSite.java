@@ -0,0 +1,134 @@
+package com.ydo4ki.ctrlf;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.MutableCallSite;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Call site that invokes a method with one of the given names on receivers of any class.
+ * <p>
+ * The method is resolved once per receiver class, when a receiver of that class is seen for the first time,
+ * and cached in a {@link ClassValue}. The target is an inline cache of the receiver classes seen first:
+ * <pre>
+ * guardWithTest(receiver.getClass() == C1, m1,
+ *     guardWithTest(receiver.getClass() == C2, m2,
+ *         ...
+ *             link(receiver).invokeExact(receiver, args)))
+ * </pre>
+ * Once more than {@value #LIMIT} receiver classes are seen, the call site is megamorphic:
+ * it is relinked to the lookup in the {@link ClassValue} alone, so every invocation costs the same,
+ * however many receiver classes there are.
+ *
+ * @author Sulphuris
+ * @since 17.10.2026 05:31
+ */
+final class DuckCallSite extends MutableCallSite {
+	/* maximum number of receiver classes in the inline cache */
+	static final int LIMIT = 8;
+
+	private static final MethodHandle IS_CLASS;
+	private static final MethodHandle LINK;
+
+	static {
+		MethodHandles.Lookup lookup = MethodHandles.lookup();
+		try {
+			IS_CLASS = lookup.findStatic(DuckCallSite.class, "isClass",
+					MethodType.methodType(boolean.class, Class.class, Object.class));
+			LINK = lookup.findVirtual(DuckCallSite.class, "link", MethodType.methodType(MethodHandle.class, Object.class));
+		} catch (ReflectiveOperationException e) {
+			throw new ExceptionInInitializerError(e);
+		}
+	}
+
+	private final MethodSequence<SearchMode.Duck> sequence;
+	private final String[] names;
+	/* method handle adapted to the call site type, or the exception the method was not found with */
+	private final ClassValue<Object> methods = new ClassValue<Object>() {
+		@Override
+		protected Object computeValue(Class<?> type) {
+			return resolve(type);
+		}
+	};
+	private final MethodHandle miss;
+
+	/* guarded by this */
+	private final List<Class<?>> classes = new ArrayList<>();
+	private final List<MethodHandle> handles = new ArrayList<>();
+	private volatile boolean megamorphic;
+
+	DuckCallSite(MethodSequence<SearchMode.Duck> sequence, String[] names) {
+		super(sequence.methodType.insertParameterTypes(0, Object.class));
+		this.sequence = sequence;
+		this.names = names;
+		// (receiver, args...) -> link(receiver).invokeExact(receiver, args...)
+		this.miss = MethodHandles.foldArguments(MethodHandles.exactInvoker(type()), LINK.bindTo(this));
+		setTarget(miss);
+	}
+
+	private static boolean isClass(Class<?> type, Object receiver) {
+		return receiver != null && receiver.getClass() == type;
+	}
+
+	/**
+	 * @return method handle of the method for the class of the given receiver, adding the class to the inline cache
+	 */
+	private MethodHandle link(Object receiver) {
+		if (receiver == null) throw new NullPointerException("receiver");
+		Class<?> type = receiver.getClass();
+		Object method = methods.get(type);
+		if (method instanceof ReflectiveOperationException)
+			throw new IllegalArgumentException("No method " + String.join("/", names) + sequence.methodType
+					+ " in " + type.getName(), (ReflectiveOperationException) method);
+		MethodHandle mh = (MethodHandle) method;
+		if (!megamorphic) cache(type, mh);
+		return mh;
+	}
+
+	private synchronized void cache(Class<?> type, MethodHandle mh) {
+		if (megamorphic || classes.contains(type)) return;
+		if (classes.size() == LIMIT) {
+			megamorphic = true;
+			classes.clear();
+			handles.clear();
+			setTarget(miss);
+			return;
+		}
+		classes.add(type);
+		handles.add(mh);
+		MethodHandle target = miss;
+		for (int i = classes.size() - 1; i >= 0; i--) {
+			MethodHandle test = IS_CLASS.bindTo(classes.get(i));
+			test = MethodHandles.dropArguments(test, 1, type().dropParameterTypes(0, 1).parameterList());
+			target = MethodHandles.guardWithTest(test, handles.get(i), target);
+		}
+		setTarget(target);
+	}
+
+	/**
+	 * Finds the first method with one of the names in the given receiver class
+	 * @return method handle adapted to the call site type, or the exception the last name was not found with
+	 */
+	private Object resolve(Class<?> type) {
+		ReflectiveOperationException last = null;
+		for (String name : names) {
+			try {
+				return sequence.searchMode.findMember(sequence, type, name, null).asType(type());
+			} catch (ReflectiveOperationException e) {
+				last = e;
+			}
+		}
+		return last;
+	}
+
+	@Override
+	public synchronized String toString() {
+		StringBuilder sb = new StringBuilder("duck call site ").append(String.join("/", names)).append(sequence.methodType);
+		if (megamorphic) return sb.append(", megamorphic").toString();
+		sb.append(", ").append(classes.size()).append(" cached:");
+		for (Class<?> type : classes) sb.append("\n  ").append(type.getName());
+		return sb.toString();
+	}
+}
@@ -0,0 +1,174 @@
+package com.ydo4ki.ctrlf;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.MutableCallSite;
+import java.lang.invoke.SwitchPoint;
+import java.lang.invoke.WrongMethodTypeException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Method handle that switches from the found method to the next candidate of its sequence
+ * when the found method throws one of the configured exceptions.
+ * <p>
+ * Every stage of the handle is
+ * <pre>
+ * switchPoint.guardWithTest(catchException(current, recover), site.dynamicInvoker())
+ * </pre>
+ * On a configured failure, {@code recover} resolves the next candidate, links {@code site} to the next stage,
+ * invalidates the switch point and retries the invocation. After that the JIT compiles the stage
+ * as a plain call of the next stage, and the last stage is the plain handle of the last candidate.
+ * Candidates after the found one are resolved only on failure.
+ *
+ * @author Sulphuris
+ * @since 17.10.2026 03:38
+ */
+final class Failover {
+	private static final List<Class<? extends Throwable>> DEFAULT_FAILURES = Collections.unmodifiableList(
+			Arrays.<Class<? extends Throwable>>asList(UnsupportedOperationException.class, LinkageError.class));
+
+	private static final MethodHandle RECOVER;
+
+	static {
+		try {
+			RECOVER = MethodHandles.lookup().findVirtual(Stage.class, "recover",
+					MethodType.methodType(Object.class, Throwable.class, Object[].class));
+		} catch (ReflectiveOperationException e) {
+			throw new ExceptionInInitializerError(e);
+		}
+	}
+
+	private final MethodType type;
+	private final List<Candidate> candidates;
+	private final MethodHandle direct;
+	private final List<Class<? extends Throwable>> failures;
+
+	private Failover(MethodType type, List<Candidate> candidates, MethodHandle direct, List<Class<? extends Throwable>> failures) {
+		this.type = type;
+		this.candidates = candidates;
+		this.direct = direct;
+		this.failures = failures;
+	}
+
+	/**
+	 * @param failures exceptions given to {@code withFailover}
+	 * @return exceptions to fail over on
+	 */
+	@SafeVarargs
+	static List<Class<? extends Throwable>> failures(Class<? extends Throwable>... failures) {
+		if (failures.length == 0) return DEFAULT_FAILURES;
+		List<Class<? extends Throwable>> result = new ArrayList<>(failures.length);
+		for (Class<? extends Throwable> failure : failures) result.add(Objects.requireNonNull(failure));
+		return Collections.unmodifiableList(result);
+	}
+
+	/**
+	 * Builds the failover handle
+	 * @param found the found method
+	 * @param candidates candidates declared after the found one
+	 * @param direct method handle given to {@code fallback(MethodHandle)} after the found one, or {@code null}
+	 * @param failures exceptions to fail over on
+	 * @return method handle of the same type as the found one
+	 */
+	static MethodHandle handle(MethodHandle found, List<Candidate> candidates, MethodHandle direct,
+							   List<Class<? extends Throwable>> failures) {
+		if (candidates.isEmpty() && direct == null) return found;
+		MethodType type = found.type();
+		MethodHandle mh = new Failover(type, candidates, direct, failures).stage(found.asFixedArity(), 0);
+		if (found.isVarargsCollector()) mh = mh.asVarargsCollector(type.parameterType(type.parameterCount() - 1));
+		return mh;
+	}
+
+	private int count() {
+		return candidates.size() + (direct == null ? 0 : 1);
+	}
+
+	/**
+	 * @param current method handle of the current candidate
+	 * @param next position of the first alternative to switch to
+	 * @return the stage that invokes the current candidate, or the current candidate itself if there is nothing to switch to
+	 */
+	private MethodHandle stage(MethodHandle current, int next) {
+		if (next >= count()) return current;
+		Stage stage = new Stage(next, current);
+		MethodHandle recover = RECOVER.bindTo(stage)
+				.asCollector(Object[].class, type.parameterCount())
+				.asType(type.insertParameterTypes(0, Throwable.class));
+		MethodHandle guarded = MethodHandles.catchException(current, Throwable.class, recover);
+		return stage.switchPoint.guardWithTest(guarded, stage.site.dynamicInvoker());
+	}
+
+	/**
+	 * @return method handle of the alternative at the given position adapted to the type of the found method,
+	 *         or {@code null} if it is not found
+	 */
+	private MethodHandle resolve(int position) {
+		MethodHandle mh;
+		if (position < candidates.size()) {
+			Resolution resolution = BindingRegistry.resolve(candidates.get(position));
+			if (!resolution.isFound()) return null;
+			mh = resolution.handle;
+		} else {
+			mh = direct;
+		}
+		try {
+			return mh.asFixedArity().asType(type);
+		} catch (WrongMethodTypeException e) {
+			return null;
+		}
+	}
+
+	private boolean isFailure(Throwable t) {
+		for (Class<? extends Throwable> failure : failures) if (failure.isInstance(t)) return true;
+		return false;
+	}
+
+	/**
+	 * Single candidate of a failover handle with its switch point
+	 */
+	private final class Stage {
+		final SwitchPoint switchPoint = new SwitchPoint();
+		final MutableCallSite site;
+		private final int next;
+		private boolean switched;
+		private boolean exhausted;
+
+		Stage(int next, MethodHandle current) {
+			this.next = next;
+			// never invoked before the switch point is invalidated
+			this.site = new MutableCallSite(current);
+		}
+
+		Object recover(Throwable failure, Object[] args) throws Throwable {
+			if (!isFailure(failure)) throw failure;
+			MethodHandle target = switchTarget();
+			if (target == null) throw failure;
+			return target.invokeWithArguments(args);
+		}
+
+		/**
+		 * Links the call site to the next found alternative and invalidates the switch point (once)
+		 * @return the new target, or {@code null} if no alternative is found
+		 */
+		private synchronized MethodHandle switchTarget() {
+			if (switched) return site.getTarget();
+			if (exhausted) return null;
+			for (int i = next; i < count(); i++) {
+				MethodHandle mh = resolve(i);
+				if (mh == null) continue;
+				site.setTarget(stage(mh, i + 1));
+				MutableCallSite.syncAll(new MutableCallSite[]{site});
+				SwitchPoint.invalidateAll(new SwitchPoint[]{switchPoint});
+				switched = true;
+				return site.getTarget();
+			}
+			exhausted = true;
+			return null;
+		}
+	}
+}
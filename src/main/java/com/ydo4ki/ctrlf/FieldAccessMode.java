@@ -0,0 +1,87 @@
+package com.ydo4ki.ctrlf;
+
+import java.lang.invoke.MethodType;
+
+/**
+ * Kind of field access for {@link SearchMode#findVarHandle(FieldAccessMode)}
+ * and {@link SearchMode#findStaticVarHandle(FieldAccessMode)}.
+ * <p>
+ * The constants have the same names and semantics as the access modes of {@code java.lang.invoke.VarHandle}
+ * ({@code VarHandle.AccessMode} does not exist on Java 8). Method types below are given for a field of type {@code T}
+ * without the receiver; method handles of instance fields take the owner as the first parameter.
+ *
+ * @author Sulphuris
+ * @since 17.10.2026 06:51
+ */
+public enum FieldAccessMode {
+	/**
+	 * Volatile read, {@code ()T}
+	 */
+	GET_VOLATILE,
+	/**
+	 * Volatile write, {@code (T)void}
+	 */
+	SET_VOLATILE,
+	/**
+	 * Read with acquire semantics, {@code ()T}
+	 */
+	GET_ACQUIRE,
+	/**
+	 * Write with release semantics, {@code (T)void}
+	 */
+	SET_RELEASE,
+	/**
+	 * Opaque read, {@code ()T}
+	 */
+	GET_OPAQUE,
+	/**
+	 * Opaque write, {@code (T)void}
+	 */
+	SET_OPAQUE,
+	/**
+	 * Atomic compare-and-set, {@code (T expected, T value)boolean}
+	 */
+	COMPARE_AND_SET,
+	/**
+	 * Atomic compare-and-exchange that returns the witness value, {@code (T expected, T value)T}
+	 */
+	COMPARE_AND_EXCHANGE,
+	/**
+	 * Atomic exchange that returns the previous value, {@code (T value)T}
+	 */
+	GET_AND_SET,
+	/**
+	 * Atomic addition that returns the previous value (numeric fields only), {@code (T delta)T}
+	 */
+	GET_AND_ADD;
+
+	/**
+	 * @param fieldType field type
+	 * @return type of the access without the receiver
+	 */
+	MethodType methodType(Class<?> fieldType) {
+		switch (this) {
+			case GET_VOLATILE:
+			case GET_ACQUIRE:
+			case GET_OPAQUE:
+				return MethodType.methodType(fieldType);
+			case SET_VOLATILE:
+			case SET_RELEASE:
+			case SET_OPAQUE:
+				return MethodType.methodType(void.class, fieldType);
+			case COMPARE_AND_SET:
+				return MethodType.methodType(boolean.class, fieldType, fieldType);
+			case COMPARE_AND_EXCHANGE:
+				return MethodType.methodType(fieldType, fieldType, fieldType);
+			default:
+				return MethodType.methodType(fieldType, fieldType);
+		}
+	}
+
+	/**
+	 * @return true if this access writes the field
+	 */
+	boolean writes() {
+		return methodType(Object.class).parameterCount() != 0;
+	}
+}
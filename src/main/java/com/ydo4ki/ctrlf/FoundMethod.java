@@ -1,7 +1,9 @@
 package com.ydo4ki.ctrlf;
 
 import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
 import java.util.Optional;
+import java.util.OptionalInt;
 
 /**
  * Class that represents a method found with {@link MethodFinder}
@@ -12,26 +14,37 @@ public class FoundMethod {
 	private final Object foundOwner;
 	private final MethodHandle found;
 	private final Throwable err;
+	private final int index;
+	private final ResolutionTrace trace;
+	private final Calibration calibration;
+	private final AdaptiveCallSite adaptive;
 
 
 
-	static FoundMethod.Named found(Object foundOwner, String foundName, MethodHandle found) {
-		return new FoundMethod.Named(foundOwner, foundName, found, null);
+	static FoundMethod.Named found(Object foundOwner, String foundName, MethodHandle found, int index, ResolutionTrace trace,
+								   Calibration calibration, AdaptiveCallSite adaptive) {
+		return new FoundMethod.Named(foundOwner, foundName, found, null, index, trace, calibration, adaptive);
 	}
-	static FoundMethod.Named notfound(Object foundOwner, String foundName, Throwable err) {
-		return new FoundMethod.Named(foundOwner, foundName, null, err);
+	static FoundMethod.Named notfound(Object foundOwner, String foundName, Throwable err, ResolutionTrace trace) {
+		return new FoundMethod.Named(foundOwner, foundName, null, err, -1, trace, null, null);
 	}
-	static FoundMethod found(Object foundOwner, MethodHandle found) {
-		return new FoundMethod(foundOwner, found, null);
+	static FoundMethod found(Object foundOwner, MethodHandle found, int index, ResolutionTrace trace,
+							 Calibration calibration, AdaptiveCallSite adaptive) {
+		return new FoundMethod(foundOwner, found, null, index, trace, calibration, adaptive);
 	}
-	static FoundMethod notfound(Object foundOwner, Throwable err) {
-		return new FoundMethod(foundOwner, null, err);
+	static FoundMethod notfound(Object foundOwner, Throwable err, ResolutionTrace trace) {
+		return new FoundMethod(foundOwner, null, err, -1, trace, null, null);
 	}
 
-	FoundMethod(Object foundOwner, MethodHandle found, Throwable err) {
+	FoundMethod(Object foundOwner, MethodHandle found, Throwable err, int index, ResolutionTrace trace,
+				Calibration calibration, AdaptiveCallSite adaptive) {
 		this.foundOwner = foundOwner;
 		this.found = found;
 		this.err = err;
+		this.index = index;
+		this.trace = trace;
+		this.calibration = calibration;
+		this.adaptive = adaptive;
 	}
 
 
@@ -59,6 +72,40 @@ public class FoundMethod {
 		return Optional.ofNullable(err);
 	}
 
+	/**
+	 * Gets the index of the found method in its sequence: 0 if the first candidate was found,
+	 * 1 if the first one was not found and the second one was, and so on
+	 * @return the index of the found method in its sequence, or empty if the method was not found
+	 */
+	public OptionalInt getFoundIndex() {
+		return index < 0 ? OptionalInt.empty() : OptionalInt.of(index);
+	}
+
+	/**
+	 * Gets the record of every candidate probed to find the method: its outcome, failure and probe time
+	 * @return the resolution trace
+	 */
+	public ResolutionTrace getTrace() {
+		return trace;
+	}
+
+	/**
+	 * Gets the timings of candidates if the sequence was calibrated
+	 * @return the calibration result, or empty if the sequence was not calibrated
+	 */
+	public Optional<Calibration> getCalibration() {
+		return Optional.ofNullable(calibration);
+	}
+
+	/**
+	 * Gets the call site the found method is invoked through if the sequence is bound adaptively
+	 * (the found method and index are those of the candidate chosen initially)
+	 * @return the adaptive call site, or empty if the sequence is not bound adaptively
+	 */
+	public Optional<AdaptiveCallSite> getAdaptiveCallSite() {
+		return Optional.ofNullable(adaptive);
+	}
+
 	/**
 	 * Returns the found method, or throws the exception that was thrown when
 	 * looking up the method if the method was not found.
@@ -84,11 +131,46 @@ public class FoundMethod {
 		return found;
 	}
 
+	/**
+	 * Shortcut for {@link #asInterface(MethodHandles.Lookup, Class)} with the lookup of this library,
+	 * which is enough for public interfaces visible from the class loader of this library
+	 * @param functionalInterface functional interface to implement
+	 * @return instance of the functional interface that invokes the found method
+	 */
+	public <T> T asInterface(Class<T> functionalInterface) {
+		return asInterface(MethodHandles.lookup(), functionalInterface);
+	}
+
+	/**
+	 * Implements the given functional interface with the found method.
+	 * <p>
+	 * If the found method handle is a direct method handle (not adapted, wrapped or bound),
+	 * the implementation is spun with {@link java.lang.invoke.LambdaMetafactory} like a method reference,
+	 * so calling the interface method costs as much as calling the found method directly,
+	 * even if the instance is not stored in a {@code static final} field.
+	 * Otherwise (or if {@code LambdaMetafactory} refuses the method handle) the method handle is wrapped
+	 * with {@link java.lang.invoke.MethodHandleProxies#asInterfaceInstance(Class, MethodHandle)}.
+	 * <p>
+	 * Every invocation creates a new implementation, so the result should be stored rather than created per call.
+	 *
+	 * @param lookup lookup with private access the implementation class is defined in,
+	 *               usually {@code MethodHandles.lookup()} of the caller
+	 * @param functionalInterface functional interface to implement
+	 * @return instance of the functional interface that invokes the found method
+	 * @throws IllegalArgumentException if the given class is not a functional interface
+	 * @throws java.lang.invoke.WrongMethodTypeException if the found method cannot be adapted to the interface method
+	 * @throws RuntimeException if the method was not found (the same as {@link #methodHandle()})
+	 */
+	public <T> T asInterface(MethodHandles.Lookup lookup, Class<T> functionalInterface) {
+		return FunctionalAdapter.implement(lookup, functionalInterface, methodHandle());
+	}
+
 	public static final class Named extends FoundMethod {
 		private final String name;
 
-		Named(Object foundOwner, String foundName, MethodHandle found, Throwable err) {
-			super(foundOwner, found, err);
+		Named(Object foundOwner, String foundName, MethodHandle found, Throwable err, int index, ResolutionTrace trace,
+			  Calibration calibration, AdaptiveCallSite adaptive) {
+			super(foundOwner, found, err, index, trace, calibration, adaptive);
 			this.name = foundName;
 		}
 
@@ -0,0 +1,127 @@
+package com.ydo4ki.ctrlf;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaConversionException;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandleProxies;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Implements functional interfaces with method handles.
+ * <p>
+ * Direct method handles are turned into lambda classes with {@link LambdaMetafactory}, just like method references,
+ * so invoking the interface is as fast as invoking the method itself, wherever the instance is stored.
+ * Other method handles (and direct ones {@link LambdaMetafactory} refuses, such as field getters)
+ * are wrapped with {@link MethodHandleProxies#asInterfaceInstance(Class, MethodHandle)}.
+ *
+ * @author Sulphuris
+ * @since 17.10.2026 05:58
+ */
+final class FunctionalAdapter {
+	private FunctionalAdapter() {}
+
+	/**
+	 * @param lookup lookup the lambda class is defined in (must have private access)
+	 * @param functionalInterface functional interface to implement
+	 * @param target method handle to invoke
+	 * @return instance of the functional interface that invokes the method handle
+	 * @throws IllegalArgumentException if the given class is not a functional interface
+	 * @throws java.lang.invoke.WrongMethodTypeException if the method handle cannot be adapted to the interface method
+	 */
+	static <T> T implement(MethodHandles.Lookup lookup, Class<T> functionalInterface, MethodHandle target) {
+		List<Method> methods = abstractMethods(functionalInterface);
+		Method sam = methods.get(0);
+		MethodType samType = methodType(sam);
+		if (!target.isVarargsCollector() && target.type().parameterCount() == samType.parameterCount()) {
+			try {
+				lookup.revealDirect(target);
+				// other signatures of the interface method (such as the erased one of a generic method) need bridges
+				List<Object> args = new ArrayList<>(Arrays.asList(samType, target, instantiatedType(samType, target.type()),
+						LambdaMetafactory.FLAG_BRIDGES, methods.size() - 1));
+				for (int i = 1; i < methods.size(); i++) args.add(methodType(methods.get(i)));
+				CallSite site = LambdaMetafactory.altMetafactory(lookup, sam.getName(),
+						MethodType.methodType(functionalInterface), args.toArray());
+				return functionalInterface.cast(site.getTarget().invoke());
+			} catch (LambdaConversionException | IllegalArgumentException | SecurityException | LinkageError ignored) {
+				// not a direct method handle, not accessible from the lookup class, or not supported by LambdaMetafactory
+			} catch (Throwable t) {
+				throw new IllegalStateException("Failed to create lambda for " + target, t);
+			}
+		}
+		return MethodHandleProxies.asInterfaceInstance(functionalInterface, target);
+	}
+
+	/**
+	 * @return the interface method type specialized to reference types of the target where they are subtypes,
+	 *         so that {@link LambdaMetafactory} casts arguments instead of refusing the target
+	 */
+	private static MethodType instantiatedType(MethodType samType, MethodType targetType) {
+		MethodType type = samType;
+		for (int i = 0; i < samType.parameterCount(); i++) {
+			Class<?> param = samType.parameterType(i);
+			Class<?> targetParam = targetType.parameterType(i);
+			if (!param.isPrimitive() && !targetParam.isPrimitive() && param.isAssignableFrom(targetParam))
+				type = type.changeParameterType(i, targetParam);
+		}
+		Class<?> rtype = samType.returnType();
+		Class<?> targetRtype = targetType.returnType();
+		if (!rtype.isPrimitive() && !targetRtype.isPrimitive() && rtype.isAssignableFrom(targetRtype))
+			type = type.changeReturnType(targetRtype);
+		return type;
+	}
+
+	/**
+	 * @return abstract methods of the given interface: the single interface method, possibly with several signatures
+	 *         (the most specific one first)
+	 * @throws IllegalArgumentException if the given class is not a functional interface
+	 */
+	private static List<Method> abstractMethods(Class<?> functionalInterface) {
+		if (!functionalInterface.isInterface())
+			throw new IllegalArgumentException(functionalInterface.getName() + " is not an interface");
+		List<Method> methods = new ArrayList<>();
+		for (Method method : functionalInterface.getMethods()) {
+			if (!Modifier.isAbstract(method.getModifiers()) || isObjectMethod(method)) continue;
+			if (!methods.isEmpty() && !(methods.get(0).getName().equals(method.getName())
+					&& methodType(methods.get(0)).erase().equals(methodType(method).erase())))
+				throw new IllegalArgumentException(functionalInterface.getName() + " is not a functional interface");
+			if (methods.isEmpty() || methodType(methods.get(0)).equals(methodType(method))) methods.add(method);
+			else if (isMoreSpecific(method, methods.get(0))) methods.add(0, method);
+			else methods.add(method);
+		}
+		if (methods.isEmpty()) throw new IllegalArgumentException(functionalInterface.getName() + " has no abstract methods");
+		// the same signature may be inherited from several superinterfaces
+		List<Method> distinct = new ArrayList<>();
+		for (Method method : methods) {
+			boolean seen = false;
+			for (Method other : distinct) seen |= methodType(other).equals(methodType(method));
+			if (!seen) distinct.add(method);
+		}
+		return distinct;
+	}
+
+	private static boolean isMoreSpecific(Method method, Method than) {
+		if (!than.getReturnType().isAssignableFrom(method.getReturnType())) return false;
+		for (int i = 0; i < method.getParameterCount(); i++)
+			if (!than.getParameterTypes()[i].isAssignableFrom(method.getParameterTypes()[i])) return false;
+		return true;
+	}
+
+	private static MethodType methodType(Method method) {
+		return MethodType.methodType(method.getReturnType(), method.getParameterTypes());
+	}
+
+	private static boolean isObjectMethod(Method method) {
+		try {
+			return Modifier.isPublic(Object.class.getMethod(method.getName(), method.getParameterTypes()).getModifiers());
+		} catch (NoSuchMethodException e) {
+			return false;
+		}
+	}
+}
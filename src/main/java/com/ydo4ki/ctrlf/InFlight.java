@@ -0,0 +1,136 @@
+package com.ydo4ki.ctrlf;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Probes shared between threads: while one thread probes a key, other threads asking for the same key
+ * wait for its result instead of probing again, and get the result safely published.
+ * <p>
+ * A thread never waits if waiting could deadlock, and probes the key itself instead:
+ * <ul>
+ *     <li>if it is the thread that probes the key (probing initialized a class that asks for the same key),</li>
+ *     <li>if the probing thread waits, directly or through other threads, for a probe of the waiting thread,</li>
+ *     <li>if the probe takes longer than {@value #PATIENCE_MILLIS} ms: the probing thread may wait for something
+ *         the waiting thread holds, such as a class being initialized by the waiting thread,
+ *         and the JVM does not tell that.</li>
+ * </ul>
+ * Class initialization itself never runs twice, since the JVM initializes every class once:
+ * a thread that gave up waiting and probes by itself waits for classes being initialized by the other thread.
+ *
+ * @author Sulphuris
+ * @since 17.10.2026 07:26
+ */
+final class InFlight<K, V> {
+	/* how long to wait for a probe of another thread before probing by itself */
+	private static final long PATIENCE_MILLIS = 1000;
+	/* how often to check for wait cycles */
+	private static final long SLICE_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+	/* threads waiting for probes, with the probe they wait for (shared by all instances, so cycles across them are found) */
+	private static final ConcurrentHashMap<Thread, Probe<?>> waiting = new ConcurrentHashMap<>();
+
+	private final ConcurrentHashMap<K, Probe<V>> probes = new ConcurrentHashMap<>();
+	private final boolean retain;
+
+	/**
+	 * @param retain whether results are kept after the probe completes
+	 *               (otherwise the caller caches them, and only probes in progress are shared)
+	 */
+	InFlight(boolean retain) {
+		this.retain = retain;
+	}
+
+	/**
+	 * Probes the given key, or waits for the result of the same probe in progress (or already completed, if retained)
+	 * @param key key to probe
+	 * @param probe probe
+	 * @return result of the probe
+	 */
+	V resolve(K key, Function<? super K, ? extends V> probe) {
+		Probe<V> mine = new Probe<>(Thread.currentThread());
+		Probe<V> shared = probes.putIfAbsent(key, mine);
+		if (shared == null) {
+			try {
+				V value = probe.apply(key);
+				mine.complete(value, null);
+				return value;
+			} catch (Throwable t) {
+				mine.complete(null, t);
+				throw t;
+			} finally {
+				if (!retain) probes.remove(key, mine);
+			}
+		}
+		if (!shared.await()) return probe.apply(key);
+		if (shared.failure instanceof RuntimeException) throw (RuntimeException) shared.failure;
+		if (shared.failure instanceof Error) throw (Error) shared.failure;
+		return shared.value;
+	}
+
+	/**
+	 * Probe of a single key
+	 */
+	private static final class Probe<V> {
+		final Thread owner;
+		private boolean done;
+		V value;
+		Throwable failure;
+
+		Probe(Thread owner) {
+			this.owner = owner;
+		}
+
+		synchronized void complete(V value, Throwable failure) {
+			this.value = value;
+			this.failure = failure;
+			done = true;
+			notifyAll();
+		}
+
+		/**
+		 * Waits for the probe to complete
+		 * @return true if the probe completed, false if the current thread has to probe by itself
+		 */
+		boolean await() {
+			Thread current = Thread.currentThread();
+			synchronized (this) {
+				if (done) return true;
+			}
+			if (owner == current) return false;
+			waiting.put(current, this);
+			try {
+				long giveUp = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(PATIENCE_MILLIS);
+				while (System.nanoTime() - giveUp < 0) {
+					if (waitsFor(current)) return false;
+					synchronized (this) {
+						long deadline = System.nanoTime() + SLICE_NANOS;
+						for (long nanos = SLICE_NANOS; !done && nanos > 0; nanos = deadline - System.nanoTime())
+							TimeUnit.NANOSECONDS.timedWait(this, nanos);
+						if (done) return true;
+					}
+				}
+				return false;
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return false;
+			} finally {
+				waiting.remove(current);
+			}
+		}
+
+		/**
+		 * @return true if the owner of this probe waits, directly or through other threads, for the given thread
+		 */
+		private boolean waitsFor(Thread thread) {
+			Thread t = owner;
+			for (int i = 0; t != null && i < 1024; i++) {
+				if (t == thread) return true;
+				Probe<?> probe = waiting.get(t);
+				t = probe == null ? null : probe.owner;
+			}
+			return false;
+		}
+	}
+}
@@ -0,0 +1,292 @@
+package com.ydo4ki.ctrlf;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Invocation counters and sampled latency histogram of found methods.
+ * <p>
+ * {@link #instrument(MethodHandle)} wraps a method handle with {@link MethodHandles} combinators that count
+ * every invocation and failure in {@link LongAdder}s and measure the latency of every {@code sampleInterval}-th
+ * invocation (randomly chosen). Latencies are collected into a histogram of power-of-two buckets,
+ * so percentiles are accurate within a factor of two. Primitive results are passed through without boxing.
+ * <p>
+ * Nothing is wrapped unless instrumentation is requested,
+ * for example with {@link BindingRegistry#withInstrumentation()}, so there is no cost by default.
+ *
+ * @author Sulphuris
+ * @since 17.10.2026 02:05
+ */
+public final class InvocationMetrics {
+	/**
+	 * Default number of invocations per one latency sample
+	 */
+	public static final int DEFAULT_SAMPLE_INTERVAL = 64;
+
+	private static final int BUCKETS = 64;
+
+	/* return types with their own exit method, so primitive results are not boxed; other types use the Object one */
+	private static final Class<?>[] EXIT_TYPES = {Object.class, int.class, long.class, float.class, double.class,
+			boolean.class, byte.class, short.class, char.class};
+
+	private static final MethodHandle ENTER;
+	private static final MethodHandle[] EXITS = new MethodHandle[EXIT_TYPES.length];
+	private static final MethodHandle EXIT_VOID;
+	private static final MethodHandle FAIL;
+
+	static {
+		MethodHandles.Lookup lookup = MethodHandles.lookup();
+		try {
+			ENTER = lookup.findVirtual(InvocationMetrics.class, "enter", MethodType.methodType(long.class));
+			for (int i = 0; i < EXIT_TYPES.length; i++)
+				EXITS[i] = lookup.findVirtual(InvocationMetrics.class, "exit", MethodType.methodType(EXIT_TYPES[i], long.class, EXIT_TYPES[i]));
+			EXIT_VOID = lookup.findVirtual(InvocationMetrics.class, "exit", MethodType.methodType(void.class, long.class));
+			FAIL = lookup.findVirtual(InvocationMetrics.class, "fail", MethodType.methodType(Throwable.class, Throwable.class));
+		} catch (ReflectiveOperationException e) {
+			throw new ExceptionInInitializerError(e);
+		}
+	}
+
+	private final int sampleMask;
+	private final LongAdder invocations = new LongAdder();
+	private final LongAdder failures = new LongAdder();
+	private final LongAdder sampledNanos = new LongAdder();
+	/* bucket i counts samples in [2^i, 2^(i+1)) nanoseconds */
+	private final AtomicLongArray histogram = new AtomicLongArray(BUCKETS);
+
+	/**
+	 * Creates metrics that sample every {@value #DEFAULT_SAMPLE_INTERVAL}-th invocation
+	 */
+	public InvocationMetrics() {
+		this(DEFAULT_SAMPLE_INTERVAL);
+	}
+
+	/**
+	 * Creates metrics that sample every {@code sampleInterval}-th invocation
+	 * @param sampleInterval number of invocations per one latency sample (power of two, 1 to sample every invocation)
+	 * @throws IllegalArgumentException if sampleInterval is not a positive power of two
+	 */
+	public InvocationMetrics(int sampleInterval) {
+		this.sampleMask = checkSampleInterval(sampleInterval) - 1;
+	}
+
+	/**
+	 * @param sampleInterval number of invocations per one latency sample
+	 * @return the given sample interval
+	 * @throws IllegalArgumentException if sampleInterval is not a positive power of two
+	 */
+	static int checkSampleInterval(int sampleInterval) {
+		if (sampleInterval <= 0 || Integer.bitCount(sampleInterval) != 1)
+			throw new IllegalArgumentException("Illegal sample interval: " + sampleInterval);
+		return sampleInterval;
+	}
+
+	/**
+	 * @param rtype return type of an instrumented method handle (not void)
+	 * @return {@code (long start, rtype result) -> rtype} exit method, not bound to metrics
+	 */
+	static MethodHandle exit(Class<?> rtype) {
+		for (int i = 1; i < EXIT_TYPES.length; i++) if (EXIT_TYPES[i] == rtype) return EXITS[i];
+		return EXITS[0].asType(MethodType.methodType(rtype, InvocationMetrics.class, long.class, rtype));
+	}
+
+	/**
+	 * Wraps the given method handle so that its invocations are recorded by these metrics.
+	 * The returned handle has the same type (and is a varargs collector if the given one is)
+	 * @param target method handle to instrument
+	 * @return instrumented method handle
+	 */
+	public MethodHandle instrument(MethodHandle target) {
+		MethodType type = target.type();
+		Class<?> rtype = type.returnType();
+		MethodHandle mh = target.asFixedArity();
+		// (long start, args...) -> exit(start, target(args...))
+		MethodHandle exit = (rtype == void.class ? EXIT_VOID : exit(rtype)).bindTo(this);
+		mh = MethodHandles.collectArguments(exit, 1, mh);
+		// (args...) -> ...(enter(), args...)
+		mh = MethodHandles.foldArguments(mh, ENTER.bindTo(this));
+		// count failures and rethrow them
+		MethodHandle rethrow = MethodHandles.filterArguments(
+				MethodHandles.throwException(rtype, Throwable.class), 0, FAIL.bindTo(this));
+		mh = MethodHandles.catchException(mh, Throwable.class,
+				MethodHandles.dropArguments(rethrow, 1, type.parameterList()));
+		if (target.isVarargsCollector()) mh = mh.asVarargsCollector(type.parameterType(type.parameterCount() - 1));
+		return mh;
+	}
+
+	private long enter() {
+		invocations.increment();
+		if ((ThreadLocalRandom.current().nextInt() & sampleMask) != 0) return 0;
+		return System.nanoTime();
+	}
+
+	private void exit(long start) {
+		if (start != 0) sample(System.nanoTime() - start);
+	}
+
+	private Object exit(long start, Object result) {
+		if (start != 0) sample(System.nanoTime() - start);
+		return result;
+	}
+
+	private int exit(long start, int result) {
+		if (start != 0) sample(System.nanoTime() - start);
+		return result;
+	}
+
+	private long exit(long start, long result) {
+		if (start != 0) sample(System.nanoTime() - start);
+		return result;
+	}
+
+	private float exit(long start, float result) {
+		if (start != 0) sample(System.nanoTime() - start);
+		return result;
+	}
+
+	private double exit(long start, double result) {
+		if (start != 0) sample(System.nanoTime() - start);
+		return result;
+	}
+
+	private boolean exit(long start, boolean result) {
+		if (start != 0) sample(System.nanoTime() - start);
+		return result;
+	}
+
+	private byte exit(long start, byte result) {
+		if (start != 0) sample(System.nanoTime() - start);
+		return result;
+	}
+
+	private short exit(long start, short result) {
+		if (start != 0) sample(System.nanoTime() - start);
+		return result;
+	}
+
+	private char exit(long start, char result) {
+		if (start != 0) sample(System.nanoTime() - start);
+		return result;
+	}
+
+	private Throwable fail(Throwable t) {
+		failures.increment();
+		return t;
+	}
+
+	private void sample(long nanos) {
+		if (nanos < 1) nanos = 1;
+		sampledNanos.add(nanos);
+		histogram.incrementAndGet(63 - Long.numberOfLeadingZeros(nanos));
+	}
+
+	/**
+	 * @return current values of the metrics
+	 */
+	public Snapshot snapshot() {
+		long[] buckets = new long[BUCKETS];
+		for (int i = 0; i < BUCKETS; i++) buckets[i] = histogram.get(i);
+		return new Snapshot(invocations.sum(), failures.sum(), sampledNanos.sum(), buckets);
+	}
+
+	/**
+	 * Resets all counters and the histogram
+	 */
+	public void reset() {
+		invocations.reset();
+		failures.reset();
+		sampledNanos.reset();
+		for (int i = 0; i < BUCKETS; i++) histogram.set(i, 0);
+	}
+
+	@Override
+	public String toString() {
+		return snapshot().toString();
+	}
+
+	/**
+	 * Values of {@link InvocationMetrics} at some moment
+	 */
+	public static final class Snapshot {
+		private final long invocations;
+		private final long failures;
+		private final long sampledNanos;
+		private final long[] histogram;
+		private final long samples;
+
+		Snapshot(long invocations, long failures, long sampledNanos, long[] histogram) {
+			this.invocations = invocations;
+			this.failures = failures;
+			this.sampledNanos = sampledNanos;
+			this.histogram = histogram;
+			long samples = 0;
+			for (long count : histogram) samples += count;
+			this.samples = samples;
+		}
+
+		/**
+		 * @return number of invocations
+		 */
+		public long getInvocationCount() {
+			return invocations;
+		}
+
+		/**
+		 * @return number of invocations that threw an exception
+		 */
+		public long getFailureCount() {
+			return failures;
+		}
+
+		/**
+		 * @return number of invocations whose latency was measured
+		 */
+		public long getSampleCount() {
+			return samples;
+		}
+
+		/**
+		 * @return mean latency of sampled invocations in nanoseconds, or 0 if nothing was sampled
+		 */
+		public double getMeanNanos() {
+			return samples == 0 ? 0 : (double) sampledNanos / samples;
+		}
+
+		/**
+		 * @param percentile percentile (0 to 100)
+		 * @return upper bound of the latency of the given percentile of sampled invocations in nanoseconds,
+		 *         or 0 if nothing was sampled
+		 * @throws IllegalArgumentException if percentile is not in [0, 100]
+		 */
+		public long getPercentileNanos(double percentile) {
+			if (!(percentile >= 0 && percentile <= 100)) throw new IllegalArgumentException("Illegal percentile: " + percentile);
+			if (samples == 0) return 0;
+			long rank = (long) Math.ceil(samples * percentile / 100);
+			long seen = 0;
+			for (int i = 0; i < histogram.length; i++) {
+				seen += histogram[i];
+				if (seen >= rank && seen > 0) return i == 62 ? Long.MAX_VALUE : (1L << (i + 1)) - 1;
+			}
+			return Long.MAX_VALUE;
+		}
+
+		/**
+		 * @return latency histogram: element i is the number of sampled invocations
+		 *         that took from 2<sup>i</sup> to 2<sup>i+1</sup>-1 nanoseconds
+		 */
+		public long[] getHistogram() {
+			return histogram.clone();
+		}
+
+		@Override
+		public String toString() {
+			return invocations + " invocations, " + failures + " failed, " + samples + " sampled"
+					+ (samples == 0 ? "" : String.format(" (mean %.0f ns, p50 <= %d ns, p99 <= %d ns)",
+					getMeanNanos(), getPercentileNanos(50), getPercentileNanos(99)));
+		}
+	}
+}
@@ -0,0 +1,57 @@
+package com.ydo4ki.ctrlf;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.MutableCallSite;
+import java.util.function.Supplier;
+
+/**
+ * Call site that resolves a method sequence on the first invocation and then relinks itself to the found method.
+ * <p>
+ * Until the sequence is resolved the target collects the arguments and calls {@link #relink(Object[])}.
+ * After that the target is the found method handle itself, so the {@link #dynamicInvoker() dynamic invoker}
+ * stored in a {@code static final} field is inlined by the JIT like the found handle.
+ *
+ * @author Sulphuris
+ * @since 16.10.2026 20:51
+ */
+final class LazyCallSite extends MutableCallSite {
+	private static final MethodHandle RELINK;
+
+	static {
+		try {
+			RELINK = MethodHandles.lookup().findVirtual(LazyCallSite.class, "relink",
+					MethodType.methodType(Object.class, Object[].class));
+		} catch (ReflectiveOperationException e) {
+			throw new ExceptionInInitializerError(e);
+		}
+	}
+
+	private final Supplier<? extends FoundMethod> chain;
+	private volatile MethodHandle resolved;
+
+	LazyCallSite(MethodType type, Supplier<? extends FoundMethod> chain) {
+		super(type);
+		this.chain = chain;
+		setTarget(RELINK.bindTo(this).asCollector(Object[].class, type.parameterCount()).asType(type));
+	}
+
+	/**
+	 * Resolves the sequence (once), relinks this call site and invokes the found method with the given arguments.
+	 * If nothing was found, the exception is rethrown and the sequence will be resolved again on the next invocation
+	 */
+	private Object relink(Object[] args) throws Throwable {
+		MethodHandle target = resolved;
+		if (target == null) synchronized (this) {
+			target = resolved;
+			if (target == null) {
+				target = chain.get().methodHandle().asFixedArity().asType(type());
+				setTarget(target);
+				syncAll(new MutableCallSite[]{this});
+				resolved = target;
+			}
+		}
+		return target.invokeWithArguments(args);
+	}
+}
@@ -0,0 +1,381 @@
+package com.ydo4ki.ctrlf;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ * Field access of {@link FieldAccessMode}s on Java 8, where there are no {@code VarHandle}s.
+ * <p>
+ * Volatile {@code int}, {@code long} and reference instance fields that this library is allowed to access
+ * are accessed through {@link AtomicIntegerFieldUpdater}, {@link AtomicLongFieldUpdater}
+ * and {@link AtomicReferenceFieldUpdater}, so they are lock-free. Other fields are accessed through
+ * plain getters and setters under a lock shared by all accessors of the same field,
+ * so the accesses are atomic only with respect to each other, not to code that accesses the field directly.
+ * <p>
+ * Access is checked with the lookup of the sequence, exactly as for plain getters and setters.
+ *
+ * @author Sulphuris
+ * @since 17.10.2026 06:51
+ */
+final class LegacyFieldAccess {
+	private static final MethodHandle GET;
+	private static final MethodHandle SET;
+	private static final MethodHandle SET_LAZY;
+	private static final MethodHandle COMPARE_AND_SET;
+	private static final MethodHandle COMPARE_AND_EXCHANGE;
+	private static final MethodHandle GET_AND_SET;
+	private static final MethodHandle GET_AND_ADD;
+
+	static {
+		MethodHandles.Lookup lookup = MethodHandles.lookup();
+		try {
+			GET = lookup.findVirtual(Ops.class, "get", MethodType.methodType(Object.class, Object.class));
+			SET = lookup.findVirtual(Ops.class, "set", MethodType.methodType(void.class, Object.class, Object.class));
+			SET_LAZY = lookup.findVirtual(Ops.class, "setLazy", MethodType.methodType(void.class, Object.class, Object.class));
+			COMPARE_AND_SET = lookup.findVirtual(Ops.class, "compareAndSet",
+					MethodType.methodType(boolean.class, Object.class, Object.class, Object.class));
+			COMPARE_AND_EXCHANGE = lookup.findVirtual(Ops.class, "compareAndExchange",
+					MethodType.methodType(Object.class, Object.class, Object.class, Object.class));
+			GET_AND_SET = lookup.findVirtual(Ops.class, "getAndSet", MethodType.methodType(Object.class, Object.class, Object.class));
+			GET_AND_ADD = lookup.findVirtual(Ops.class, "getAndAdd", MethodType.methodType(Object.class, Object.class, Object.class));
+		} catch (ReflectiveOperationException e) {
+			throw new ExceptionInInitializerError(e);
+		}
+	}
+
+	/* declaring class -> field name -> lock of lock-based accessors of the field */
+	private static final ClassValue<Map<String, Object>> locks = new ClassValue<Map<String, Object>>() {
+		@Override
+		protected Map<String, Object> computeValue(Class<?> type) {
+			return new ConcurrentHashMap<>();
+		}
+	};
+
+	private LegacyFieldAccess() {}
+
+	/**
+	 * Finds field access of the given mode
+	 * @param lookup lookup of the sequence
+	 * @param refc owner class
+	 * @param name field name
+	 * @param type field type
+	 * @param isStatic whether the field is static
+	 * @param mode access mode
+	 * @return method handle of type {@code mode.methodType(type)}, with {@code refc} receiver for instance fields
+	 * @throws NoSuchFieldException if there is no such field
+	 * @throws IllegalAccessException if the field is not accessible, or the mode is not supported for the field
+	 */
+	static MethodHandle find(MethodHandles.Lookup lookup, Class<?> refc, String name, Class<?> type, boolean isStatic,
+							 FieldAccessMode mode) throws NoSuchFieldException, IllegalAccessException {
+		MethodHandle getter = isStatic ? lookup.findStaticGetter(refc, name, type) : lookup.findGetter(refc, name, type);
+		MethodHandle setter = null;
+		if (mode.writes()) setter = isStatic ? lookup.findStaticSetter(refc, name, type) : lookup.findSetter(refc, name, type);
+		if (mode == FieldAccessMode.GET_AND_ADD && (!type.isPrimitive() || type == boolean.class))
+			throw new IllegalAccessException(mode + " is not supported for " + type.getName() + " field " + refc.getName() + "." + name);
+		Field field = declaredField(refc, name);
+		Ops ops = isStatic || field == null ? null : updater(field);
+		if (ops == null) {
+			if (isStatic) {
+				getter = MethodHandles.dropArguments(getter, 0, Object.class);
+				if (setter != null) setter = MethodHandles.dropArguments(setter, 0, Object.class);
+			}
+			Class<?> owner = field == null ? refc : field.getDeclaringClass();
+			Object lock = locks.get(owner).computeIfAbsent(name, n -> new Object());
+			ops = new Locked(lock, !type.isPrimitive(), getter.asType(MethodType.methodType(Object.class, Object.class)),
+					setter == null ? null : setter.asType(MethodType.methodType(void.class, Object.class, Object.class)));
+		}
+		MethodHandle mh = handle(mode).bindTo(ops);
+		if (isStatic) mh = MethodHandles.insertArguments(mh, 0, (Object) null);
+		MethodType methodType = mode.methodType(type);
+		return mh.asType(isStatic ? methodType : methodType.insertParameterTypes(0, refc));
+	}
+
+	private static MethodHandle handle(FieldAccessMode mode) {
+		switch (mode) {
+			case GET_VOLATILE:
+			case GET_ACQUIRE:
+			case GET_OPAQUE:
+				return GET;
+			case SET_VOLATILE:
+				return SET;
+			case SET_RELEASE:
+			case SET_OPAQUE:
+				return SET_LAZY;
+			case COMPARE_AND_SET:
+				return COMPARE_AND_SET;
+			case COMPARE_AND_EXCHANGE:
+				return COMPARE_AND_EXCHANGE;
+			case GET_AND_SET:
+				return GET_AND_SET;
+			default:
+				return GET_AND_ADD;
+		}
+	}
+
+	private static Field declaredField(Class<?> refc, String name) {
+		for (Class<?> c = refc; c != null; c = c.getSuperclass()) {
+			try {
+				return c.getDeclaredField(name);
+			} catch (NoSuchFieldException | SecurityException ignored) {
+				// inherited or not visible
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * @return updater-based access to the given instance field, or {@code null} if the field is not volatile,
+	 *         has a type there is no updater for, or is not accessible from this class
+	 */
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	private static Ops updater(Field field) {
+		if (!Modifier.isVolatile(field.getModifiers())) return null;
+		Class<?> owner = field.getDeclaringClass();
+		Class<?> type = field.getType();
+		try {
+			if (type == int.class) return new IntUpdater(AtomicIntegerFieldUpdater.newUpdater((Class) owner, field.getName()));
+			if (type == long.class) return new LongUpdater(AtomicLongFieldUpdater.newUpdater((Class) owner, field.getName()));
+			if (!type.isPrimitive())
+				return new ReferenceUpdater(AtomicReferenceFieldUpdater.newUpdater((Class) owner, type, field.getName()));
+		} catch (RuntimeException e) {
+			// not accessible from this class
+		}
+		return null;
+	}
+
+	private static Object add(Object value, Object delta) {
+		if (value instanceof Integer) return (Integer) value + (Integer) delta;
+		if (value instanceof Long) return (Long) value + (Long) delta;
+		if (value instanceof Double) return (Double) value + (Double) delta;
+		if (value instanceof Float) return (Float) value + (Float) delta;
+		if (value instanceof Short) return (short) ((Short) value + (Short) delta);
+		if (value instanceof Byte) return (byte) ((Byte) value + (Byte) delta);
+		return (char) ((Character) value + (Character) delta);
+	}
+
+	/**
+	 * Access operations on boxed values; receivers of static fields are ignored
+	 */
+	abstract static class Ops {
+		/* whether values are compared by identity (references) or by value (boxed primitives) */
+		private final boolean identity;
+
+		Ops(boolean identity) {
+			this.identity = identity;
+		}
+
+		final boolean same(Object value, Object expected) {
+			return identity ? value == expected : value.equals(expected);
+		}
+
+		abstract Object get(Object receiver) throws Throwable;
+
+		abstract void set(Object receiver, Object value) throws Throwable;
+
+		void setLazy(Object receiver, Object value) throws Throwable {
+			set(receiver, value);
+		}
+
+		abstract boolean compareAndSet(Object receiver, Object expected, Object value) throws Throwable;
+
+		Object compareAndExchange(Object receiver, Object expected, Object value) throws Throwable {
+			for (;;) {
+				Object witness = get(receiver);
+				if (!same(witness, expected)) return witness;
+				if (compareAndSet(receiver, witness, value)) return witness;
+			}
+		}
+
+		abstract Object getAndSet(Object receiver, Object value) throws Throwable;
+
+		/**
+		 * Only numeric fields support this; {@link #find} rejects the mode for other fields before binding it
+		 */
+		Object getAndAdd(Object receiver, Object delta) throws Throwable {
+			throw new IllegalStateException(getClass().getSimpleName() + " does not support " + FieldAccessMode.GET_AND_ADD);
+		}
+	}
+
+	static final class IntUpdater extends Ops {
+		private final AtomicIntegerFieldUpdater<Object> updater;
+
+		IntUpdater(AtomicIntegerFieldUpdater<Object> updater) {
+			super(false);
+			this.updater = updater;
+		}
+
+		@Override
+		Object get(Object receiver) {
+			return updater.get(receiver);
+		}
+
+		@Override
+		void set(Object receiver, Object value) {
+			updater.set(receiver, (Integer) value);
+		}
+
+		@Override
+		void setLazy(Object receiver, Object value) {
+			updater.lazySet(receiver, (Integer) value);
+		}
+
+		@Override
+		boolean compareAndSet(Object receiver, Object expected, Object value) {
+			return updater.compareAndSet(receiver, (Integer) expected, (Integer) value);
+		}
+
+		@Override
+		Object getAndSet(Object receiver, Object value) {
+			return updater.getAndSet(receiver, (Integer) value);
+		}
+
+		@Override
+		Object getAndAdd(Object receiver, Object delta) {
+			return updater.getAndAdd(receiver, (Integer) delta);
+		}
+	}
+
+	static final class LongUpdater extends Ops {
+		private final AtomicLongFieldUpdater<Object> updater;
+
+		LongUpdater(AtomicLongFieldUpdater<Object> updater) {
+			super(false);
+			this.updater = updater;
+		}
+
+		@Override
+		Object get(Object receiver) {
+			return updater.get(receiver);
+		}
+
+		@Override
+		void set(Object receiver, Object value) {
+			updater.set(receiver, (Long) value);
+		}
+
+		@Override
+		void setLazy(Object receiver, Object value) {
+			updater.lazySet(receiver, (Long) value);
+		}
+
+		@Override
+		boolean compareAndSet(Object receiver, Object expected, Object value) {
+			return updater.compareAndSet(receiver, (Long) expected, (Long) value);
+		}
+
+		@Override
+		Object getAndSet(Object receiver, Object value) {
+			return updater.getAndSet(receiver, (Long) value);
+		}
+
+		@Override
+		Object getAndAdd(Object receiver, Object delta) {
+			return updater.getAndAdd(receiver, (Long) delta);
+		}
+	}
+
+	static final class ReferenceUpdater extends Ops {
+		private final AtomicReferenceFieldUpdater<Object, Object> updater;
+
+		ReferenceUpdater(AtomicReferenceFieldUpdater<Object, Object> updater) {
+			super(true);
+			this.updater = updater;
+		}
+
+		@Override
+		Object get(Object receiver) {
+			return updater.get(receiver);
+		}
+
+		@Override
+		void set(Object receiver, Object value) {
+			updater.set(receiver, value);
+		}
+
+		@Override
+		void setLazy(Object receiver, Object value) {
+			updater.lazySet(receiver, value);
+		}
+
+		@Override
+		boolean compareAndSet(Object receiver, Object expected, Object value) {
+			return updater.compareAndSet(receiver, expected, value);
+		}
+
+		@Override
+		Object getAndSet(Object receiver, Object value) {
+			return updater.getAndSet(receiver, value);
+		}
+	}
+
+	static final class Locked extends Ops {
+		private final Object lock;
+		private final MethodHandle getter;
+		private final MethodHandle setter;
+
+		Locked(Object lock, boolean identity, MethodHandle getter, MethodHandle setter) {
+			super(identity);
+			this.lock = lock;
+			this.getter = getter;
+			this.setter = setter;
+		}
+
+		@Override
+		Object get(Object receiver) throws Throwable {
+			synchronized (lock) {
+				return (Object) getter.invokeExact(receiver);
+			}
+		}
+
+		@Override
+		void set(Object receiver, Object value) throws Throwable {
+			synchronized (lock) {
+				setter.invokeExact(receiver, value);
+			}
+		}
+
+		@Override
+		boolean compareAndSet(Object receiver, Object expected, Object value) throws Throwable {
+			synchronized (lock) {
+				if (!same(get(receiver), expected)) return false;
+				set(receiver, value);
+				return true;
+			}
+		}
+
+		@Override
+		Object compareAndExchange(Object receiver, Object expected, Object value) throws Throwable {
+			synchronized (lock) {
+				Object witness = get(receiver);
+				if (same(witness, expected)) set(receiver, value);
+				return witness;
+			}
+		}
+
+		@Override
+		Object getAndSet(Object receiver, Object value) throws Throwable {
+			synchronized (lock) {
+				Object previous = get(receiver);
+				set(receiver, value);
+				return previous;
+			}
+		}
+
+		@Override
+		Object getAndAdd(Object receiver, Object delta) throws Throwable {
+			synchronized (lock) {
+				Object previous = get(receiver);
+				set(receiver, add(previous, delta));
+				return previous;
+			}
+		}
+	}
+}
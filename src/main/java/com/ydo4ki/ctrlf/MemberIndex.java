@@ -0,0 +1,300 @@
+package com.ydo4ki.ctrlf;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Index of members declared by a class (by name and type), built from reflection once per class
+ * and cached in a {@link ClassValue}.
+ * <p>
+ * Probes check the index before calling {@link java.lang.invoke.MethodHandles.Lookup}: if no class of the hierarchy
+ * declares a member with the name and type, the member is certainly absent, and the probe fails
+ * with a stackless exception instead of a full lookup that throws. Members the index is not sure about
+ * (the index could not be built, the class hides members from reflection, or the method is signature-polymorphic)
+ * are always looked up. Whether a member is accessible is decided by the lookup.
+ * <p>
+ * The index can be disabled with the {@code com.ydo4ki.ctrlf.memberIndex=false} system property.
+ *
+ * @author Sulphuris
+ * @since 17.10.2026 08:57
+ */
+final class MemberIndex {
+	private static final boolean enabled = !"false".equals(System.getProperty("com.ydo4ki.ctrlf.memberIndex"));
+
+	private static final ClassValue<MemberIndex> indices = new ClassValue<MemberIndex>() {
+		@Override
+		protected MemberIndex computeValue(Class<?> type) {
+			return new MemberIndex(type);
+		}
+	};
+
+	private final Class<?> type;
+	private final Class<?>[] interfaces;
+	/* name -> types of declared methods and fields, and types of declared constructors,
+	   built on the first query; UNKNOWN if they can not be listed */
+	private volatile Map<String, List<MethodType>> methods;
+	/* name -> types of declared static methods, written before methods */
+	private volatile Map<String, List<MethodType>> staticMethods;
+	private volatile Map<String, List<Class<?>>> fields;
+	private volatile List<MethodType> constructors;
+
+	private static final Map<String, List<MethodType>> UNKNOWN_METHODS = Collections.emptyMap();
+	private static final Map<String, List<Class<?>>> UNKNOWN_FIELDS = Collections.emptyMap();
+	private static final List<MethodType> UNKNOWN_CONSTRUCTORS = Collections.emptyList();
+
+	private MemberIndex(Class<?> type) {
+		this.type = type;
+		this.interfaces = type.getInterfaces();
+	}
+
+	/**
+	 * @return failure record if no class of the hierarchy of the given class declares a method with the given name and type,
+	 *         or {@code null} if it may exist
+	 */
+	static NoSuchMethodException methodAbsence(Class<?> refc, String name, MethodType type) {
+		if (!enabled || MethodHandle.class.isAssignableFrom(refc) || isVarHandle(refc)) return null;
+		if (mayHaveMethod(refc, name, type) || refc.isInterface() && mayHaveMethod(Object.class, name, type)) return null;
+		return new AbsentMethod("no such method: " + refc.getName() + "." + name + type);
+	}
+
+	/**
+	 * @return failure record if no class of the hierarchy of the given class declares a field with the given name and type,
+	 *         or {@code null} if it may exist
+	 */
+	static NoSuchFieldException fieldAbsence(Class<?> refc, String name, Class<?> type) {
+		if (!enabled || mayHaveField(refc, name, type)) return null;
+		return new AbsentField("no such field: " + refc.getName() + "." + name + "/" + type.getName());
+	}
+
+	/**
+	 * @return failure record if the given class declares no constructor of the given type, or {@code null} if it may
+	 */
+	static NoSuchMethodException constructorAbsence(Class<?> refc, MethodType type) {
+		if (!enabled) return null;
+		List<MethodType> declared = indices.get(refc).constructors();
+		if (declared == UNKNOWN_CONSTRUCTORS || declared.contains(type)) return null;
+		return new AbsentMethod("no such constructor: " + refc.getName() + ".<init>" + type);
+	}
+
+	/**
+	 * @return failure record for a class of whose hierarchy no method matches the given pattern
+	 */
+	static NoSuchMethodException patternAbsence(Class<?> refc, MemberPattern pattern, MethodType type) {
+		return new AbsentMethod("no method matching " + pattern + " " + type + " in " + refc.getName());
+	}
+
+	/**
+	 * @param refc the class to search in
+	 * @param pattern pattern of methods
+	 * @param type method type of the sequence
+	 * @param isStatic whether to match static methods ({@link SearchMode#findStatic}) or instance methods
+	 * @return methods of the hierarchy of the given class that match the given pattern, ranked (see {@link MemberPattern})
+	 */
+	static List<Match> matchMethods(Class<?> refc, MemberPattern pattern, MethodType type, boolean isStatic) {
+		// the class, its superclasses, then interfaces in declaration order (breadth first)
+		List<Class<?>> hierarchy = new ArrayList<>();
+		for (Class<?> c = refc; c != null; c = c.getSuperclass()) hierarchy.add(c);
+		for (int i = 0; i < hierarchy.size(); i++)
+			for (Class<?> c : indices.get(hierarchy.get(i)).interfaces) if (!hierarchy.contains(c)) hierarchy.add(c);
+		if (refc.isInterface()) hierarchy.add(Object.class);
+		List<Match> matches = new ArrayList<>();
+		for (int depth = 0; depth < hierarchy.size(); depth++) {
+			Class<?> c = hierarchy.get(depth);
+			// static methods of interfaces are not inherited
+			if (isStatic && c != refc && c.isInterface()) continue;
+			MemberIndex index = indices.get(c);
+			Map<String, List<MethodType>> statics = index.staticMethods();
+			for (Map.Entry<String, List<MethodType>> e : index.methods().entrySet()) {
+				if (!pattern.matchesName(e.getKey())) continue;
+				List<MethodType> declaredStatic = statics.getOrDefault(e.getKey(), Collections.emptyList());
+				for (MethodType declared : e.getValue())
+					if (declaredStatic.contains(declared) == isStatic && pattern.matchesType(declared, type))
+						matches.add(new Match(depth, e.getKey(), declared, type));
+			}
+		}
+		Collections.sort(matches);
+		return matches;
+	}
+
+	private static boolean mayHaveMethod(Class<?> c, String name, MethodType type) {
+		for (; c != null; c = c.getSuperclass()) {
+			MemberIndex index = indices.get(c);
+			Map<String, List<MethodType>> methods = index.methods();
+			if (methods == UNKNOWN_METHODS) return true;
+			List<MethodType> declared = methods.get(name);
+			if (declared != null && declared.contains(type)) return true;
+			for (Class<?> i : index.interfaces) if (mayHaveMethod(i, name, type)) return true;
+		}
+		return false;
+	}
+
+	private static boolean mayHaveField(Class<?> c, String name, Class<?> type) {
+		for (; c != null; c = c.getSuperclass()) {
+			MemberIndex index = indices.get(c);
+			Map<String, List<Class<?>>> fields = index.fields();
+			if (fields == UNKNOWN_FIELDS) return true;
+			List<Class<?>> declared = fields.get(name);
+			if (declared != null && declared.contains(type)) return true;
+			for (Class<?> i : index.interfaces) if (mayHaveField(i, name, type)) return true;
+		}
+		return false;
+	}
+
+	private Map<String, List<MethodType>> methods() {
+		Map<String, List<MethodType>> m = methods;
+		if (m == null) {
+			Map<String, List<MethodType>> s = new HashMap<>();
+			try {
+				m = new HashMap<>();
+				for (Method method : type.getDeclaredMethods()) {
+					MethodType methodType = MethodType.methodType(method.getReturnType(), method.getParameterTypes());
+					m.computeIfAbsent(method.getName(), n -> new ArrayList<>(1)).add(methodType);
+					if (Modifier.isStatic(method.getModifiers()))
+						s.computeIfAbsent(method.getName(), n -> new ArrayList<>(1)).add(methodType);
+				}
+			} catch (SecurityException | LinkageError e) {
+				// for example, a class of a parameter is missing
+				m = UNKNOWN_METHODS;
+				s = UNKNOWN_METHODS;
+			}
+			staticMethods = s;
+			methods = m;
+		}
+		return m;
+	}
+
+	private Map<String, List<MethodType>> staticMethods() {
+		methods();
+		return staticMethods;
+	}
+
+	private Map<String, List<Class<?>>> fields() {
+		Map<String, List<Class<?>>> f = fields;
+		if (f == null) {
+			if (hidesFields(type)) {
+				f = UNKNOWN_FIELDS;
+			} else try {
+				f = new HashMap<>();
+				for (Field field : type.getDeclaredFields())
+					f.computeIfAbsent(field.getName(), n -> new ArrayList<>(1)).add(field.getType());
+			} catch (SecurityException | LinkageError e) {
+				f = UNKNOWN_FIELDS;
+			}
+			fields = f;
+		}
+		return f;
+	}
+
+	private List<MethodType> constructors() {
+		List<MethodType> c = constructors;
+		if (c == null) {
+			try {
+				c = new ArrayList<>();
+				for (Constructor<?> constructor : type.getDeclaredConstructors())
+					c.add(MethodType.methodType(void.class, constructor.getParameterTypes()));
+			} catch (SecurityException | LinkageError e) {
+				c = UNKNOWN_CONSTRUCTORS;
+			}
+			constructors = c;
+		}
+		return c;
+	}
+
+	/**
+	 * @return true if reflection may hide fields of the given class (the JDK filters fields of some of its core classes,
+	 *         such as {@code Class} and {@code System}, but not of interfaces and of the superclasses of application classes,
+	 *         which every hierarchy ends with)
+	 */
+	private static boolean hidesFields(Class<?> type) {
+		if (type.getClassLoader() != null || type.isInterface()) return false;
+		String name = type.getName();
+		if (type == Object.class || type == Enum.class || type == Number.class || name.equals("java.lang.Record")
+				|| Throwable.class.isAssignableFrom(type)) return false;
+		return name.startsWith("java.lang.") && name.indexOf('.', "java.lang.".length()) < 0
+				|| name.startsWith("java.lang.reflect.")
+				|| name.startsWith("java.lang.invoke.")
+				|| name.startsWith("jdk.internal.reflect.")
+				|| name.startsWith("sun.reflect.");
+	}
+
+	/**
+	 * @return true if the given class is (a subclass of) {@code java.lang.invoke.VarHandle}, whose methods are signature-polymorphic
+	 */
+	private static boolean isVarHandle(Class<?> type) {
+		for (Class<?> c = type; c != null; c = c.getSuperclass())
+			if (c.getName().equals("java.lang.invoke.VarHandle")) return true;
+		return false;
+	}
+
+	/**
+	 * Method matched by a {@link MemberPattern}
+	 */
+	static final class Match implements Comparable<Match> {
+		/* position of the declaring class in the hierarchy */
+		final int depth;
+		final String name;
+		final MethodType type;
+		final boolean exact;
+		/* difference of the number of parameters from the type of the sequence */
+		final int distance;
+
+		Match(int depth, String name, MethodType type, MethodType expected) {
+			this.depth = depth;
+			this.name = name;
+			this.type = type;
+			this.exact = type.equals(expected);
+			this.distance = Math.abs(type.parameterCount() - expected.parameterCount());
+		}
+
+		@Override
+		public int compareTo(Match that) {
+			if (depth != that.depth) return Integer.compare(depth, that.depth);
+			if (exact != that.exact) return exact ? -1 : 1;
+			if (distance != that.distance) return Integer.compare(distance, that.distance);
+			if (name.length() != that.name.length()) return Integer.compare(name.length(), that.name.length());
+			int c = name.compareTo(that.name);
+			return c != 0 ? c : type.toMethodDescriptorString().compareTo(that.type.toMethodDescriptorString());
+		}
+	}
+
+	/**
+	 * Stackless failure record for a method or constructor that the index knows to be absent
+	 */
+	static final class AbsentMethod extends NoSuchMethodException {
+		private static final long serialVersionUID = 1L;
+
+		AbsentMethod(String message) {
+			super(message);
+		}
+
+		@Override
+		public synchronized Throwable fillInStackTrace() {
+			return this;
+		}
+	}
+
+	/**
+	 * Stackless failure record for a field that the index knows to be absent
+	 */
+	static final class AbsentField extends NoSuchFieldException {
+		private static final long serialVersionUID = 1L;
+
+		AbsentField(String message) {
+			super(message);
+		}
+
+		@Override
+		public synchronized Throwable fillInStackTrace() {
+			return this;
+		}
+	}
+}
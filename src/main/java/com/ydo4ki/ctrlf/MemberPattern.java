@@ -0,0 +1,91 @@
+package com.ydo4ki.ctrlf;
+
+import java.lang.invoke.MethodType;
+import java.util.Objects;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * Name pattern and signature shape of methods to search for instead of an exact name and method type
+ * (see {@link MethodFinder.MethodFinderGeneric#orElseMatching(String, MemberPattern)}).
+ * <p>
+ * Methods are matched against the {@link MemberIndex} of the owner class and its supertypes
+ * (static methods for {@link SearchMode#findStatic}, instance methods for {@link SearchMode#findVirtual}), and ranked:
+ * methods of the owner class first, then of its superclasses and interfaces; among them, methods of the exact type
+ * of the sequence first, then by how much the number of parameters differs from the type of the sequence,
+ * then by name length and name, then by type. So the result is the same on every run,
+ * however reflection orders methods. The first match that is found by the lookup wins.
+ * <p>
+ * Example:
+ * <pre>{@code
+ * MethodSequence.of(MethodType.methodType(Class.class, int.class), SearchMode.findStatic)
+ *         .find("sun.reflect.Reflection", "getCallerClass")
+ *         .orElseMatching("jdk.internal.reflect.Reflection", MemberPattern.regex("getCallerClass0?"))
+ *         .fallback("me.random.CallersSlow", "getCallerClass");
+ * }</pre>
+ *
+ * @author Sulphuris
+ * @since 17.10.2026 09:22
+ */
+public final class MemberPattern {
+	private final Predicate<String> name;
+	private final Predicate<? super MethodType> shape;
+	private final String description;
+
+	private MemberPattern(Predicate<String> name, Predicate<? super MethodType> shape, String description) {
+		this.name = name;
+		this.shape = shape;
+		this.description = description;
+	}
+
+	/**
+	 * @param regex regular expression the whole method name must match
+	 * @return pattern of methods of the exact type of the sequence whose names match the given regular expression
+	 * @throws java.util.regex.PatternSyntaxException if the regular expression is invalid
+	 */
+	public static MemberPattern regex(String regex) {
+		Pattern pattern = Pattern.compile(regex);
+		return new MemberPattern(n -> pattern.matcher(n).matches(), null, "/" + regex + "/");
+	}
+
+	/**
+	 * @param name predicate of method names
+	 * @return pattern of methods of the exact type of the sequence whose names match the given predicate
+	 */
+	public static MemberPattern matching(Predicate<String> name) {
+		return new MemberPattern(Objects.requireNonNull(name, "name"), null, "<matching " + name + ">");
+	}
+
+	/**
+	 * Makes this pattern also match methods whose type is not the type of the sequence, but matches the given predicate.
+	 * Such methods are adapted to the type of the sequence (see {@link MethodFinder.MethodFinderGeneric#orElse(String, String, java.lang.invoke.MethodType)});
+	 * methods that can not be adapted are skipped
+	 * @param shape predicate of method types (without the receiver)
+	 * @return a new pattern
+	 */
+	public MemberPattern withShape(Predicate<? super MethodType> shape) {
+		return new MemberPattern(name, Objects.requireNonNull(shape, "shape"), description);
+	}
+
+	/**
+	 * Makes this pattern match methods of any type that can be adapted to the type of the sequence
+	 * @return a new pattern
+	 * @see #withShape(Predicate)
+	 */
+	public MemberPattern withAnyShape() {
+		return withShape(type -> true);
+	}
+
+	boolean matchesName(String name) {
+		return this.name.test(name);
+	}
+
+	boolean matchesType(MethodType declared, MethodType expected) {
+		return declared.equals(expected) || shape != null && shape.test(declared);
+	}
+
+	@Override
+	public String toString() {
+		return description;
+	}
+}
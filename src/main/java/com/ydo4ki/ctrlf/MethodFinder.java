@@ -2,10 +2,21 @@ package com.ydo4ki.ctrlf;
 
 import java.lang.invoke.MethodHandle;
 import java.lang.invoke.MethodHandleInfo;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 
 /**
  * Used to find methods using method sequences
+ * <p>
+ * A finder is a builder used by one thread. Its result, {@link FoundMethod}, is immutable and may be shared;
+ * to resolve a sequence once for many threads, use {@link MethodSequence#lazy(java.lang.invoke.MethodType, java.util.function.Supplier)}
+ * or a {@link BindingRegistry}. Identical probes of concurrent finders are shared (see {@link ResolutionCache}).
  *
  * @author Sulphuris
  * @since 12.10.2024 21:08
@@ -15,8 +26,45 @@ public class MethodFinder<M extends MethodSequence<?>> {
 	
 	protected MethodHandle found = null;
 	protected Object foundOwner;
+	protected String foundName;
 	protected Throwable lastThrowable = null;
 	
+	/* number of probed candidates and index of the found one */
+	int probed = 0;
+	int foundIndex = -1;
+	
+	/* probes submitted in parallel mode, in declaration order, starting from candidate #pendingStart */
+	private List<Candidate> pendingCandidates;
+	private List<CompletableFuture<Resolution>> pending;
+	private int pendingStart;
+	
+	/* candidates skipped because they are predicted absent, with their indices */
+	private List<Candidate> skipped;
+	private List<Integer> skippedIndices;
+	
+	/* persistent keys of the candidates probed so far while the sequence can be remembered by PersistentResolutionCache,
+	   and the index of the winner it remembers for the sequence (-1 if none, or once it is reached) */
+	private List<String> chain;
+	private int rememberedWinner = -1;
+	
+	/* candidates declared after the found one with their indices and resolutions (null if not probed yet),
+	   kept if the sequence fails over or is calibrated */
+	private List<Candidate> alternatives;
+	private List<Integer> alternativeIndices;
+	private List<Resolution> alternativeResolutions;
+	
+	/* timings of found candidates, if the sequence is calibrated */
+	Calibration calibration;
+	/* call site of the found method, if the sequence is bound adaptively */
+	AdaptiveCallSite adaptive;
+	/* found candidates, once they were collected for calibration or adaptive binding */
+	private List<Calibration.Entry> foundCandidates;
+	/* method handle returned by bind (until another alternative is added) and the direct handle it was bound with */
+	private MethodHandle bound;
+	private MethodHandle boundDirect;
+	
+	final ResolutionTrace.Recorder trace = ResolutionTrace.Recorder.start();
+	
 	MethodFinder(M sequence) {
 		this.sequence = sequence;
 	}
@@ -26,20 +74,354 @@ public class MethodFinder<M extends MethodSequence<?>> {
 	 * @return the owner object of the found method, if found
 	 */
 	public Optional<Object> getFoundOwner() {
+		awaitProbes();
 		return Optional.ofNullable(foundOwner);
 	}
 	
 	/**
-	 * @return the method handle of the found method, if found
+	 * @return the method handle of the found method, if found: the same handle {@code fallback} returns
+	 *         (calibrated, bound adaptively or failing over to alternatives if the sequence is configured so)
 	 */
 	public Optional<MethodHandle> getFound() {
-		return Optional.ofNullable(found);
+		awaitProbes();
+		return found == null ? Optional.empty() : Optional.of(bind(null));
+	}
+	
+	/**
+	 * Probes the given candidate through {@link ResolutionCache}.
+	 * If the candidate is found, sets it as the found method, otherwise sets the last throwable.
+	 * <p>
+	 * If the sequence probes in parallel, the probe is only submitted to the executor,
+	 * and its result is taken into account by {@link #awaitProbes()}.
+	 * <p>
+	 * Otherwise, if {@link ResolutionManifest} predicts that the candidate is absent, or {@link PersistentResolutionCache}
+	 * remembers a winner of the sequence declared after it, it is skipped.
+	 * The first candidate that is not skipped is the predicted winner: if it is found, it is accepted and skipped candidates
+	 * are never probed. Skipped candidates are only probed (in order, before later candidates) if a candidate that is not skipped
+	 * is not found, which means the prediction is stale, or if nothing is found at all
+	 *
+	 * @param candidate candidate to probe
+	 */
+	void probe(Candidate candidate) {
+		if (found != null) {
+			// only called after the method is found if the sequence fails over or is calibrated
+			alternative(candidate, probed++, null);
+			return;
+		}
+		int index = probed++;
+		Executor executor = sequence.probeExecutor;
+		if (executor != null) {
+			if (pending == null) {
+				pending = new ArrayList<>();
+				pendingCandidates = new ArrayList<>();
+				pendingStart = index;
+				trace.parallel();
+			}
+			// owner classes are initialized by the thread that takes the result (see awaitProbes)
+			Candidate uninitialized = candidate.withoutInitialization();
+			pending.add(CompletableFuture.supplyAsync(() -> resolve(uninitialized, index), executor));
+			pendingCandidates.add(candidate);
+			return;
+		}
+		if (predictsAbsent(candidate, index)) {
+			if (skipped == null) {
+				skipped = new ArrayList<>();
+				skippedIndices = new ArrayList<>();
+			}
+			skipped.add(candidate);
+			skippedIndices.add(index);
+			if (trace.isEnabled()) trace.add(step(candidate, index, ResolutionTrace.Outcome.SKIPPED, null, 0));
+			return;
+		}
+		if (found != null) {
+			// found by a skipped candidate, because the sequence is not the one PersistentResolutionCache remembers
+			if (wants()) alternative(candidate, index, null);
+			return;
+		}
+		Resolution resolution = resolve(candidate, index);
+		// the predicted winner is not found, so skipped candidates declared earlier may be found after all
+		if (!resolution.isFound()) probeSkipped();
+		if (found == null) accept(candidate, index, resolution);
+		else if (wants()) alternative(candidate, index, resolution);
+		if (found != null) {
+			// the prediction holds: skipped candidates are absent and are never probed
+			skipped = null;
+			skippedIndices = null;
+		}
+	}
+	
+	/**
+	 * Checks whether the candidate is predicted absent. If the sequence turns out to differ from the one
+	 * {@link PersistentResolutionCache} remembers, the candidates skipped for it are probed before this one
+	 * @return true if {@link ResolutionManifest} predicts the candidate absent, or the remembered winner of the sequence
+	 *         is declared after it
+	 */
+	private boolean predictsAbsent(Candidate candidate, int index) {
+		String key = index == 0 || chain != null && chain.size() == index ? PersistentResolutionCache.key(candidate) : null;
+		if (key == null) {
+			chain = null;
+		} else {
+			if (index == 0) {
+				chain = new ArrayList<>();
+				rememberedWinner = PersistentResolutionCache.winner(key);
+			}
+			chain.add(key);
+		}
+		if (rememberedWinner >= 0) {
+			if (chain != null && index < rememberedWinner) return true;
+			boolean same = chain != null && index == rememberedWinner && PersistentResolutionCache.isWinner(chain);
+			rememberedWinner = -1;
+			if (!same) probeSkipped();
+		}
+		return ResolutionManifest.predictsAbsent(candidate);
+	}
+	
+	/**
+	 * Takes a candidate known to be absent without a member to probe (such as a pattern that matches nothing):
+	 * nothing is looked up or cached, and if candidates declared earlier are not found either, the given failure becomes the last throwable
+	 * @param owner owner class name
+	 * @param description description of the candidate for the trace
+	 * @param failure failure of the candidate
+	 */
+	void absent(String owner, String description, ReflectiveOperationException failure) {
+		int index = probed++;
+		if (found != null) return;
+		// candidates declared earlier (probed in parallel or skipped) win, and fail before this one
+		awaitProbes();
+		if (found != null) return;
+		lastThrowable = failure;
+		if (trace.isEnabled()) trace.add(new ResolutionTrace.Step(index, owner, description, null, ResolutionTrace.Outcome.NOT_FOUND, failure, 0));
+	}
+	
+	private void alternative(Candidate candidate, int index, Resolution resolution) {
+		if (alternatives == null) {
+			alternatives = new ArrayList<>();
+			alternativeIndices = new ArrayList<>();
+			alternativeResolutions = new ArrayList<>();
+		}
+		alternatives.add(candidate);
+		alternativeIndices.add(index);
+		alternativeResolutions.add(resolution);
+		bound = null;
+	}
+	
+	/**
+	 * @return true if the next candidate has to be passed to {@link #probe(Candidate)}: nothing is found yet,
+	 *         or the sequence fails over or is calibrated and needs the candidates declared after the found one
+	 */
+	boolean wants() {
+		return found == null || sequence.failover != null || sequence.calibrationBudget != null || sequence.adaptiveRatio != 0;
+	}
+	
+	/**
+	 * Resolves the found method: calibrates it if the sequence is calibrated,
+	 * binds it adaptively or wraps it to fail over to alternatives
+	 * @param direct method handle given to {@code fallback(MethodHandle)} after the method was found, or {@code null}
+	 * @return method handle to return as the found method (the same one until another alternative is added)
+	 */
+	MethodHandle bind(MethodHandle direct) {
+		if (bound != null && (direct == null || direct == boundDirect)) return bound;
+		boundDirect = direct;
+		return bound = link(direct);
+	}
+
+	private MethodHandle link(MethodHandle direct) {
+		calibrate(direct);
+		if (sequence.adaptiveRatio == 0) return failover(direct);
+		if (adaptive == null) {
+			List<Calibration.Entry> candidates = foundCandidates(direct);
+			int current = 0;
+			while (candidates.get(current).getIndex() != foundIndex) current++;
+			adaptive = new AdaptiveCallSite(found.type(), candidates, current, sequence.adaptiveRatio, sequence.adaptiveSampleInterval);
+		}
+		return adaptive.dynamicInvoker();
+	}
+	
+	/**
+	 * If the sequence is calibrated, probes all alternatives, benchmarks found ones together with the found method
+	 * and makes the fastest one the found method (once)
+	 * @param direct method handle given to {@code fallback(MethodHandle)} after the method was found, or {@code null}
+	 */
+	private void calibrate(MethodHandle direct) {
+		if (sequence.calibrationBudget == null || found == null || calibration != null) return;
+		calibration = Calibration.run(foundCandidates(direct), sequence.calibrationArguments, sequence.calibrationBudget.toNanos());
+		Calibration.Entry chosen = calibration.getChosen();
+		found = chosen.handle;
+		foundOwner = chosen.getOwner().orElse(null);
+		foundName = chosen.getName().orElse(null);
+		foundIndex = chosen.getIndex();
+	}
+	
+	/**
+	 * Probes all alternatives (once)
+	 * @param direct method handle given to {@code fallback(MethodHandle)} after the method was found, or {@code null}
+	 * @return the found method and found alternatives in declaration order
+	 */
+	private List<Calibration.Entry> foundCandidates(MethodHandle direct) {
+		if (foundCandidates != null) return foundCandidates;
+		List<Calibration.Entry> entries = new ArrayList<>();
+		entries.add(new Calibration.Entry(foundIndex, foundOwner, foundName, found));
+		if (alternatives != null) for (int i = 0; i < alternatives.size(); i++) {
+			Candidate candidate = alternatives.get(i);
+			Resolution resolution = alternativeResolutions.get(i);
+			if (resolution == null) alternativeResolutions.set(i, resolution = resolve(candidate, alternativeIndices.get(i)));
+			if (resolution.isFound())
+				entries.add(new Calibration.Entry(alternativeIndices.get(i), resolution.owner, candidate.name, resolution.handle));
+		}
+		if (direct != null) {
+			Object owner = null;
+			String name = null;
+			try {
+				MethodHandleInfo info = sequence.lookup.revealDirect(direct);
+				owner = info.getDeclaringClass();
+				name = info.getName();
+			} catch (IllegalArgumentException | SecurityException ignored) {
+				// not a direct method handle
+			}
+			entries.add(new Calibration.Entry(probed++, owner, name, direct));
+		}
+		return foundCandidates = entries;
+	}
+	
+	/**
+	 * @param direct method handle given to {@code fallback(MethodHandle)} after the method was found, or {@code null}
+	 * @return the found method, wrapped to fail over to the alternatives declared after it if the sequence fails over
+	 */
+	private MethodHandle failover(MethodHandle direct) {
+		if (sequence.failover == null) return found;
+		List<Candidate> candidates = new ArrayList<>();
+		if (alternatives != null) for (int i = 0; i < alternatives.size(); i++)
+			if (alternativeIndices.get(i) > foundIndex) candidates.add(alternatives.get(i));
+		return Failover.handle(found, candidates, direct == found ? null : direct, sequence.failover);
+	}
+	
+	/**
+	 * Probes the given candidate through {@link BindingRegistry} and records the probe in the trace
+	 */
+	private Resolution resolve(Candidate candidate, int index) {
+		if (!trace.isEnabled()) return BindingRegistry.resolve(candidate);
+		long start = System.nanoTime();
+		Resolution resolution = BindingRegistry.resolve(candidate);
+		long nanos = System.nanoTime() - start;
+		trace.add(step(candidate, index,
+				resolution.isFound() ? ResolutionTrace.Outcome.FOUND : ResolutionTrace.Outcome.NOT_FOUND, resolution.failure, nanos));
+		return resolution;
+	}
+	
+	private static ResolutionTrace.Step step(Candidate candidate, int index, ResolutionTrace.Outcome outcome, Throwable failure, long nanos) {
+		return new ResolutionTrace.Step(index, candidate.owner, candidate.name, candidate.specialCaller, outcome, failure, nanos);
+	}
+	
+	/**
+	 * Probes candidates skipped because of predictions, once the prediction turned out to be stale.
+	 * If none of them is found, the last throwable of probed candidates (if any) is left unchanged.
+	 * If one of them is found, the rest become alternatives without being probed
+	 */
+	private void probeSkipped() {
+		if (skipped == null) return;
+		List<Candidate> candidates = skipped;
+		List<Integer> indices = skippedIndices;
+		skipped = null;
+		skippedIndices = null;
+		Throwable last = lastThrowable;
+		int i = 0;
+		for (; i < candidates.size() && found == null; i++)
+			accept(candidates.get(i), indices.get(i), resolve(candidates.get(i), indices.get(i)));
+		if (found == null && last != null) lastThrowable = last;
+		if (found != null && wants())
+			for (; i < candidates.size(); i++) alternative(candidates.get(i), indices.get(i), null);
+	}
+	
+	/**
+	 * Returns a future that completes once the result of this finder is known without waiting,
+	 * so that {@code fallback} and {@code getFound...} can be called from a callback of the future
+	 * instead of blocking the current thread.
+	 * <p>
+	 * That is, once the probes submitted so far in parallel mode (see {@link MethodSequence.Options#withParallelProbing()})
+	 * complete up to the first found candidate in declaration order. In sequential mode every probe completes
+	 * right in {@code find}/{@code orElse}, so the future is already complete.
+	 * <p>
+	 * If a probe throws, the future completes exceptionally; the same exception is thrown by {@code fallback}.
+	 * Further {@code orElse} calls are not taken into account by the returned future.
+	 * @return future that completes when the probes complete
+	 */
+	public CompletableFuture<Void> whenProbed() {
+		if (pending == null) return CompletableFuture.completedFuture(null);
+		return firstFound(new ArrayList<>(pending), 0);
+	}
+	
+	private static CompletableFuture<Void> firstFound(List<CompletableFuture<Resolution>> futures, int i) {
+		if (i == futures.size()) return CompletableFuture.completedFuture(null);
+		return futures.get(i).thenCompose(resolution ->
+				resolution.isFound() ? CompletableFuture.completedFuture(null) : firstFound(futures, i + 1));
+	}
+	
+	/**
+	 * Waits for probes submitted in parallel mode and takes the first found one in declaration order.
+	 * If nothing is found, probes candidates skipped because of predictions
+	 */
+	void awaitProbes() {
+		if (found == null) probeSkipped();
+		if (pending == null) return;
+		List<CompletableFuture<Resolution>> futures = pending;
+		List<Candidate> candidates = pendingCandidates;
+		pending = null;
+		pendingCandidates = null;
+		for (int i = 0; i < futures.size() && found == null; i++) {
+			Resolution resolution;
+			try {
+				resolution = futures.get(i).join();
+			} catch (CompletionException e) {
+				// errors (such as ExceptionInInitializerError) propagate just like in sequential mode
+				Throwable cause = e.getCause();
+				if (cause instanceof Error) throw (Error) cause;
+				if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+				throw e;
+			}
+			accept(candidates.get(i), pendingStart + i, resolution);
+			if (found != null && sequence.initialize) initialize(resolution.owner);
+			if (found != null && wants())
+				for (int j = i + 1; j < candidates.size(); j++)
+					alternative(candidates.get(j), pendingStart + j, futures.get(j).getNow(null));
+		}
+	}
+	
+	/**
+	 * Initializes the owner of a method found by a parallel probe in the current thread
+	 */
+	private static void initialize(Class<?> owner) {
+		try {
+			Class.forName(owner.getName(), true, owner.getClassLoader());
+		} catch (ClassNotFoundException e) {
+			// the class is loaded by that class loader
+			throw new NoClassDefFoundError(owner.getName());
+		}
+	}
+	
+	private void accept(Candidate candidate, int index, Resolution resolution) {
+		if (!resolution.isFound()) {
+			lastThrowable = resolution.failure;
+			return;
+		}
+		found = resolution.handle;
+		foundOwner = resolution.owner;
+		foundName = candidate.name;
+		foundIndex = index;
+		if (chain != null) PersistentResolutionCache.recordWinner(chain, index);
+	}
+	
+	/**
+	 * @return the found method with its name, or a not found result with the last throwable
+	 */
+	FoundMethod.Named result() {
+		awaitProbes();
+		if (found == null) return FoundMethod.notfound(foundOwner, foundName, lastThrowable, trace.build());
+		MethodHandle mh = bind(null);
+		return FoundMethod.found(foundOwner, foundName, mh, foundIndex, trace.build(), calibration, adaptive);
 	}
 	
 	
 	public static class MethodFinderGeneric extends MethodFinder<MethodSequence.MethodSequenceGeneric> {
-		protected String foundName;
-		
 		MethodFinderGeneric(MethodSequence.MethodSequenceGeneric sequence) {
 			super(sequence);
 		}
@@ -54,34 +436,217 @@ public class MethodFinder<M extends MethodSequence<?>> {
 		 */
 		public MethodFinderGeneric orElse(String owner, String name) {
 			if (name.contains(".")) throw new IllegalArgumentException("Illegal method name: " + name);
-			if (found == null) try {
-				Class<?> refc = Class.forName(owner);
-				found = sequence.searchMode.findMethodHandle(sequence, refc, name);
-				foundOwner = refc;
-				foundName = name;
-			} catch (Exception e) {
-				lastThrowable = e;
+			if (wants()) probe(new Candidate(sequence, owner, name, null));
+			return this;
+		}
+		
+		/**
+		 * If the method was not found, tries to find the method with the given signature in the given owner class
+		 * and adapts it to the method type of the sequence: every parameter takes the parameter of the sequence at the same position
+		 * (widened, boxed or unboxed, or passed as a supertype), trailing parameters of the sequence are dropped
+		 * or trailing parameters of the method are given default values if the numbers of parameters differ,
+		 * and the return value is converted (see {@link SignatureAdapter}).
+		 * The adapter is built once, when the method is found, so the found method handle is invoked with the exact type of the sequence.
+		 * If the signature is not compatible, the method is treated as not found.
+		 *
+		 * @param owner the owner class to search in
+		 * @param name  the name of the method to search for
+		 * @param signature method type of the method
+		 * @return this method finder
+		 * @see #orElse(String, String, MethodType, int...)
+		 */
+		public MethodFinderGeneric orElse(String owner, String name, MethodType signature) {
+			return orElseAdapted(owner, name, signature, null);
+		}
+		
+		/**
+		 * Like {@link #orElse(String, String, MethodType)}, but the parameters of the sequence the parameters of the method take
+		 * are given explicitly, so they may be reordered: for example, order {@code 1, 0} swaps two parameters.
+		 *
+		 * @param owner the owner class to search in
+		 * @param name  the name of the method to search for
+		 * @param signature method type of the method
+		 * @param order for every parameter of the method, the index of the parameter of the sequence it takes,
+		 *              or {@code -1} to pass the default value ({@code 0}/{@code false}/{@code null})
+		 * @return this method finder
+		 * @throws IllegalArgumentException if the order does not have an index for every parameter of the method,
+		 *                                  or an index is not a parameter of the sequence
+		 */
+		public MethodFinderGeneric orElse(String owner, String name, MethodType signature, int... order) {
+			return orElseAdapted(owner, name, signature, SignatureAdapter.checkOrder(order, signature, sequence.methodType));
+		}
+		
+		private MethodFinderGeneric orElseAdapted(String owner, String name, MethodType signature, int[] order) {
+			if (name.contains(".")) throw new IllegalArgumentException("Illegal method name: " + name);
+			if (wants()) probe(new Candidate(sequence.withSignature(signature), owner, name, null).adaptedTo(sequence.methodType, order));
+			return this;
+		}
+		
+		/**
+		 * If the method was not found, tries to find the method with the given signature in the given owner class
+		 * (see {@link #orElse(String, String, MethodType)}).
+		 * If the method is not found, returns a not found result with the last throwable.
+		 *
+		 * @param owner the owner class to search in
+		 * @param name  the name of the method to search for
+		 * @param signature method type of the method
+		 * @return the found method if found, or an empty result if the method was not found
+		 */
+		public FoundMethod.Named fallback(String owner, String name, MethodType signature) {
+			orElse(owner, name, signature);
+			return result();
+		}
+		
+		/**
+		 * If the method was not found, tries to find the method with the given signature and parameter order in the given owner class
+		 * (see {@link #orElse(String, String, MethodType, int...)}).
+		 * If the method is not found, returns a not found result with the last throwable.
+		 *
+		 * @param owner the owner class to search in
+		 * @param name  the name of the method to search for
+		 * @param signature method type of the method
+		 * @param order for every parameter of the method, the index of the parameter of the sequence it takes, or {@code -1}
+		 * @return the found method if found, or an empty result if the method was not found
+		 */
+		public FoundMethod.Named fallback(String owner, String name, MethodType signature, int... order) {
+			orElse(owner, name, signature, order);
+			return result();
+		}
+		
+		/**
+		 * If the method was not found, searches the given owner class and its supertypes for methods that match the given pattern
+		 * (see {@link MemberPattern}) and tries them in their ranking order. Methods of other types than the type of the sequence
+		 * are adapted to it (see {@link #orElse(String, String, MethodType)}). {@link SearchMode#findStatic} only matches static methods,
+		 * {@link SearchMode#findVirtual} only instance methods.
+		 * The methods are listed by the {@link MemberIndex} of the owner class, so no lookup is made for methods that do not match.
+		 * If no method is found, sets the last throwable to the failure of the best match, or to the absence of a method
+		 * matching the pattern if nothing matches (which is neither looked up nor cached).
+		 * <p>
+		 * Matching loads (and initializes) the owner class in the calling thread, so in parallel mode
+		 * it waits for the probes of the candidates declared earlier, and is skipped if one of them is found.
+		 *
+		 * @param owner the owner class to search in
+		 * @param pattern pattern of the methods to search for
+		 * @return this method finder
+		 */
+		public MethodFinderGeneric orElseMatching(String owner, MemberPattern pattern) {
+			Objects.requireNonNull(pattern, "pattern");
+			if (!wants()) return this;
+			if (sequence.probeExecutor != null) {
+				awaitProbes();
+				if (!wants()) return this;
 			}
+			ClassLoader[] loaders = sequence.classLoaders != null ? sequence.classLoaders : new ClassLoader[]{sequence.classLoader};
+			Candidate candidate = match(owner, pattern, loaders);
+			if (candidate != null) probe(candidate);
+			else absent(owner, pattern.toString(), matchAbsence(owner, pattern, loaders));
 			return this;
 		}
 		
+		/**
+		 * If the method was not found, searches the given owner class for methods that match the given pattern
+		 * (see {@link #orElseMatching(String, MemberPattern)}).
+		 * If the method is not found, returns a not found result with the last throwable.
+		 *
+		 * @param owner the owner class to search in
+		 * @param pattern pattern of the methods to search for
+		 * @return the found method if found, or an empty result if the method was not found
+		 */
+		public FoundMethod.Named fallbackMatching(String owner, MemberPattern pattern) {
+			orElseMatching(owner, pattern);
+			return result();
+		}
+		
+		/**
+		 * @return candidate of the first found method that matches the given pattern (matches are resolved in the calling thread),
+		 *         or of the best match, or {@code null} if nothing matches
+		 */
+		private Candidate match(String owner, MemberPattern pattern, ClassLoader[] loaders) {
+			boolean isStatic = sequence.searchMode instanceof SearchMode.FindStatic;
+			Candidate best = null;
+			for (ClassLoader loader : loaders) {
+				Class<?> refc = ClassProbe.find(owner, loader, sequence.initialize);
+				if (refc == null) continue;
+				for (MemberIndex.Match m : MemberIndex.matchMethods(refc, pattern, sequence.methodType, isStatic)) {
+					Candidate candidate = new Candidate(sequence.withSignature(m.type), owner, m.name, null).adaptedTo(sequence.methodType, null);
+					// resolutions are cached, so probing the chosen candidate again does not repeat the lookup
+					if (BindingRegistry.resolve(candidate).isFound()) return candidate;
+					if (best == null) best = candidate;
+				}
+			}
+			return best;
+		}
+		
+		/**
+		 * @return failure of a pattern that matches nothing: the absence of a matching method in the first class loader
+		 *         the owner class is loaded with, or the absence of the owner class
+		 */
+		private ReflectiveOperationException matchAbsence(String owner, MemberPattern pattern, ClassLoader[] loaders) {
+			for (ClassLoader loader : loaders) {
+				Class<?> refc = ClassProbe.find(owner, loader, sequence.initialize);
+				if (refc != null) return MemberIndex.patternAbsence(refc, pattern, sequence.methodType);
+			}
+			return ClassProbe.absence(owner, loaders[loaders.length - 1]);
+		}
+		
+		/**
+		 * Like {@link #fallback(MethodHandle)}, but adapts the given method handle to the method type of the sequence
+		 * the same way as {@link #orElse(String, String, MethodType)} does, instead of requiring the exact type
+		 *
+		 * @param mh the method handle to set as the found method
+		 * @return the found method handle
+		 * @throws java.lang.invoke.WrongMethodTypeException if the method handle can not be adapted to the method type of the sequence
+		 */
+		public FoundMethod fallbackAdapted(MethodHandle mh) {
+			return fallback(SignatureAdapter.adapt(mh, mh.type(), sequence.methodType));
+		}
+		
+		/**
+		 * Like {@link #fallbackAdapted(MethodHandle)}, but with the given parameter order
+		 * (see {@link #orElse(String, String, MethodType, int...)})
+		 *
+		 * @param mh the method handle to set as the found method
+		 * @param order for every parameter of the method handle, the index of the parameter of the sequence it takes, or {@code -1}
+		 * @return the found method handle
+		 * @throws IllegalArgumentException if the order does not match the method handle
+		 * @throws java.lang.invoke.WrongMethodTypeException if the method handle can not be adapted to the method type of the sequence
+		 */
+		public FoundMethod fallbackAdapted(MethodHandle mh, int... order) {
+			int[] checked = SignatureAdapter.checkOrder(order, mh.type(), sequence.methodType);
+			return fallback(SignatureAdapter.adapt(mh, mh.type(), sequence.methodType, checked));
+		}
+		
 		/**
 		 * If the method was not found, tries to set the found method to the given one.
+		 * The given method handle does not have to be a direct method handle;
+		 * if it is not, the owner and the name of the found method are unknown.
 		 *
 		 * @param mh the method handle to set as the found method
 		 * @return the found method handle, or an empty result if the method type does not match
 		 * @throws IllegalArgumentException if the method type of the given method handle does not match the expected method type
 		 */
 		public FoundMethod fallback(MethodHandle mh) {
+			awaitProbes();
 			if (found == null) {
 				if (!sequence.methodType.equals(mh.type()))
 					throw new IllegalArgumentException("MethodTypes mismatch (" + mh.type() + ", expected: " + sequence.methodType + ")");
-				MethodHandleInfo info = sequence.lookup.revealDirect(mh);
 				found = mh;
-				foundOwner = info.getDeclaringClass();
-				foundName = info.getName();
+				try {
+					MethodHandleInfo info = sequence.lookup.revealDirect(mh);
+					foundOwner = info.getDeclaringClass();
+					foundName = info.getName();
+				} catch (IllegalArgumentException | SecurityException ignored) {
+					// not a direct method handle
+				}
+				foundIndex = probed++;
+				if (trace.isEnabled()) trace.add(new ResolutionTrace.Step(foundIndex, foundOwner == null ? mh.toString() : ((Class<?>) foundOwner).getName(),
+						foundName, null, ResolutionTrace.Outcome.FOUND, null, 0));
+				MethodHandle bound = bind(null);
+				return FoundMethod.found(foundOwner, foundName, bound, foundIndex, trace.build(), calibration, adaptive);
 			}
-			return FoundMethod.found(foundOwner, foundName, found);
+			// the given method handle is the last alternative to calibrate and to fail over to
+			MethodHandle bound = bind(mh);
+			return FoundMethod.found(foundOwner, foundName, bound, foundIndex, trace.build(), calibration, adaptive);
 		}
 		
 		/**
@@ -94,8 +659,7 @@ public class MethodFinder<M extends MethodSequence<?>> {
 		 */
 		public FoundMethod.Named fallback(String owner, String name) {
 			orElse(owner, name);
-			if (found == null) return FoundMethod.notfound(foundOwner, foundName, lastThrowable);
-			return FoundMethod.found(foundOwner, foundName, found);
+			return result();
 		}
 		
 		/**
@@ -104,6 +668,7 @@ public class MethodFinder<M extends MethodSequence<?>> {
 		 * @return the name of the found method, or empty if the method was not found
 		 */
 		public Optional<String> getFoundName() {
+			awaitProbes();
 			return Optional.ofNullable(foundName);
 		}
 	}
@@ -200,8 +765,6 @@ public class MethodFinder<M extends MethodSequence<?>> {
 	
 	
 	public static class MethodFinderBind extends MethodFinder<MethodSequence.MethodSequenceBind> {
-		protected String foundName;
-		
 		MethodFinderBind(MethodSequence.MethodSequenceBind sequence) {
 			super(sequence);
 		}
@@ -215,12 +778,22 @@ public class MethodFinder<M extends MethodSequence<?>> {
 		 */
 		public MethodFinderBind orElse(Object receiver, String name) {
 			if (name.contains(".")) throw new IllegalArgumentException("Illegal method name: " + name);
-			if (found == null) try {
-				found = sequence.searchMode.findBindMethodHandle(sequence, receiver, name);
-				foundOwner = receiver;
-				foundName = name;
-			} catch (Exception e) {
-				lastThrowable = e;
+			if (found == null) {
+				int index = probed++;
+				String owner = receiver == null ? "null" : receiver.getClass().getName();
+				long start = trace.isEnabled() ? System.nanoTime() : 0;
+				try {
+					found = sequence.searchMode.findBindMethodHandle(sequence, receiver, name);
+					foundOwner = receiver;
+					foundName = name;
+					foundIndex = index;
+					if (trace.isEnabled()) trace.add(new ResolutionTrace.Step(index, owner, name, null,
+							ResolutionTrace.Outcome.FOUND, null, System.nanoTime() - start));
+				} catch (Exception e) {
+					lastThrowable = e;
+					if (trace.isEnabled()) trace.add(new ResolutionTrace.Step(index, owner, name, null,
+							ResolutionTrace.Outcome.NOT_FOUND, e, System.nanoTime() - start));
+				}
 			}
 			return this;
 		}
@@ -235,8 +808,7 @@ public class MethodFinder<M extends MethodSequence<?>> {
 		 */
 		public FoundMethod.Named fallback(Object receiver, String name) {
 			orElse(receiver, name);
-			if (found == null) return FoundMethod.notfound(foundOwner, foundName, lastThrowable);
-			return FoundMethod.found(foundOwner, foundName, found);
+			return result();
 		}
 		
 		/**
@@ -245,6 +817,7 @@ public class MethodFinder<M extends MethodSequence<?>> {
 		 * @return the name of the found method, or empty if the method was not found
 		 */
 		public Optional<String> getFoundName() {
+			awaitProbes();
 			return Optional.ofNullable(foundName);
 		}
 	}
@@ -297,9 +870,47 @@ public class MethodFinder<M extends MethodSequence<?>> {
 	}
 	
 	
-	public static class MethodFinderSpecial extends MethodFinder<MethodSequence.MethodSequenceSpecial> {
-		protected String foundName;
+	public static class MethodFinderDuck extends MethodFinder<MethodSequence.MethodSequenceDuck> {
+		private final List<String> names = new ArrayList<>();
 		
+		MethodFinderDuck(MethodSequence.MethodSequenceDuck sequence) {
+			super(sequence);
+		}
+		
+		/**
+		 * If the receiver class has no method with the previous names, tries to find the method with the given name.
+		 * Nothing is searched for until the found method handle is invoked.
+		 *
+		 * @param name the name of the method to search for
+		 * @return this
+		 */
+		public MethodFinderDuck orElse(String name) {
+			if (name.contains(".")) throw new IllegalArgumentException("Illegal method name: " + name);
+			names.add(name);
+			return this;
+		}
+		
+		/**
+		 * If the receiver class has no method with the previous names, tries to find the method with the given name.
+		 * <p>
+		 * Returns a method handle that takes the receiver (of any class) followed by the parameters of the method type
+		 * and invokes the first method with one of the names in the receiver class, resolving it once per receiver class.
+		 * The method handle throws {@link IllegalArgumentException} if the receiver class has no such method,
+		 * and {@link NullPointerException} if the receiver is {@code null}
+		 *
+		 * @param name the name of the method to search for
+		 * @return the found method handle
+		 */
+		public FoundMethod fallback(String name) {
+			orElse(name);
+			found = new DuckCallSite(sequence, names.toArray(new String[0])).dynamicInvoker();
+			foundIndex = 0;
+			return FoundMethod.found(null, found, foundIndex, trace.build(), null, null);
+		}
+	}
+	
+	
+	public static class MethodFinderSpecial extends MethodFinder<MethodSequence.MethodSequenceSpecial> {
 		MethodFinderSpecial(MethodSequence.MethodSequenceSpecial sequence) {
 			super(sequence);
 		}
@@ -315,15 +926,7 @@ public class MethodFinder<M extends MethodSequence<?>> {
 		 */
 		public MethodFinderSpecial orElse(String owner, String name, String specialCaller) {
 			if (name.contains(".")) throw new IllegalArgumentException("Illegal method name: " + name);
-			if (found == null) try {
-				Class<?> refc = Class.forName(owner);
-				Class<?> caller = Class.forName(specialCaller);
-				found = sequence.searchMode.findMethodHandle(sequence, refc, name, caller);
-				foundOwner = refc;
-				foundName = name;
-			} catch (Exception e) {
-				lastThrowable = e;
-			}
+			if (wants()) probe(new Candidate(sequence, owner, name, specialCaller));
 			return this;
 		}
 		
@@ -340,8 +943,7 @@ public class MethodFinder<M extends MethodSequence<?>> {
 		public FoundMethod.Named fallback(String owner, String name, String specialCaller) {
 			orElse(owner, name, specialCaller);
 			
-			if (found == null) return FoundMethod.notfound(foundOwner, foundName, lastThrowable);
-			return FoundMethod.found(foundOwner, foundName, found);
+			return result();
 		}
 		
 		/**
@@ -350,6 +952,7 @@ public class MethodFinder<M extends MethodSequence<?>> {
 		 * @return the name of the found special method, or empty if the method was not found
 		 */
 		public Optional<String> getFoundName() {
+			awaitProbes();
 			return Optional.ofNullable(foundName);
 		}
 	}
@@ -506,8 +1109,6 @@ public class MethodFinder<M extends MethodSequence<?>> {
 	
 	
 	public static class MethodFinderField extends MethodFinder<MethodSequence.MethodSequenceField> {
-		protected String foundName;
-		
 		MethodFinderField(MethodSequence.MethodSequenceField sequence) {
 			super(sequence);
 		}
@@ -522,14 +1123,7 @@ public class MethodFinder<M extends MethodSequence<?>> {
 		 */
 		public MethodFinderField orElse(String owner, String name) {
 			if (name.contains(".")) throw new IllegalArgumentException("Illegal method name: " + name);
-			if (found == null) try {
-				Class<?> refc = Class.forName(owner);
-				found = sequence.searchMode.findField(sequence, refc, name, sequence.methodType.returnType());
-				foundOwner = refc;
-				foundName = name;
-			} catch (Exception e) {
-				lastThrowable = e;
-			}
+			if (wants()) probe(new Candidate(sequence, owner, name, null));
 			return this;
 		}
 		
@@ -543,8 +1137,7 @@ public class MethodFinder<M extends MethodSequence<?>> {
 		 */
 		public FoundMethod.Named fallback(String owner, String name) {
 			orElse(owner, name);
-			if (found == null) return FoundMethod.notfound(foundOwner, foundName, lastThrowable);
-			return FoundMethod.found(foundOwner, foundName, found);
+			return result();
 		}
 		
 		/**
@@ -553,6 +1146,7 @@ public class MethodFinder<M extends MethodSequence<?>> {
 		 * @return the name of the found field, or empty if the field was not found
 		 */
 		public Optional<String> getFoundName() {
+			awaitProbes();
 			return Optional.ofNullable(foundName);
 		}
 	}
@@ -617,13 +1211,7 @@ public class MethodFinder<M extends MethodSequence<?>> {
 		 * @return this method finder
 		 */
 		public MethodFinderConstructor orElse(String owner) {
-			if (found == null) try {
-				Class<?> refc = Class.forName(owner);
-				found = sequence.searchMode.findConstructor(sequence, refc);
-				foundOwner = refc;
-			} catch (Exception e) {
-				lastThrowable = e;
-			}
+			if (wants()) probe(new Candidate(sequence, owner, null, null));
 			return this;
 		}
 		
@@ -636,8 +1224,10 @@ public class MethodFinder<M extends MethodSequence<?>> {
 		 */
 		public FoundMethod fallback(String owner) {
 			orElse(owner);
-			if (found == null) return FoundMethod.notfound(foundOwner, lastThrowable);
-			return FoundMethod.found(foundOwner, found);
+			awaitProbes();
+			if (found == null) return FoundMethod.notfound(foundOwner, lastThrowable, trace.build());
+			MethodHandle mh = bind(null);
+			return FoundMethod.found(foundOwner, mh, foundIndex, trace.build(), calibration, adaptive);
 		}
 	}
 }
@@ -1,7 +1,16 @@
 package com.ydo4ki.ctrlf;
 
+import java.lang.invoke.MethodHandle;
 import java.lang.invoke.MethodHandles;
 import java.lang.invoke.MethodType;
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 /**
  * Class which represents a sequence of operations for finding a method
@@ -11,12 +20,88 @@ public class MethodSequence<S extends SearchMode> {
 	final MethodHandles.Lookup lookup;
 	final MethodType methodType;
 	final S searchMode;
+	ClassLoader classLoader;
+	/* class loaders to probe candidates in, in order (the first one is classLoader), or null if only classLoader */
+	ClassLoader[] classLoaders;
+	boolean initialize = true;
+	Executor probeExecutor;
+	List<Class<? extends Throwable>> failover;
+	Duration calibrationBudget;
+	Object[] calibrationArguments;
+	double adaptiveRatio;
+	int adaptiveSampleInterval;
 
 	/* package-private */
 	MethodSequence(MethodHandles.Lookup lookup, MethodType methodType, S searchMode) {
 		this.lookup = lookup;
 		this.methodType = methodType;
 		this.searchMode = searchMode;
+		ClassLoader lookupLoader = lookup.lookupClass().getClassLoader();
+		this.classLoader = lookupLoader != null ? lookupLoader : MethodSequence.class.getClassLoader();
+	}
+
+	/**
+	 * Copies class loading and probing options of this sequence to the sequence derived from it
+	 * @param derived derived sequence
+	 * @return derived sequence
+	 */
+	<T extends MethodSequence<?>> T inherit(T derived) {
+		derived.classLoader = classLoader;
+		derived.classLoaders = classLoaders;
+		derived.initialize = initialize;
+		derived.probeExecutor = probeExecutor;
+		derived.failover = failover;
+		derived.calibrationBudget = calibrationBudget;
+		derived.calibrationArguments = calibrationArguments;
+		derived.adaptiveRatio = adaptiveRatio;
+		derived.adaptiveSampleInterval = adaptiveSampleInterval;
+		return derived;
+	}
+	
+	/**
+	 * @param signature method type a candidate is declared with
+	 * @return sequence with the same options that searches for members of the given type
+	 */
+	MethodSequence<S> withSignature(MethodType signature) {
+		return signature.equals(methodType) ? this : inherit(new MethodSequence<>(lookup, signature, searchMode));
+	}
+	
+	/**
+	 * @return sequence with the same options that does not initialize owner classes
+	 */
+	MethodSequence<S> withoutInitialization() {
+		if (!initialize) return this;
+		MethodSequence<S> derived = inherit(new MethodSequence<>(lookup, methodType, searchMode));
+		derived.initialize = false;
+		return derived;
+	}
+	
+	void setClassLoaders(ClassLoader... classLoaders) {
+		if (classLoaders.length == 0) throw new IllegalArgumentException("No class loaders");
+		this.classLoader = classLoaders[0];
+		this.classLoaders = classLoaders.length == 1 ? null : classLoaders.clone();
+	}
+	
+	/**
+	 * @return sequence of the same class with the same options, to set an option of
+	 */
+	MethodSequence<S> copy() {
+		return inherit(new MethodSequence<>(lookup, methodType, searchMode));
+	}
+	
+	/**
+	 * Derives a sequence from the given one with an option set; the given sequence is not changed,
+	 * so sequences may be shared (for example, kept in {@code static final} fields) and configured further by every user
+	 * @param options sequence
+	 * @param option sets the option of the derived sequence
+	 * @return the derived sequence
+	 */
+	static <T extends Options<T>> T configure(Options<T> options, Consumer<MethodSequence<?>> option) {
+		MethodSequence<?> derived = ((MethodSequence<?>) options).copy();
+		option.accept(derived);
+		@SuppressWarnings("unchecked")
+		T self = (T) derived;
+		return self;
 	}
 
 
@@ -146,6 +231,250 @@ public class MethodSequence<S extends SearchMode> {
 
 
 
+	/**
+	 * Shortcut for {@link #of(MethodHandles.Lookup, MethodType, SearchMode.Duck)}
+	 * with {@link MethodHandles#publicLookup()} as the lookup
+	 * @param methodType method type (without the receiver)
+	 * @param searchMode search mode
+	 * @return a new instance of {@link MethodSequenceDuck}
+	 */
+	public static MethodSequenceDuck of(MethodType methodType, SearchMode.Duck searchMode) {
+		return of(MethodHandles.publicLookup(), methodType, searchMode);
+	}
+
+	/**
+	 * Creates MethodSequence object that searches
+	 * methods using {@link MethodHandles.Lookup#findVirtual(Class, String, MethodType)} in the class
+	 * of every receiver the found method handle is invoked with (for {@link SearchMode#duck})
+	 * @param lookup lookup
+	 * @param methodType method type (without the receiver)
+	 * @param searchMode search mode
+	 * @return a new instance of {@link MethodSequenceDuck}
+	 */
+	public static MethodSequenceDuck of(MethodHandles.Lookup lookup, MethodType methodType, SearchMode.Duck searchMode) {
+		return new MethodSequenceDuck(lookup, methodType, searchMode);
+	}
+
+
+	/**
+	 * Creates method handle that resolves the given method sequence on its first invocation instead of right now.
+	 * After the first successful invocation the handle is relinked to the found method,
+	 * so when stored in a {@code static final} field it performs like the found method handle itself.
+	 * <p>
+	 * If nothing is found, the first invocation throws the same exception as {@link FoundMethod#methodHandle()},
+	 * and the sequence will be resolved again on the next invocation.
+	 * <p>
+	 * Example:
+	 * <pre>{@code
+	 * MethodHandle caller = MethodSequence.lazy(MethodType.methodType(Class.class, int.class), () ->
+	 *         MethodSequence.of(MethodType.methodType(Class.class, int.class), SearchMode.findStatic)
+	 *                 .find("sun.reflect.Reflection", "getCallerClass")
+	 *                 .fallback("me.random.CallersSlow", "getCallerClass"));
+	 * }</pre>
+	 * @param type type of the returned method handle (the found method handle is adapted to it with {@link MethodHandle#asType(MethodType)})
+	 * @param chain method sequence to resolve on the first invocation
+	 * @return method handle of the given type
+	 */
+	public static MethodHandle lazy(MethodType type, Supplier<? extends FoundMethod> chain) {
+		return new LazyCallSite(type, chain).dynamicInvoker();
+	}
+	
+	/**
+	 * Creates method handle that waits for the given resolution on its first invocation
+	 * (see {@link #lazy(MethodType, Supplier)}), so that a sequence resolved with {@link #async(Supplier)}
+	 * is only joined when the method is first needed.
+	 * <p>
+	 * If the resolution completed exceptionally, every invocation throws its cause.
+	 * @param type type of the returned method handle (the found method handle is adapted to it with {@link MethodHandle#asType(MethodType)})
+	 * @param resolution resolution of a method sequence
+	 * @return method handle of the given type
+	 */
+	public static MethodHandle lazy(MethodType type, CompletableFuture<? extends FoundMethod> resolution) {
+		Objects.requireNonNull(resolution, "resolution");
+		return lazy(type, () -> {
+			try {
+				return resolution.join();
+			} catch (CompletionException e) {
+				Throwable cause = e.getCause();
+				if (cause instanceof Error) throw (Error) cause;
+				if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+				throw e;
+			}
+		});
+	}
+	
+	/**
+	 * Resolves the given method sequence in background, on virtual threads if the runtime supports them (Java 21+),
+	 * or on the common {@link java.util.concurrent.ForkJoinPool} otherwise.
+	 * The calling thread (usually a class initializer) continues right away, and joins the result when it is needed.
+	 * <p>
+	 * Example:
+	 * <pre>{@code
+	 * static final CompletableFuture<FoundMethod> CALLER = MethodSequence.async(() ->
+	 *         MethodSequence.of(MethodType.methodType(Class.class, int.class), SearchMode.findStatic)
+	 *                 .find("sun.reflect.Reflection", "getCallerClass")
+	 *                 .fallback("me.random.CallersSlow", "getCallerClass"));
+	 * }</pre>
+	 * If the chain throws (for example, {@link ExceptionInInitializerError} of an owner class), the future completes exceptionally.
+	 * Note that the chain runs on another thread: owner classes are initialized there,
+	 * and must not wait for the class initializer that started the resolution.
+	 * @param chain method sequence to resolve
+	 * @return future result of the chain
+	 * @see #lazy(MethodType, CompletableFuture)
+	 */
+	public static <T extends FoundMethod> CompletableFuture<T> async(Supplier<? extends T> chain) {
+		return async(chain, ProbeExecutors.defaultExecutor());
+	}
+	
+	/**
+	 * Resolves the given method sequence in background on the given executor
+	 * @param chain method sequence to resolve
+	 * @param executor executor to resolve the sequence on
+	 * @return future result of the chain
+	 * @see #async(Supplier)
+	 */
+	public static <T extends FoundMethod> CompletableFuture<T> async(Supplier<? extends T> chain, Executor executor) {
+		Objects.requireNonNull(chain, "chain");
+		Objects.requireNonNull(executor, "executor");
+		return CompletableFuture.supplyAsync(chain::get, executor);
+	}
+
+
+
+	/**
+	 * Class loading and probing options of sequences whose candidates are given by class names
+	 * ({@link MethodSequenceGenericDefault}, {@link MethodSequenceSpecialDefault}, {@link MethodSequenceField}
+	 * and {@link MethodSequenceConstructor}). Implemented by method sequences only.
+	 * <p>
+	 * Like {@code withName} and {@code withOwner}, every option returns a new sequence and leaves this one unchanged
+	 * @param <T> type of the sequence
+	 */
+	public interface Options<T extends Options<T>> {
+		/**
+		 * Sets class loader used to load owner classes of this sequence
+		 * (by default, the class loader of the lookup class, or the class loader of this library
+		 * if the lookup class is loaded by the bootstrap class loader)
+		 * @param classLoader class loader, or {@code null} for the bootstrap class loader
+		 * @return a new sequence with the option set
+		 */
+		default T withClassLoader(ClassLoader classLoader) {
+			return configure(this, sequence -> {
+				sequence.classLoader = classLoader;
+				sequence.classLoaders = null;
+			});
+		}
+
+		/**
+		 * Sets class loaders used to load owner classes of this sequence: every candidate is probed in the given class loaders
+		 * in order, and the first one it is found in wins (before the next candidate is probed).
+		 * Probes are cached per class loader (see {@link ResolutionCache}), so a class loader added later,
+		 * such as the one of a redeployed plugin, only costs probes in that class loader
+		 * @param classLoaders class loaders, {@code null} elements stand for the bootstrap class loader
+		 * @return a new sequence with the option set
+		 * @throws IllegalArgumentException if no class loaders are given
+		 */
+		default T withClassLoaders(ClassLoader... classLoaders) {
+			return configure(this, sequence -> sequence.setClassLoaders(classLoaders));
+		}
+
+		/**
+		 * Sets whether owner classes are initialized when they are loaded (by default they are).
+		 * Without initialization, static initializers of the found method owner run only when the found method is invoked,
+		 * and owners of methods that were not chosen are not initialized at all
+		 * @param initialize whether to initialize owner classes
+		 * @return a new sequence with the option set
+		 */
+		default T withInitialization(boolean initialize) {
+			return configure(this, sequence -> sequence.initialize = initialize);
+		}
+		
+		/**
+		 * Makes finders of this sequence probe all candidates in parallel instead of one after another.
+		 * Every {@code find}/{@code orElse} call only starts a probe, and the first found candidate
+		 * in declaration order is taken when the result is requested ({@code fallback} or {@code getFound...}).
+		 * <p>
+		 * Probes run on virtual threads if the runtime supports them, or on the common {@link java.util.concurrent.ForkJoinPool} otherwise.
+		 * Note that owner classes of all candidates are loaded. Probes do not initialize them, so that a class initializer
+		 * that resolves the sequence never waits for a probe that waits for that class initializer; the owner of the found method
+		 * is initialized (unless {@link #withInitialization(boolean) disabled}) by the thread that takes the result
+		 * @return a new sequence with the option set
+		 */
+		default T withParallelProbing() {
+			return withParallelProbing(ProbeExecutors.defaultExecutor());
+		}
+		
+		/**
+		 * Makes finders of this sequence probe all candidates in parallel on the given executor
+		 * @param executor executor to probe candidates on
+		 * @return a new sequence with the option set
+		 * @see #withParallelProbing()
+		 */
+		default T withParallelProbing(Executor executor) {
+			Objects.requireNonNull(executor);
+			return configure(this, sequence -> sequence.probeExecutor = executor);
+		}
+		
+		/**
+		 * Makes found methods of this sequence fail over to the next candidate at invocation time.
+		 * If the found method throws one of the given exceptions, the next found candidate declared after it
+		 * is switched to permanently (through a {@link java.lang.invoke.SwitchPoint}), and the invocation is retried with it.
+		 * Once there are no more candidates to switch to, the found method handle is the plain handle of the last one
+		 * @param failures exceptions to fail over on
+		 *                 ({@link UnsupportedOperationException} and {@link LinkageError} if none are given)
+		 * @return a new sequence with the option set
+		 */
+		@SuppressWarnings("unchecked")
+		T withFailover(Class<? extends Throwable>... failures);
+		
+		/**
+		 * Marks candidates of this sequence as interchangeable, so that the fastest found candidate is chosen instead of the first one.
+		 * All candidates are looked up, and found ones are invoked with the given representative arguments
+		 * for at most the given time (the invocation running when it is spent is completed);
+		 * the result is reported by {@link FoundMethod#getCalibration()}.
+		 * Note that candidates are invoked many times, so they must not have side effects that matter
+		 * @param budget time to spend on invoking candidates
+		 * @param arguments representative arguments of the found method handle (with the receiver first, if it takes one)
+		 * @return a new sequence with the option set
+		 */
+		default T withCalibration(Duration budget, Object... arguments) {
+			if (budget.isNegative()) throw new IllegalArgumentException("Illegal budget: " + budget);
+			Object[] copy = arguments.clone();
+			return configure(this, sequence -> {
+				sequence.calibrationBudget = budget;
+				sequence.calibrationArguments = copy;
+			});
+		}
+		
+		/**
+		 * Binds found methods of this sequence adaptively, sampling every {@value AdaptiveCallSite#DEFAULT_SAMPLE_INTERVAL}-th invocation
+		 * @param ratio how many times slower than the fastest alternative the current candidate must get to be replaced
+		 * @return a new sequence with the option set
+		 * @see #withAdaptiveBinding(double, int)
+		 */
+		default T withAdaptiveBinding(double ratio) {
+			return withAdaptiveBinding(ratio, AdaptiveCallSite.DEFAULT_SAMPLE_INTERVAL);
+		}
+		
+		/**
+		 * Binds found methods of this sequence adaptively: all candidates are looked up, and the found method handle
+		 * invokes the current candidate through an {@link AdaptiveCallSite}. Sampled invocations are spread over all found candidates
+		 * and timed; when the current candidate gets {@code ratio} times slower than another one, the call site is relinked to that one.
+		 * Candidates must be interchangeable, since sampled invocations are made with any of them
+		 * @param ratio how many times slower than the fastest alternative the current candidate must get to be replaced (at least 1)
+		 * @param sampleInterval number of invocations per one sample (power of two)
+		 * @return a new sequence with the option set
+		 */
+		default T withAdaptiveBinding(double ratio, int sampleInterval) {
+			AdaptiveCallSite.check(ratio, sampleInterval);
+			return configure(this, sequence -> {
+				sequence.adaptiveRatio = ratio;
+				sequence.adaptiveSampleInterval = sampleInterval;
+			});
+		}
+	}
+
+
+
 	public static abstract class MethodSequenceGeneric extends MethodSequence<SearchMode.GenericSearch> {
 
 		MethodSequenceGeneric(MethodHandles.Lookup lookup, MethodType methodType, SearchMode.GenericSearch searchMode) {
@@ -164,9 +493,38 @@ public class MethodSequence<S extends SearchMode> {
 			finder.orElse(owner, name);
 			return finder;
 		}
+		
+		/**
+		 * Start method searching and try to find first element, declared with its own signature
+		 * @param owner method owner (class name)
+		 * @param name method name
+		 * @param signature method type of the method, compatible with the method type of this sequence
+		 * @return MethodFinder for this sequence
+		 * @see MethodFinder.MethodFinderGeneric#orElse(String, String, MethodType)
+		 */
+		public MethodFinder.MethodFinderGeneric find(String owner, String name, MethodType signature) {
+			MethodFinder.MethodFinderGeneric finder = new MethodFinder.MethodFinderGeneric(this);
+			finder.orElse(owner, name, signature);
+			return finder;
+		}
+		
+		/**
+		 * Start method searching and try to find first element, declared with its own signature and parameter order
+		 * @param owner method owner (class name)
+		 * @param name method name
+		 * @param signature method type of the method, compatible with the method type of this sequence
+		 * @param order for every parameter of the method, the index of the parameter of this sequence it takes, or {@code -1}
+		 * @return MethodFinder for this sequence
+		 * @see MethodFinder.MethodFinderGeneric#orElse(String, String, MethodType, int...)
+		 */
+		public MethodFinder.MethodFinderGeneric find(String owner, String name, MethodType signature, int... order) {
+			MethodFinder.MethodFinderGeneric finder = new MethodFinder.MethodFinderGeneric(this);
+			finder.orElse(owner, name, signature, order);
+			return finder;
+		}
 	}
 
-	public static class MethodSequenceGenericDefault extends MethodSequenceGeneric {
+	public static class MethodSequenceGenericDefault extends MethodSequenceGeneric implements Options<MethodSequenceGenericDefault> {
 
 		MethodSequenceGenericDefault(MethodHandles.Lookup lookup, MethodType methodType, SearchMode.GenericSearch searchMode) {
 			super(lookup, methodType, searchMode);
@@ -178,7 +536,7 @@ public class MethodSequence<S extends SearchMode> {
 		 * @return a new instance of {@link MethodSequenceGenericNamed}
 		 */
 		public MethodSequenceGenericNamed withName(String name) {
-			return new MethodSequenceGenericNamed(lookup, methodType, searchMode, name);
+			return inherit(new MethodSequenceGenericNamed(lookup, methodType, searchMode, name));
 		}
 
 		/**
@@ -187,7 +545,19 @@ public class MethodSequence<S extends SearchMode> {
 		 * @return a new instance of {@link MethodSequenceGenericSpecifiedOwner}
 		 */
 		public MethodSequenceGenericSpecifiedOwner withOwner(String owner) {
-			return new MethodSequenceGenericSpecifiedOwner(lookup, methodType, searchMode, owner);
+			return inherit(new MethodSequenceGenericSpecifiedOwner(lookup, methodType, searchMode, owner));
+		}
+
+		@SafeVarargs
+		@Override
+		public final MethodSequenceGenericDefault withFailover(Class<? extends Throwable>... failures) {
+			List<Class<? extends Throwable>> list = Failover.failures(failures);
+			return configure(this, sequence -> sequence.failover = list);
+		}
+
+		@Override
+		MethodSequenceGenericDefault copy() {
+			return inherit(new MethodSequenceGenericDefault(lookup, methodType, searchMode));
 		}
 	}
 
@@ -280,7 +650,7 @@ public class MethodSequence<S extends SearchMode> {
 		 * @return a new instance of {@link MethodSequenceBindNamed}
 		 */
 		public MethodSequenceBindNamed withName(String name) {
-			return new MethodSequenceBindNamed(lookup, methodType, searchMode, name);
+			return inherit(new MethodSequenceBindNamed(lookup, methodType, searchMode, name));
 		}
 	}
 
@@ -314,6 +684,24 @@ public class MethodSequence<S extends SearchMode> {
 		}
 	}
 
+	public static class MethodSequenceDuck extends MethodSequence<SearchMode.Duck> {
+
+		MethodSequenceDuck(MethodHandles.Lookup lookup, MethodType methodType, SearchMode.Duck searchMode) {
+			super(lookup, methodType, searchMode);
+		}
+
+		/**
+		 * Finds a method with the given name in the class of every receiver
+		 * @param name method name
+		 * @return a finder that searches for the given method in receiver classes
+		 */
+		public MethodFinder.MethodFinderDuck find(String name) {
+			MethodFinder.MethodFinderDuck finder = new MethodFinder.MethodFinderDuck(this);
+			finder.orElse(name);
+			return finder;
+		}
+	}
+
 	public static abstract class MethodSequenceSpecial extends MethodSequence<SearchMode.FindSpecial> {
 
 		MethodSequenceSpecial(MethodHandles.Lookup lookup, MethodType methodType, SearchMode.FindSpecial searchMode) {
@@ -334,7 +722,7 @@ public class MethodSequence<S extends SearchMode> {
 		}
 	}
 
-	public static class MethodSequenceSpecialDefault extends MethodSequenceSpecial {
+	public static class MethodSequenceSpecialDefault extends MethodSequenceSpecial implements Options<MethodSequenceSpecialDefault> {
 
 		MethodSequenceSpecialDefault(MethodHandles.Lookup lookup, MethodType methodType, SearchMode.FindSpecial searchMode) {
 			super(lookup, methodType, searchMode);
@@ -347,7 +735,7 @@ public class MethodSequence<S extends SearchMode> {
 		 * @return a new instance of {@link MethodSequenceSpecialNamed} with bound name
 		 */
 		public MethodSequenceSpecialNamed withName(String name) {
-			return new MethodSequenceSpecialNamed(lookup, methodType, searchMode, name);
+			return inherit(new MethodSequenceSpecialNamed(lookup, methodType, searchMode, name));
 		}
 
 		/**
@@ -356,7 +744,7 @@ public class MethodSequence<S extends SearchMode> {
 		 * @return a new instance of {@link MethodSequenceSpecialSpecifiedOwner} with bound owner
 		 */
 		public MethodSequenceSpecialSpecifiedOwner withOwner(String owner) {
-			return new MethodSequenceSpecialSpecifiedOwner(lookup, methodType, searchMode, owner);
+			return inherit(new MethodSequenceSpecialSpecifiedOwner(lookup, methodType, searchMode, owner));
 		}
 
 		/**
@@ -365,7 +753,19 @@ public class MethodSequence<S extends SearchMode> {
 		 * @return a new instance of {@link MethodSequenceSpecialSpecifiedCaller} with bound owner
 		 */
 		public MethodSequenceSpecialSpecifiedCaller withCaller(String owner) {
-			return new MethodSequenceSpecialSpecifiedCaller(lookup, methodType, searchMode, owner);
+			return inherit(new MethodSequenceSpecialSpecifiedCaller(lookup, methodType, searchMode, owner));
+		}
+
+		@SafeVarargs
+		@Override
+		public final MethodSequenceSpecialDefault withFailover(Class<? extends Throwable>... failures) {
+			List<Class<? extends Throwable>> list = Failover.failures(failures);
+			return configure(this, sequence -> sequence.failover = list);
+		}
+
+		@Override
+		MethodSequenceSpecialDefault copy() {
+			return inherit(new MethodSequenceSpecialDefault(lookup, methodType, searchMode));
 		}
 	}
 
@@ -462,12 +862,24 @@ public class MethodSequence<S extends SearchMode> {
 	}
 
 
-	public static class MethodSequenceField extends MethodSequence<SearchMode.FieldAccessor> {
+	public static class MethodSequenceField extends MethodSequence<SearchMode.FieldAccessor> implements Options<MethodSequenceField> {
 
 		MethodSequenceField(MethodHandles.Lookup lookup, Class<?> fieldType, SearchMode.FieldAccessor searchMode) {
 			super(lookup, searchMode.methodType(fieldType), searchMode);
 		}
 
+		@SafeVarargs
+		@Override
+		public final MethodSequenceField withFailover(Class<? extends Throwable>... failures) {
+			List<Class<? extends Throwable>> list = Failover.failures(failures);
+			return configure(this, sequence -> sequence.failover = list);
+		}
+
+		@Override
+		MethodSequenceField copy() {
+			return inherit(new MethodSequenceField(lookup, SearchMode.FieldAccessor.fieldType(methodType), searchMode));
+		}
+
 		/**
 		 * Finds a field with the given name in the given owner class
 		 * @param owner owner class name
@@ -488,6 +900,11 @@ public class MethodSequence<S extends SearchMode> {
 			super(lookup, fieldType, searchMode);
 			this.methodName = methodName;
 		}
+
+		@Override
+		MethodSequenceNamedField copy() {
+			return inherit(new MethodSequenceNamedField(lookup, SearchMode.FieldAccessor.fieldType(methodType), searchMode, methodName));
+		}
 		
 		/**
 		 * Finds a field with default name in the given owner class
@@ -512,12 +929,24 @@ public class MethodSequence<S extends SearchMode> {
 	}
 
 
-	public static class MethodSequenceConstructor extends MethodSequence<SearchMode.FindConstructor> {
+	public static class MethodSequenceConstructor extends MethodSequence<SearchMode.FindConstructor> implements Options<MethodSequenceConstructor> {
 
 		MethodSequenceConstructor(MethodHandles.Lookup lookup, MethodType methodType, SearchMode.FindConstructor searchMode) {
 			super(lookup, methodType, searchMode);
 		}
 
+		@SafeVarargs
+		@Override
+		public final MethodSequenceConstructor withFailover(Class<? extends Throwable>... failures) {
+			List<Class<? extends Throwable>> list = Failover.failures(failures);
+			return configure(this, sequence -> sequence.failover = list);
+		}
+
+		@Override
+		MethodSequenceConstructor copy() {
+			return inherit(new MethodSequenceConstructor(lookup, methodType, searchMode));
+		}
+
 		/**
 		 * Finds a constructor with the given name in the given owner class
 		 * @param owner owner class name
@@ -529,4 +958,4 @@ public class MethodSequence<S extends SearchMode> {
 			return finder;
 		}
 	}
-}
\ No newline at end of file
+}
\ No newline at end of file
@@ -0,0 +1,477 @@
+package com.ydo4ki.ctrlf;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.invoke.MethodType;
+import java.lang.management.ManagementFactory;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Cache of the winners of method sequences kept in a memory-mapped file, so that a restarted process probes
+ * only the candidate that was found by the previous run.
+ * <p>
+ * For every sequence resolved in sequential mode, the file remembers which candidate was found: its index,
+ * and a hash of the candidates declared up to it (owner, name, search mode, method descriptor, lookup class and class loaders).
+ * Finders of the same sequence skip the candidates declared before the remembered winner and probe it first;
+ * skipped candidates are only probed if it is not found or if the candidates declared up to it differ
+ * (like with {@link ResolutionManifest}). Sequences with no found candidate are not remembered.
+ * <p>
+ * The file is stamped with a fingerprint of the runtime (Java version, vendor and home), of the JVM options
+ * that change which classes and members are accessible ({@code --add-opens}, {@code --add-exports}, ...)
+ * and of the class path (jars, and the files of class path directories, with their sizes and modification times).
+ * A file with a different fingerprint is cleared on open,
+ * so upgrading the JDK, changing JVM options or changing a class invalidates all remembered winners.
+ * Only candidates of the bootstrap, platform/extension, system and library class loaders are persisted,
+ * because classes of other class loaders can not be identified by name across runs.
+ * <p>
+ * The cache is disabled by default. It is enabled with {@code -Dcom.ydo4ki.ctrlf.cacheFile=<path>}
+ * or {@link #enable(Path)}. The file may be shared by several processes of the same runtime and class path.
+ *
+ * @author Sulphuris
+ * @since 17.10.2026 01:32
+ */
+public final class PersistentResolutionCache {
+	/**
+	 * Default capacity of the cache file in bytes
+	 */
+	public static final int DEFAULT_CAPACITY = 1 << 20;
+
+	private static final int MAGIC = 0x43464443; // "CFDC"
+	private static final int FORMAT = 2;
+	/* magic, format, fingerprint, end of the last record, generation (incremented when records are rewritten) */
+	private static final int HEADER = 4 + 4 + 8 + 4 + 4;
+	private static final int USED = 16;
+	private static final int GENERATION = 20;
+	/* 64-bit FNV-1a */
+	private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+	private static final long FNV_PRIME = 0x100000001b3L;
+
+	/* JVM options that change which classes and members can be found */
+	private static final String[] MODULE_OPTIONS = {"--add-opens", "--add-exports", "--add-reads", "--add-modules",
+			"--limit-modules", "--patch-module", "--upgrade-module-path", "--illegal-access", "-Xbootclasspath"};
+
+	private static final ClassLoader system = ClassLoader.getSystemClassLoader();
+	private static final ClassLoader library = PersistentResolutionCache.class.getClassLoader();
+
+	private static volatile Store store;
+
+	static {
+		String file = System.getProperty("com.ydo4ki.ctrlf.cacheFile");
+		if (file != null && !file.isEmpty()) {
+			try {
+				enable(Paths.get(file));
+			} catch (IOException | RuntimeException ignored) {
+				// the cache is only an optimization
+			}
+		}
+	}
+
+	private PersistentResolutionCache() {}
+
+	/**
+	 * @param first key of the first candidate of a sequence (see {@link #key(Candidate)})
+	 * @return index of the candidate found by a previous run of the sequence with the same runtime and class path,
+	 *         or {@code -1} if there is none
+	 */
+	static int winner(String first) {
+		Store s = store;
+		if (s == null) return -1;
+		String winner = s.winners.get(first);
+		return winner == null ? -1 : Integer.parseInt(winner.substring(0, winner.indexOf(' ')));
+	}
+
+	/**
+	 * @param keys keys of the candidates of a sequence declared so far
+	 * @return true if the last of the candidates was found by a previous run of the sequence
+	 *         and the candidates declared before it are the same
+	 */
+	static boolean isWinner(List<String> keys) {
+		Store s = store;
+		return s != null && value(keys, keys.size() - 1).equals(s.winners.get(keys.get(0)));
+	}
+
+	/**
+	 * Remembers the found candidate of a sequence
+	 * @param keys keys of the candidates of the sequence declared so far
+	 * @param index index of the found candidate
+	 */
+	static void recordWinner(List<String> keys, int index) {
+		Store s = store;
+		if (s == null) return;
+		String value = value(keys, index);
+		String remembered = s.winners.get(keys.get(0));
+		// nothing is skipped before the first candidate, so it is only written to replace another winner
+		if (value.equals(remembered) || index == 0 && remembered == null) return;
+		s.append(keys.get(0), value);
+	}
+
+	/**
+	 * @return index of the winner and hash of the keys of the candidates up to it
+	 */
+	private static String value(List<String> keys, int index) {
+		long h = FNV_OFFSET;
+		for (int i = 0; i <= index; i++) h = hash(h, keys.get(i) + '\n');
+		return index + " " + Long.toHexString(h);
+	}
+
+	/**
+	 * @return persistent key of the candidate, or {@code null} if the candidate can not be identified across runs
+	 */
+	static String key(Candidate candidate) {
+		MethodSequence<?> sequence = candidate.sequence;
+		if (sequence.searchMode instanceof SearchMode.Bind) return null;
+		String loaders = loaderName(candidate.loader);
+		if (sequence.classLoaders != null) {
+			StringBuilder sb = new StringBuilder();
+			for (ClassLoader loader : sequence.classLoaders) {
+				String name = loaderName(loader);
+				if (name == null) return null;
+				sb.append(sb.length() == 0 ? "" : ",").append(name);
+			}
+			loaders = sb.toString();
+		}
+		if (loaders == null) return null;
+		Class<?> lookupClass = sequence.lookup.lookupClass();
+		if (!isPersistent(lookupClass.getClassLoader())) return null;
+		MethodType type = sequence.methodType;
+		if (!isPersistent(type.returnType().getClassLoader())) return null;
+		for (Class<?> p : type.parameterArray()) if (!isPersistent(p.getClassLoader())) return null;
+		return sequence.searchMode + " " + lookupClass.getName() + " " + sequence.lookup.lookupModes()
+				+ " " + loaders
+				+ " " + candidate.owner
+				+ " " + (candidate.name == null ? "-" : candidate.name)
+				+ " " + type.toMethodDescriptorString()
+				+ " " + (candidate.specialCaller == null ? "-" : candidate.specialCaller);
+	}
+
+	private static boolean isPersistent(ClassLoader loader) {
+		return loaderName(loader) != null;
+	}
+
+	/**
+	 * @return name of the class loader that is the same across runs, or {@code null} if it may differ
+	 */
+	private static String loaderName(ClassLoader loader) {
+		if (loader == null) return "bootstrap";
+		if (loader == system) return "system";
+		if (loader == system.getParent()) return "platform";
+		if (loader == library) return "library";
+		return null;
+	}
+
+	/**
+	 * Opens (or creates) the cache file with {@link #DEFAULT_CAPACITY} and starts using it instead of the current one
+	 * @param file cache file
+	 * @throws IOException if the file can not be opened
+	 */
+	public static void enable(Path file) throws IOException {
+		enable(file, DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Opens (or creates) the cache file and starts using it instead of the current one.
+	 * If the file can only be read, remembered winners are used but new ones are not written
+	 * @param file cache file
+	 * @param capacity maximum size of the file in bytes
+	 * @throws IOException if the file can not be opened
+	 * @throws IllegalArgumentException if the capacity is too small
+	 */
+	public static synchronized void enable(Path file, int capacity) throws IOException {
+		if (capacity < HEADER + 1024) throw new IllegalArgumentException("Illegal capacity: " + capacity);
+		Store opened = Store.open(file, capacity);
+		disable();
+		store = opened;
+	}
+
+	/**
+	 * Stops using the cache file. Remembered winners stay in the file
+	 */
+	public static synchronized void disable() {
+		Store s = store;
+		store = null;
+		if (s != null) s.close();
+	}
+
+	/**
+	 * Forgets all remembered winners, both in memory and in the cache file
+	 */
+	public static void clear() {
+		Store s = store;
+		if (s != null) s.clear();
+	}
+
+	/**
+	 * @return the cache file in use, or {@code null} if the cache is disabled
+	 */
+	public static Path getFile() {
+		Store s = store;
+		return s == null ? null : s.file;
+	}
+
+	/**
+	 * @return true if the cache file is used
+	 */
+	public static boolean isEnabled() {
+		return store != null;
+	}
+
+	/**
+	 * @return number of remembered sequences
+	 */
+	public static int size() {
+		Store s = store;
+		return s == null ? 0 : s.winners.size();
+	}
+
+	/**
+	 * @return fingerprint of the running runtime and class path the cache file is stamped with
+	 */
+	static long fingerprint() {
+		StringBuilder sb = new StringBuilder();
+		for (String property : new String[]{"java.version", "java.runtime.version", "java.vendor",
+				"java.vm.name", "java.vm.version", "java.home", "sun.boot.class.path", "jdk.module.path", "java.class.path"})
+			sb.append(property).append('=').append(System.getProperty(property)).append('\n');
+		for (String option : moduleOptions()) sb.append(option).append('\n');
+		long h = hash(FNV_OFFSET, sb);
+		String classPath = System.getProperty("java.class.path");
+		if (classPath != null) for (String entry : classPath.split(File.pathSeparator)) {
+			File f = new File(entry);
+			if (f.isDirectory()) h = hashDirectory(h, f.toPath());
+			else h = hash(h, entry + ' ' + f.length() + ' ' + f.lastModified() + '\n');
+		}
+		return h;
+	}
+
+	/**
+	 * @return JVM options of {@link #MODULE_OPTIONS} the JVM was started with (empty if they can not be read)
+	 */
+	static List<String> moduleOptions() {
+		List<String> result = new ArrayList<>();
+		List<String> arguments;
+		try {
+			arguments = ManagementFactory.getRuntimeMXBean().getInputArguments();
+		} catch (LinkageError | RuntimeException e) {
+			return result; // no java.management
+		}
+		for (int i = 0; i < arguments.size(); i++) {
+			String argument = arguments.get(i);
+			for (String option : MODULE_OPTIONS) {
+				if (!argument.startsWith(option)) continue;
+				result.add(argument);
+				// "--add-opens m/p=ALL-UNNAMED" (space separated value)
+				if (argument.equals(option) && i + 1 < arguments.size()) result.add(arguments.get(++i));
+				break;
+			}
+		}
+		return result;
+	}
+
+	private static long hash(long h, CharSequence s) {
+		for (int i = 0; i < s.length(); i++) {
+			h ^= s.charAt(i);
+			h *= FNV_PRIME;
+		}
+		return h;
+	}
+
+	/**
+	 * Hashes names, sizes and modification times of the files in the directory, so recompiling a class of a class path directory
+	 * changes the fingerprint (modification times of directories do not change when a file is rewritten).
+	 * Contents are not read, so the fingerprint costs one directory walk
+	 */
+	private static long hashDirectory(long h, Path directory) {
+		List<Path> files = new ArrayList<>();
+		try (Stream<Path> walk = Files.walk(directory)) {
+			walk.filter(Files::isRegularFile).sorted().forEach(files::add);
+		} catch (IOException | RuntimeException e) {
+			return hash(h, directory + " unreadable\n");
+		}
+		h = hash(h, directory + "\n");
+		for (Path file : files) {
+			File f = file.toFile();
+			h = hash(h, directory.relativize(file) + " " + f.length() + ' ' + f.lastModified() + '\n');
+		}
+		return h;
+	}
+
+	/**
+	 * Open cache file: header followed by records of (key length, UTF-8 key of the first candidate,
+	 * value length, UTF-8 index of the winner and hash of the candidates up to it).
+	 * The last record of a key wins
+	 */
+	private static final class Store {
+		final Path file;
+		final FileChannel channel;
+		final MappedByteBuffer buffer;
+		final boolean writable;
+		final long fingerprint = fingerprint();
+		final Map<String, String> winners = new ConcurrentHashMap<>();
+		/* end of the last record read from or written to the file */
+		int end = HEADER;
+		int generation;
+
+		private Store(Path file, FileChannel channel, MappedByteBuffer buffer, boolean writable) {
+			this.file = file;
+			this.channel = channel;
+			this.buffer = buffer;
+			this.writable = writable;
+		}
+
+		static Store open(Path file, int capacity) throws IOException {
+			FileChannel channel;
+			boolean writable = true;
+			try {
+				channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.CREATE);
+			} catch (IOException | UnsupportedOperationException e) {
+				channel = FileChannel.open(file, StandardOpenOption.READ);
+				writable = false;
+			}
+			try {
+				Store s;
+				if (writable) {
+					s = new Store(file, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity), true);
+				} else {
+					long size = Math.min(channel.size(), capacity);
+					if (size < HEADER) throw new IOException("Not a resolution cache file: " + file);
+					s = new Store(file, channel, channel.map(FileChannel.MapMode.READ_ONLY, 0, size), false);
+				}
+				synchronized (s) {
+					FileLock lock = s.lock();
+					try {
+						s.sync();
+					} finally {
+						if (lock != null) lock.release();
+					}
+				}
+				return s;
+			} catch (IOException | RuntimeException e) {
+				channel.close();
+				throw e;
+			}
+		}
+
+		private FileLock lock() throws IOException {
+			return writable ? channel.lock() : null;
+		}
+
+		/**
+		 * Reads records appended since the last sync (also by other processes),
+		 * or resets the file if it is stamped with another fingerprint. Must be called under the file lock
+		 */
+		private void sync() {
+			if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != FORMAT || buffer.getLong(8) != fingerprint) {
+				winners.clear();
+				end = HEADER;
+				if (writable) {
+					buffer.putInt(0, MAGIC);
+					buffer.putInt(4, FORMAT);
+					buffer.putLong(8, fingerprint);
+					buffer.putInt(USED, HEADER);
+					buffer.putInt(GENERATION, generation = 0);
+				}
+				return;
+			}
+			int used = buffer.getInt(USED);
+			if (buffer.getInt(GENERATION) != generation) {
+				// the file was cleared or compacted by another process
+				winners.clear();
+				end = HEADER;
+				generation = buffer.getInt(GENERATION);
+			}
+			if (used < HEADER || used > buffer.capacity()) return;
+			while (end + 4 <= used) {
+				int keyLength = buffer.getShort(end) & 0xFFFF;
+				if (end + 4 + keyLength > used) break;
+				int valueLength = buffer.getShort(end + 2 + keyLength) & 0xFFFF;
+				if (end + 4 + keyLength + valueLength > used) break;
+				winners.put(read(end + 2, keyLength), read(end + 4 + keyLength, valueLength));
+				end += 4 + keyLength + valueLength;
+			}
+		}
+
+		private String read(int offset, int length) {
+			byte[] bytes = new byte[length];
+			for (int i = 0; i < length; i++) bytes[i] = buffer.get(offset + i);
+			return new String(bytes, StandardCharsets.UTF_8);
+		}
+
+		synchronized void append(String key, String value) {
+			winners.put(key, value);
+			if (!writable) return;
+			try {
+				FileLock lock = lock();
+				try {
+					sync();
+					winners.put(key, value);
+					if (!write(key, value)) compact();
+				} finally {
+					lock.release();
+				}
+			} catch (IOException | RuntimeException ignored) {
+				// the winner is remembered in memory only
+			}
+		}
+
+		/**
+		 * @return false if the record does not fit
+		 */
+		private boolean write(String key, String value) {
+			byte[] k = key.getBytes(StandardCharsets.UTF_8);
+			byte[] v = value.getBytes(StandardCharsets.UTF_8);
+			if (k.length > 0xFFFF || end + 4 + k.length + v.length > buffer.capacity()) return false;
+			buffer.putShort(end, (short) k.length);
+			for (int i = 0; i < k.length; i++) buffer.put(end + 2 + i, k[i]);
+			buffer.putShort(end + 2 + k.length, (short) v.length);
+			for (int i = 0; i < v.length; i++) buffer.put(end + 4 + k.length + i, v[i]);
+			end += 4 + k.length + v.length;
+			buffer.putInt(USED, end);
+			return true;
+		}
+
+		/**
+		 * Rewrites the file with the last winner of every key, dropping keys that still do not fit
+		 */
+		private void compact() {
+			end = HEADER;
+			buffer.putInt(GENERATION, ++generation);
+			for (Map.Entry<String, String> e : winners.entrySet())
+				if (!write(e.getKey(), e.getValue())) winners.remove(e.getKey());
+		}
+
+		synchronized void clear() {
+			winners.clear();
+			if (!writable) return;
+			try {
+				FileLock lock = lock();
+				try {
+					end = HEADER;
+					buffer.putInt(USED, HEADER);
+					buffer.putInt(GENERATION, ++generation);
+				} finally {
+					lock.release();
+				}
+			} catch (IOException | RuntimeException ignored) {
+			}
+		}
+
+		synchronized void close() {
+			try {
+				if (writable) buffer.force();
+				channel.close();
+			} catch (IOException | RuntimeException ignored) {
+			}
+		}
+	}
+}
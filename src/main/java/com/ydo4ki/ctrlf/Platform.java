@@ -0,0 +1,60 @@
+package com.ydo4ki.ctrlf;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+
+/**
+ * Operations of probing that depend on the Java version.
+ * <p>
+ * This is the Java 8 implementation. The multi-release jar contains a Java 9 implementation
+ * ({@code src/main/java9}) with the same signatures that uses the module system.
+ *
+ * @author Sulphuris
+ * @since 17.10.2026 06:24
+ */
+final class Platform {
+	private Platform() {}
+
+	/**
+	 * Checks that the given owner class may be accessible from the given lookup at all, before its members are looked up.
+	 * On Java 8 every loaded class may be
+	 * @param lookup lookup of the sequence
+	 * @param refc owner class
+	 * @throws IllegalAccessException if the owner class is not accessible
+	 */
+	static void checkAccess(MethodHandles.Lookup lookup, Class<?> refc) throws IllegalAccessException {
+	}
+
+	/**
+	 * Finds field access of the given mode; on Java 8 through {@link LegacyFieldAccess}
+	 * @param lookup lookup of the sequence
+	 * @param refc owner class
+	 * @param name field name
+	 * @param type field type
+	 * @param isStatic whether the field is static
+	 * @param mode access mode
+	 * @return method handle of the access
+	 * @throws NoSuchFieldException if there is no such field
+	 * @throws IllegalAccessException if the field is not accessible, or the mode is not supported for the field
+	 */
+	static MethodHandle findVarHandle(MethodHandles.Lookup lookup, Class<?> refc, String name, Class<?> type,
+									  boolean isStatic, FieldAccessMode mode) throws NoSuchFieldException, IllegalAccessException {
+		return LegacyFieldAccess.find(lookup, refc, name, type, isStatic, mode);
+	}
+
+	/**
+	 * Stackless failure record for an owner class that is not accessible from the lookup of the sequence
+	 */
+	static final class Inaccessible extends IllegalAccessException {
+		private static final long serialVersionUID = 1L;
+
+		Inaccessible(String message) {
+			super(message);
+		}
+
+		@Override
+		public synchronized Throwable fillInStackTrace() {
+			return this;
+		}
+	}
+}
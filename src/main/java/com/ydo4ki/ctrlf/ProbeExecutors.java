@@ -0,0 +1,40 @@
+package com.ydo4ki.ctrlf;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Executors used to probe and resolve method sequences in background
+ *
+ * @author Sulphuris
+ * @since 16.10.2026 22:31
+ */
+final class ProbeExecutors {
+	private ProbeExecutors() {}
+
+	/**
+	 * @return executor that starts a virtual thread per task if the runtime supports them (Java 21+),
+	 *         or the common {@link ForkJoinPool} otherwise
+	 */
+	static Executor defaultExecutor() {
+		return Holder.DEFAULT;
+	}
+
+	private static final class Holder {
+		static final Executor DEFAULT = create();
+
+		private static Executor create() {
+			MethodHandle virtualThreads = MethodSequence.of(MethodType.methodType(ExecutorService.class), SearchMode.findStatic)
+					.find("java.util.concurrent.Executors", "newVirtualThreadPerTaskExecutor")
+					.getFound().orElse(null);
+			if (virtualThreads != null) try {
+				return (ExecutorService) virtualThreads.invokeExact();
+			} catch (Throwable ignored) {
+			}
+			return ForkJoinPool.commonPool();
+		}
+	}
+}
@@ -0,0 +1,33 @@
+package com.ydo4ki.ctrlf;
+
+import java.lang.invoke.MethodHandle;
+
+/**
+ * Result of probing a single {@link Candidate}: either the found method handle with its owner class,
+ * or the exception that occurred while looking it up
+ *
+ * @author Sulphuris
+ * @since 16.10.2026 19:05
+ */
+final class Resolution {
+	final Class<?> owner;
+	final MethodHandle handle;
+	final Throwable failure;
+
+	static Resolution found(Class<?> owner, MethodHandle handle) {
+		return new Resolution(owner, handle, null);
+	}
+	static Resolution notfound(Throwable failure) {
+		return new Resolution(null, null, failure);
+	}
+
+	private Resolution(Class<?> owner, MethodHandle handle, Throwable failure) {
+		this.owner = owner;
+		this.handle = handle;
+		this.failure = failure;
+	}
+
+	boolean isFound() {
+		return handle != null;
+	}
+}
@@ -0,0 +1,360 @@
+package com.ydo4ki.ctrlf;
+
+import java.lang.invoke.MethodType;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Process-wide cache of probe results used by {@link MethodFinder}.
+ * <p>
+ * Every probe (lookup class, owner, name, method type, search mode and whether the owner class is initialized) is resolved at most once:
+ * both found methods and failures are remembered, so the same failing candidate
+ * declared in many sequences is looked up only once per process.
+ * The cache is bounded; when it is full, arbitrary entries are evicted.
+ * <p>
+ * Probes are cached per class loader the owner class is loaded with, and the cache never keeps
+ * a class loader from being collected: probes that refer to classes of a class loader (such as a found method of a plugin,
+ * or a lookup class of a plugin) are kept in a {@link ClassValue} of such a class, others in a map weakly keyed by the class loader.
+ * So probes of a redeployed plugin are dropped together with its class loader.
+ * Probes that refer to classes of unrelated class loaders (neither is a parent of the other) are not cached.
+ * <p>
+ * Threads that probe the same candidate at the same time share one probe: one thread probes,
+ * the others wait for its result (see {@link InFlight} for when they probe by themselves to avoid deadlocks).
+ * <p>
+ * {@link SearchMode#bind} probes are never cached because they depend on the receiver instance.
+ *
+ * @author Sulphuris
+ * @since 16.10.2026 19:10
+ */
+public final class ResolutionCache {
+	/**
+	 * Default maximum number of cached probes
+	 */
+	public static final int DEFAULT_MAXIMUM_SIZE = 4096;
+
+	/* probes that refer only to classes of parents of the class loader they are probed in: class loader -> probes */
+	private static final Map<ClassLoader, Entries> shared = Collections.synchronizedMap(new WeakHashMap<>());
+	/* probes that refer to classes of the class loader of the class */
+	private static final ClassValue<Entries> local = new ClassValue<Entries>() {
+		@Override
+		protected Entries computeValue(Class<?> type) {
+			return register(new Entries(true));
+		}
+	};
+	/* all probes, to count, evict and invalidate them */
+	private static final Set<Entries> all = Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
+	private static final InFlight<Candidate, Resolution> inFlight = new InFlight<>(false);
+	private static final LongAdder hits = new LongAdder();
+	private static final LongAdder misses = new LongAdder();
+
+	private static volatile int maximumSize = DEFAULT_MAXIMUM_SIZE;
+	private static volatile boolean enabled = true;
+
+	private ResolutionCache() {}
+
+	/**
+	 * Probes the given candidate, or returns the remembered result of the previous probe
+	 * @param candidate candidate to probe
+	 * @return found or not found resolution
+	 */
+	static Resolution resolve(Candidate candidate) {
+		if (!enabled) return candidate.resolve();
+		Resolution cached = cached(candidate);
+		if (cached != null) {
+			hits.increment();
+			return cached;
+		}
+		// not computeIfAbsent: probing may initialize classes that resolve their own sequences
+		return inFlight.resolve(candidate, ResolutionCache::probeAndCache);
+	}
+
+	private static Resolution cached(Candidate candidate) {
+		Entries entries = entries(candidate);
+		return entries == null ? null : entries.get(entries.key(candidate));
+	}
+
+	private static Resolution probeAndCache(Candidate candidate) {
+		// the probe may have completed between the cache lookup and the start of this one
+		Entries entries = entries(candidate);
+		Key key = entries == null ? null : entries.key(candidate);
+		Resolution cached = key == null ? null : entries.get(key);
+		if (cached != null) return cached;
+		misses.increment();
+		Resolution resolution = candidate.resolve();
+		if (key == null || maximumSize == 0) return resolution;
+		if (size() >= maximumSize) evict();
+		if (!entries.local) {
+			Class<?> keeper = referencedClassOf(resolution, candidate.loader);
+			if (keeper != null) {
+				// the resolution refers to the class loader the entries are weakly keyed by,
+				// so the entries only refer to it weakly, and a class of the class loader keeps it
+				local.get(keeper).put(new Key(candidate, candidate.loader), resolution);
+				return entries.putWeak(key, resolution);
+			}
+		}
+		return entries.put(key, resolution);
+	}
+
+	/**
+	 * @return entries the probe of the given candidate is cached in,
+	 *         or {@code null} if it refers to classes of unrelated class loaders and is not cached
+	 */
+	private static Entries entries(Candidate candidate) {
+		ClassLoader loader = candidate.loader;
+		// the class of the deepest class loader the candidate refers to, unless it is a parent of the probed class loader
+		Class<?> anchor = null;
+		for (Class<?> type : referencedClasses(candidate)) {
+			if (type.isPrimitive()) continue;
+			ClassLoader l = type.getClassLoader();
+			if (l != loader && isAncestor(l, loader)) continue;
+			if (anchor == null || isAncestor(anchor.getClassLoader(), l)) anchor = type;
+			else if (!isAncestor(l, anchor.getClassLoader())) return null;
+		}
+		if (anchor != null) return isAncestor(loader, anchor.getClassLoader()) ? local.get(anchor) : null;
+		synchronized (shared) {
+			return shared.computeIfAbsent(loader, l -> register(new Entries(false)));
+		}
+	}
+
+	private static List<Class<?>> referencedClasses(Candidate candidate) {
+		MethodType type = candidate.sequence.methodType;
+		List<Class<?>> classes = new ArrayList<>(type.parameterCount() + 2);
+		classes.add(candidate.sequence.lookup.lookupClass());
+		classes.add(type.returnType());
+		classes.addAll(type.parameterList());
+		return classes;
+	}
+
+	/**
+	 * @return a class of the given class loader the given resolution refers to, or {@code null} if there is none
+	 */
+	private static Class<?> referencedClassOf(Resolution resolution, ClassLoader loader) {
+		if (!resolution.isFound()) return null;
+		if (resolution.owner.getClassLoader() == loader) return resolution.owner;
+		MethodType type = resolution.handle.type();
+		if (!type.returnType().isPrimitive() && type.returnType().getClassLoader() == loader) return type.returnType();
+		for (Class<?> p : type.parameterArray()) if (!p.isPrimitive() && p.getClassLoader() == loader) return p;
+		return null;
+	}
+
+	/**
+	 * @return true if the first class loader is the second one or one of its parents
+	 */
+	private static boolean isAncestor(ClassLoader ancestor, ClassLoader loader) {
+		if (ancestor == null) return true;
+		for (ClassLoader l = loader; l != null; l = l.getParent()) if (l == ancestor) return true;
+		return false;
+	}
+
+	private static Entries register(Entries entries) {
+		all.add(entries);
+		return entries;
+	}
+
+	private static List<Entries> allEntries() {
+		synchronized (all) {
+			return new ArrayList<>(all);
+		}
+	}
+
+	private static void evict() {
+		int size = size();
+		for (Entries entries : allEntries()) {
+			Iterator<Object> it = entries.map.values().iterator();
+			while (size >= maximumSize && it.hasNext()) {
+				if (it.next() instanceof Resolution) size--;
+				it.remove();
+			}
+		}
+	}
+
+	/**
+	 * @return number of probes answered from the cache
+	 */
+	public static long hitCount() {
+		return hits.sum();
+	}
+
+	/**
+	 * @return number of probes that were not cached and had to be resolved
+	 *         (concurrent identical probes that shared one probe are counted once)
+	 */
+	public static long missCount() {
+		return misses.sum();
+	}
+
+	/**
+	 * @return number of currently cached probes (both found and not found)
+	 */
+	public static int size() {
+		int size = 0;
+		for (Entries entries : allEntries()) size += entries.size();
+		return size;
+	}
+
+	/**
+	 * Forgets all cached probes and absent classes and resets hit/miss counters
+	 */
+	public static void invalidateAll() {
+		for (Entries entries : allEntries()) entries.map.clear();
+		ClassProbe.forgetAll();
+		hits.reset();
+		misses.reset();
+	}
+
+	/**
+	 * Forgets all cached probes of members of the given class, and that the class is absent
+	 * (for example, after the class became available in a new class loader)
+	 * @param owner owner class name
+	 */
+	public static void invalidate(String owner) {
+		for (Entries entries : allEntries()) entries.map.keySet().removeIf(key -> key.owner.equals(owner));
+		ClassProbe.forget(owner);
+	}
+
+	/**
+	 * @return maximum number of cached probes
+	 */
+	public static int getMaximumSize() {
+		return maximumSize;
+	}
+
+	/**
+	 * Sets maximum number of cached probes. Excessive entries are evicted on the next probe
+	 * @param maximumSize new maximum size
+	 * @throws IllegalArgumentException if maximumSize is negative
+	 */
+	public static void setMaximumSize(int maximumSize) {
+		if (maximumSize < 0) throw new IllegalArgumentException("Illegal maximum size: " + maximumSize);
+		ResolutionCache.maximumSize = maximumSize;
+	}
+
+	/**
+	 * @return true if probes are cached (default), false otherwise
+	 */
+	public static boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Enables or disables caching. Disabling does not clear already cached probes
+	 * @param enabled true to cache probes, false to probe every time
+	 */
+	public static void setEnabled(boolean enabled) {
+		ResolutionCache.enabled = enabled;
+	}
+
+	/**
+	 * Cached probes of one class loader ({@link #shared}) or one class ({@link #local}).
+	 * Values are resolutions, or weak references to resolutions kept by {@link #local} entries
+	 */
+	private static final class Entries {
+		/* whether keys contain the class loader (local entries may hold probes of several class loaders) */
+		final boolean local;
+		final ConcurrentHashMap<Key, Object> map = new ConcurrentHashMap<>();
+
+		Entries(boolean local) {
+			this.local = local;
+		}
+
+		Key key(Candidate candidate) {
+			return new Key(candidate, local ? candidate.loader : null);
+		}
+
+		Resolution get(Key key) {
+			return unwrap(map.get(key));
+		}
+
+		Resolution put(Key key, Resolution resolution) {
+			return put(key, resolution, resolution);
+		}
+
+		Resolution putWeak(Key key, Resolution resolution) {
+			return put(key, new WeakReference<>(resolution), resolution);
+		}
+
+		private Resolution put(Key key, Object value, Resolution resolution) {
+			for (;;) {
+				Object raced = map.putIfAbsent(key, value);
+				if (raced == null) return resolution;
+				Resolution cached = unwrap(raced);
+				if (cached != null) return cached;
+				// the raced resolution was collected
+				if (map.replace(key, raced, value)) return resolution;
+			}
+		}
+
+		int size() {
+			int size = 0;
+			for (Object value : map.values()) if (value instanceof Resolution) size++;
+			return size;
+		}
+
+		private static Resolution unwrap(Object value) {
+			if (value instanceof WeakReference) return (Resolution) ((WeakReference<?>) value).get();
+			return (Resolution) value;
+		}
+	}
+
+	/**
+	 * {@link Candidate} without the sequence (which may refer to other class loaders),
+	 * and without the class loader in {@link #shared} entries
+	 */
+	private static final class Key {
+		final SearchMode searchMode;
+		final Class<?> lookupClass;
+		final int lookupModes;
+		final MethodType methodType;
+		final String owner;
+		final String name;
+		final String specialCaller;
+		final ClassLoader loader;
+		final boolean initialize;
+		private final int hash;
+
+		Key(Candidate candidate, ClassLoader loader) {
+			MethodSequence<?> sequence = candidate.sequence;
+			this.searchMode = sequence.searchMode;
+			this.lookupClass = sequence.lookup.lookupClass();
+			this.lookupModes = sequence.lookup.lookupModes();
+			this.methodType = sequence.methodType;
+			this.owner = candidate.owner;
+			this.name = candidate.name;
+			this.specialCaller = candidate.specialCaller;
+			this.loader = loader;
+			this.initialize = sequence.initialize;
+			this.hash = candidate.hashCode();
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) return true;
+			if (!(o instanceof Key)) return false;
+			Key that = (Key) o;
+			return hash == that.hash
+					&& searchMode == that.searchMode
+					&& lookupClass == that.lookupClass
+					&& lookupModes == that.lookupModes
+					&& loader == that.loader
+					&& methodType.equals(that.methodType)
+					&& owner.equals(that.owner)
+					&& Objects.equals(name, that.name)
+					&& Objects.equals(specialCaller, that.specialCaller)
+					&& initialize == that.initialize;
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+	}
+}
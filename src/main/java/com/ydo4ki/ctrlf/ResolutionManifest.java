@@ -0,0 +1,143 @@
+package com.ydo4ki.ctrlf;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Build-time predictions of candidates that cannot be found on the running JDK.
+ * <p>
+ * Manifests are generated by the {@code Ctrl-Fallback-processor} annotation processor
+ * into {@value #RESOURCE} resources. Every line of a manifest is
+ * <pre>
+ * &lt;feature&gt; &lt;owner&gt;           (class is absent on JDK &lt;feature&gt;)
+ * &lt;feature&gt; &lt;owner&gt;#&lt;name&gt;    (class has no method or field with this name on JDK &lt;feature&gt;)
+ * &lt;feature&gt; &lt;owner&gt;#&lt;name&gt;&lt;descriptor&gt;    (class has no method with this name and method descriptor)
+ * </pre>
+ * Finders skip candidates predicted absent for the running JDK feature level, so the predicted winner is the first
+ * (and usually the only) candidate probed. Skipped candidates are only probed if a candidate that is not skipped is not found,
+ * that is, if the manifest is stale (see {@link MethodFinder}).
+ * <p>
+ * Manifests can be disabled with {@code -Dcom.ydo4ki.ctrlf.manifest=false} or {@link #setEnabled(boolean)}.
+ *
+ * @author Sulphuris
+ * @since 17.10.2026 00:21
+ */
+public final class ResolutionManifest {
+	/**
+	 * Name of manifest resources
+	 */
+	public static final String RESOURCE = "META-INF/ctrl-fallback/resolution.manifest";
+
+	private static final int feature = featureLevel(System.getProperty("java.specification.version"));
+
+	private static volatile boolean enabled = !"false".equals(System.getProperty("com.ydo4ki.ctrlf.manifest"));
+	private static volatile Set<String> absent;
+
+	private ResolutionManifest() {}
+
+	/**
+	 * @param candidate candidate to check
+	 * @return true if the candidate is predicted to be absent on the running JDK
+	 */
+	static boolean predictsAbsent(Candidate candidate) {
+		if (!enabled) return false;
+		Set<String> absent = absent();
+		if (absent.isEmpty()) return false;
+		return absent.contains(candidate.owner)
+				|| candidate.name != null && (absent.contains(candidate.owner + '#' + candidate.name)
+						|| absent.contains(candidate.owner + '#' + candidate.name + candidate.sequence.methodType.toMethodDescriptorString()))
+				|| candidate.specialCaller != null && absent.contains(candidate.specialCaller);
+	}
+
+	private static Set<String> absent() {
+		Set<String> a = absent;
+		if (a == null) absent = a = load();
+		return a;
+	}
+
+	private static Set<String> load() {
+		Set<String> result = new HashSet<>();
+		Set<URL> urls = new LinkedHashSet<>();
+		try {
+			collect(urls, ResolutionManifest.class.getClassLoader());
+			collect(urls, ClassLoader.getSystemClassLoader());
+			collect(urls, Thread.currentThread().getContextClassLoader());
+		} catch (IOException ignored) {
+		}
+		for (URL url : urls) {
+			try (BufferedReader in = new BufferedReader(new InputStreamReader(url.openStream(), StandardCharsets.UTF_8))) {
+				String line;
+				while ((line = in.readLine()) != null) {
+					line = line.trim();
+					if (line.isEmpty() || line.startsWith("#")) continue;
+					int space = line.indexOf(' ');
+					if (space < 0) continue;
+					if (featureLevel(line.substring(0, space)) == feature) result.add(line.substring(space + 1).trim());
+				}
+			} catch (IOException ignored) {
+				// a broken manifest only means no predictions
+			}
+		}
+		return result.isEmpty() ? Collections.emptySet() : result;
+	}
+
+	private static void collect(Set<URL> urls, ClassLoader loader) throws IOException {
+		if (loader == null) return;
+		Enumeration<URL> e = loader.getResources(RESOURCE);
+		while (e.hasMoreElements()) urls.add(e.nextElement());
+	}
+
+	/**
+	 * @param version {@code java.specification.version} ("1.8", "11", "17", ...)
+	 * @return feature level (8, 11, 17, ...) or -1 if the version is malformed
+	 */
+	static int featureLevel(String version) {
+		if (version == null) return -1;
+		if (version.startsWith("1.")) version = version.substring(2);
+		int dot = version.indexOf('.');
+		if (dot >= 0) version = version.substring(0, dot);
+		try {
+			return Integer.parseInt(version);
+		} catch (NumberFormatException e) {
+			return -1;
+		}
+	}
+
+	/**
+	 * @return feature level of the running JDK (8, 11, 17, ...)
+	 */
+	public static int getFeatureLevel() {
+		return feature;
+	}
+
+	/**
+	 * @return true if manifest predictions are used (default), false otherwise
+	 */
+	public static boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Enables or disables manifest predictions
+	 * @param enabled true to skip candidates predicted absent, false to probe every candidate
+	 */
+	public static void setEnabled(boolean enabled) {
+		ResolutionManifest.enabled = enabled;
+	}
+
+	/**
+	 * Forgets loaded manifests, so they will be loaded again on the next probe
+	 * (for example, after a new class loader with manifests became the context class loader)
+	 */
+	public static void reload() {
+		absent = null;
+	}
+}
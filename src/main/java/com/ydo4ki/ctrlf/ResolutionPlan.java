@@ -0,0 +1,245 @@
+package com.ydo4ki.ctrlf;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Compiled method sequence: the method type, search mode and candidates of a sequence, validated once
+ * and resolved any number of times against different lookups and class loaders.
+ * <p>
+ * A {@link MethodFinder} is consumed by resolving it once; a plan is immutable and may be shared between threads.
+ * Every {@link #resolve(MethodHandles.Lookup, ClassLoader...)} call probes the candidates in order just like
+ * {@code find(...).orElse(...).fallback(...)} would (through {@link ResolutionCache}, so probes resolved before are not repeated).
+ * <p>
+ * Example:
+ * <pre>{@code
+ * static final ResolutionPlan CALLER = ResolutionPlan.builder(MethodType.methodType(Class.class, int.class), SearchMode.findStatic)
+ *         .candidate("sun.reflect.Reflection", "getCallerClass")
+ *         .candidate("me.random.CallersSlow", "getCallerClass")
+ *         .build();
+ * // for every tenant
+ * MethodHandle caller = CALLER.resolve(tenantLookup, tenantLoader).methodHandle();
+ * }</pre>
+ * {@link SearchMode#bind} and {@link SearchMode#duck} depend on receivers and can not be compiled into plans.
+ *
+ * @author Sulphuris
+ * @since 17.10.2026 08:04
+ */
+public final class ResolutionPlan {
+	private final MethodType methodType;
+	private final SearchMode searchMode;
+	private final boolean initialize;
+	private final String[] owners;
+	private final String[] names;
+	private final String[] specialCallers;
+
+	private ResolutionPlan(Builder builder) {
+		this.methodType = builder.methodType;
+		this.searchMode = builder.searchMode;
+		this.initialize = builder.initialize;
+		int n = builder.owners.size();
+		this.owners = builder.owners.toArray(new String[n]);
+		this.names = builder.names.toArray(new String[n]);
+		this.specialCallers = builder.specialCallers.toArray(new String[n]);
+	}
+
+	/**
+	 * @param methodType method type
+	 * @param searchMode search mode ({@link SearchMode#findStatic} or {@link SearchMode#findVirtual})
+	 * @return builder of a plan whose candidates are given by owner and name
+	 */
+	public static Builder builder(MethodType methodType, SearchMode.GenericSearch searchMode) {
+		return new Builder(methodType, searchMode);
+	}
+
+	/**
+	 * @param methodType method type
+	 * @param searchMode {@link SearchMode#findSpecial}
+	 * @return builder of a plan whose candidates are given by owner, name and special caller
+	 */
+	public static Builder builder(MethodType methodType, SearchMode.FindSpecial searchMode) {
+		return new Builder(methodType, searchMode);
+	}
+
+	/**
+	 * @param fieldType field type
+	 * @param searchMode field accessor search mode
+	 * @return builder of a plan whose candidates are given by owner and field name
+	 */
+	public static Builder builder(Class<?> fieldType, SearchMode.FieldAccessor searchMode) {
+		return new Builder(searchMode.methodType(fieldType), searchMode);
+	}
+
+	/**
+	 * @param methodType constructor type (with {@code void} return type)
+	 * @param searchMode {@link SearchMode#findConstructor}
+	 * @return builder of a plan whose candidates are given by owner
+	 */
+	public static Builder builder(MethodType methodType, SearchMode.FindConstructor searchMode) {
+		return new Builder(methodType, searchMode);
+	}
+
+	/**
+	 * Shortcut for {@link #resolve(MethodHandles.Lookup, ClassLoader...)}
+	 * with {@link MethodHandles#publicLookup()} as the lookup and its default class loader
+	 * @return the first found candidate, or a not found result with the last throwable
+	 */
+	public FoundMethod.Named resolve() {
+		return resolve(MethodHandles.publicLookup());
+	}
+
+	/**
+	 * Resolves this plan with the given lookup, loading owner classes with the class loader of the lookup class
+	 * (or the class loader of this library if the lookup class is loaded by the bootstrap class loader)
+	 * @param lookup lookup
+	 * @return the first found candidate, or a not found result with the last throwable
+	 */
+	public FoundMethod.Named resolve(MethodHandles.Lookup lookup) {
+		return run(new MethodSequence<>(lookup, methodType, searchMode));
+	}
+
+	/**
+	 * Resolves this plan with the given lookup, probing every candidate in the given class loaders in order
+	 * (see {@link MethodSequence.Options#withClassLoaders(ClassLoader...)})
+	 * @param lookup lookup
+	 * @param classLoaders class loaders, {@code null} elements stand for the bootstrap class loader
+	 * @return the first found candidate, or a not found result with the last throwable
+	 * @throws IllegalArgumentException if no class loaders are given
+	 */
+	public FoundMethod.Named resolve(MethodHandles.Lookup lookup, ClassLoader... classLoaders) {
+		MethodSequence<SearchMode> sequence = new MethodSequence<>(lookup, methodType, searchMode);
+		sequence.setClassLoaders(classLoaders);
+		return run(sequence);
+	}
+
+	private FoundMethod.Named run(MethodSequence<SearchMode> sequence) {
+		if (!initialize) sequence = sequence.withoutInitialization();
+		MethodFinder<MethodSequence<SearchMode>> finder = new MethodFinder<>(sequence);
+		for (int i = 0; i < owners.length && finder.wants(); i++)
+			finder.probe(new Candidate(sequence, owners[i], names[i], specialCallers[i]));
+		return finder.result();
+	}
+
+	/**
+	 * @return method type of the found method
+	 */
+	public MethodType getMethodType() {
+		return methodType;
+	}
+
+	/**
+	 * @return search mode
+	 */
+	public SearchMode getSearchMode() {
+		return searchMode;
+	}
+
+	/**
+	 * @return number of candidates
+	 */
+	public int size() {
+		return owners.length;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder("plan ").append(searchMode).append(' ').append(methodType).append(':');
+		for (int i = 0; i < owners.length; i++) {
+			sb.append("\n  #").append(i).append(' ').append(owners[i]);
+			if (names[i] != null) sb.append('.').append(names[i]);
+			if (specialCallers[i] != null) sb.append(" (special caller: ").append(specialCallers[i]).append(')');
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Builder of a {@link ResolutionPlan}. Candidates are validated as they are added
+	 */
+	public static final class Builder {
+		private final MethodType methodType;
+		private final SearchMode searchMode;
+		private boolean initialize = true;
+		private final List<String> owners = new ArrayList<>();
+		private final List<String> names = new ArrayList<>();
+		private final List<String> specialCallers = new ArrayList<>();
+
+		Builder(MethodType methodType, SearchMode searchMode) {
+			this.methodType = Objects.requireNonNull(methodType, "methodType");
+			this.searchMode = Objects.requireNonNull(searchMode, "searchMode");
+		}
+
+		/**
+		 * Adds a constructor candidate ({@link SearchMode#findConstructor} only)
+		 * @param owner class name
+		 * @return this
+		 * @throws IllegalArgumentException if the search mode needs a name
+		 */
+		public Builder candidate(String owner) {
+			if (!(searchMode instanceof SearchMode.FindConstructor))
+				throw new IllegalArgumentException(searchMode + " needs a member name");
+			return add(owner, null, null);
+		}
+
+		/**
+		 * Adds a method or field candidate
+		 * @param owner owner class name
+		 * @param name method or field name
+		 * @return this
+		 * @throws IllegalArgumentException if the name is illegal, or the search mode needs a special caller or no name
+		 */
+		public Builder candidate(String owner, String name) {
+			if (searchMode instanceof SearchMode.FindSpecial)
+				throw new IllegalArgumentException(searchMode + " needs a special caller");
+			if (searchMode instanceof SearchMode.FindConstructor)
+				throw new IllegalArgumentException(searchMode + " does not take a member name");
+			return add(owner, checkName(name), null);
+		}
+
+		/**
+		 * Adds a candidate of {@link SearchMode#findSpecial}
+		 * @param owner owner class name
+		 * @param name method name
+		 * @param specialCaller special caller class name
+		 * @return this
+		 * @throws IllegalArgumentException if the name is illegal, or the search mode is not {@link SearchMode#findSpecial}
+		 */
+		public Builder candidate(String owner, String name, String specialCaller) {
+			if (!(searchMode instanceof SearchMode.FindSpecial))
+				throw new IllegalArgumentException(searchMode + " does not take a special caller");
+			return add(owner, checkName(name), Objects.requireNonNull(specialCaller, "specialCaller"));
+		}
+
+		/**
+		 * Sets whether owner classes are initialized when they are loaded (by default they are)
+		 * @param initialize whether to initialize owner classes
+		 * @return this
+		 * @see MethodSequence.Options#withInitialization(boolean)
+		 */
+		public Builder withInitialization(boolean initialize) {
+			this.initialize = initialize;
+			return this;
+		}
+
+		/**
+		 * @return a new plan with the candidates added so far
+		 */
+		public ResolutionPlan build() {
+			return new ResolutionPlan(this);
+		}
+
+		private Builder add(String owner, String name, String specialCaller) {
+			owners.add(Objects.requireNonNull(owner, "owner"));
+			names.add(name);
+			specialCallers.add(specialCaller);
+			return this;
+		}
+
+		private static String checkName(String name) {
+			if (name.isEmpty() || name.contains(".")) throw new IllegalArgumentException("Illegal method name: " + name);
+			return name;
+		}
+	}
+}
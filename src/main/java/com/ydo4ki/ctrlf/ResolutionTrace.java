@@ -0,0 +1,243 @@
+package com.ydo4ki.ctrlf;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Record of how a method sequence was resolved: every candidate that was probed (or skipped),
+ * whether it was found, why it was not found, and how long the probe took.
+ * <p>
+ * Candidates are listed in the order they were probed, which is the declaration order unless candidates were
+ * skipped because of {@link ResolutionManifest} or {@link PersistentResolutionCache} predictions
+ * (then a skipped candidate appears twice if it was probed later) or probed in parallel.
+ * <p>
+ * Tracing is disabled by default, so resolving does not allocate a trace or time probes; traces are empty then.
+ * It is enabled with {@code -Dcom.ydo4ki.ctrlf.trace=true} or {@link #setEnabled(boolean)},
+ * and applies to method sequences resolved after that.
+ *
+ * @author Sulphuris
+ * @since 17.10.2026 02:41
+ */
+public final class ResolutionTrace {
+	private static final ResolutionTrace EMPTY = new ResolutionTrace(Collections.emptyList());
+
+	private static volatile boolean enabled = "true".equals(System.getProperty("com.ydo4ki.ctrlf.trace"));
+
+	private final List<Step> steps;
+
+	ResolutionTrace(List<Step> steps) {
+		this.steps = steps;
+	}
+
+	/**
+	 * @return true if resolutions are traced, false otherwise (default)
+	 */
+	public static boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Enables or disables tracing of resolutions started after this call
+	 * @param enabled true to record probes of every resolution, false to leave traces empty
+	 */
+	public static void setEnabled(boolean enabled) {
+		ResolutionTrace.enabled = enabled;
+	}
+
+	/**
+	 * @return probes in the order they were made (empty if tracing was disabled)
+	 */
+	public List<Step> getSteps() {
+		return Collections.unmodifiableList(steps);
+	}
+
+	/**
+	 * @return time spent on all probes in nanoseconds
+	 *         (in parallel mode, probes overlap, so this is more than the time the resolution took)
+	 */
+	public long getTotalNanos() {
+		long total = 0;
+		for (Step step : steps) total += step.nanos;
+		return total;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		for (Step step : steps) {
+			if (sb.length() != 0) sb.append('\n');
+			sb.append(step);
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Outcome of a single probe
+	 */
+	public enum Outcome {
+		/**
+		 * The candidate was found
+		 */
+		FOUND,
+		/**
+		 * The candidate was not found
+		 */
+		NOT_FOUND,
+		/**
+		 * The candidate was not probed because it was predicted to be absent
+		 */
+		SKIPPED
+	}
+
+	/**
+	 * Single probe of a candidate
+	 */
+	public static final class Step {
+		private final int index;
+		private final String owner;
+		private final String name;
+		private final String specialCaller;
+		private final Outcome outcome;
+		private final Throwable failure;
+		private final long nanos;
+
+		Step(int index, String owner, String name, String specialCaller, Outcome outcome, Throwable failure, long nanos) {
+			this.index = index;
+			this.owner = owner;
+			this.name = name;
+			this.specialCaller = specialCaller;
+			this.outcome = outcome;
+			this.failure = failure;
+			this.nanos = nanos;
+		}
+
+		/**
+		 * @return index of the candidate in its sequence
+		 */
+		public int getIndex() {
+			return index;
+		}
+
+		/**
+		 * @return owner class name of the candidate (or class name of the receiver for {@link SearchMode#bind})
+		 */
+		public String getOwner() {
+			return owner;
+		}
+
+		/**
+		 * @return member name of the candidate, or empty for constructors
+		 */
+		public Optional<String> getName() {
+			return Optional.ofNullable(name);
+		}
+
+		/**
+		 * @return special caller class name, or empty unless the search mode is {@link SearchMode#findSpecial}
+		 */
+		public Optional<String> getSpecialCaller() {
+			return Optional.ofNullable(specialCaller);
+		}
+
+		/**
+		 * @return outcome of the probe
+		 */
+		public Outcome getOutcome() {
+			return outcome;
+		}
+
+		/**
+		 * @return the exception the candidate was not found with, or empty if it was found or skipped
+		 */
+		public Optional<Throwable> getFailure() {
+			return Optional.ofNullable(failure);
+		}
+
+		/**
+		 * @return time the probe took in nanoseconds (0 for skipped candidates)
+		 */
+		public long getNanos() {
+			return nanos;
+		}
+
+		@Override
+		public String toString() {
+			StringBuilder sb = new StringBuilder().append('#').append(index).append(' ').append(owner);
+			if (name != null) sb.append('.').append(name);
+			if (specialCaller != null) sb.append(" (special caller: ").append(specialCaller).append(')');
+			sb.append(": ").append(outcome.name().toLowerCase().replace('_', ' '));
+			if (failure != null) {
+				// stackless failure records are ClassNotFoundExceptions, IllegalAccessExceptions
+				// and NoSuchMethodExceptions/NoSuchFieldExceptions for the reader
+				Class<?> failureClass = failure instanceof ClassProbe.Absent ? ClassNotFoundException.class
+						: failure instanceof Platform.Inaccessible ? IllegalAccessException.class
+						: failure instanceof MemberIndex.AbsentMethod ? NoSuchMethodException.class
+						: failure instanceof MemberIndex.AbsentField ? NoSuchFieldException.class : failure.getClass();
+				sb.append(" (").append(failureClass.getName()).append(')');
+			}
+			if (outcome != Outcome.SKIPPED) sb.append(", ").append(nanos).append(" ns");
+			return sb.toString();
+		}
+	}
+
+	/**
+	 * Collects steps of one resolution; steps may be added concurrently by parallel probes.
+	 * Callers check {@link #isEnabled()} before they time a probe or create its step
+	 */
+	static class Recorder {
+		/* shared by untraced resolutions, records nothing */
+		private static final Recorder DISABLED = new Recorder() {
+			@Override
+			boolean isEnabled() {
+				return false;
+			}
+
+			@Override
+			void add(Step step) {
+			}
+
+			@Override
+			void parallel() {
+			}
+
+			@Override
+			ResolutionTrace build() {
+				return EMPTY;
+			}
+		};
+
+		private final List<Step> steps = new ArrayList<>();
+		private boolean parallel;
+
+		private Recorder() {}
+
+		/**
+		 * @return a new recorder if tracing is enabled, otherwise a shared recorder that records nothing
+		 */
+		static Recorder start() {
+			return enabled ? new Recorder() : DISABLED;
+		}
+
+		boolean isEnabled() {
+			return true;
+		}
+
+		synchronized void add(Step step) {
+			steps.add(step);
+		}
+
+		synchronized void parallel() {
+			parallel = true;
+		}
+
+		synchronized ResolutionTrace build() {
+			List<Step> result = new ArrayList<>(steps);
+			// parallel probes complete in any order
+			if (parallel) result.sort(Comparator.comparingInt(Step::getIndex));
+			return new ResolutionTrace(result);
+		}
+	}
+}
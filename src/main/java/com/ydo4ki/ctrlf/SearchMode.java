@@ -1,6 +1,9 @@
 package com.ydo4ki.ctrlf;
 
 import java.lang.invoke.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * Used to specify method of {@code MethodHandles.Lookup} used to find methods
@@ -46,11 +49,80 @@ public abstract class SearchMode {
 	 * Search mode that searches for special call of virtual methods (linked to {@link MethodHandles.Lookup#findSpecial(Class, String, MethodType, Class)})
 	 */
 	public static final FindSpecial findSpecial = new FindSpecial();
+	/**
+	 * Search mode that searches for instance methods in the class of every receiver it is invoked with
+	 * (linked to {@link MethodHandles.Lookup#findVirtual(Class, String, MethodType)} per receiver class)
+	 */
+	public static final Duck duck = new Duck();
+	
+	private static final FieldAccessor[] varHandles = new FieldAccessor[FieldAccessMode.values().length];
+	private static final FieldAccessor[] staticVarHandles = new FieldAccessor[FieldAccessMode.values().length];
+	
+	static {
+		for (FieldAccessMode mode : FieldAccessMode.values()) {
+			varHandles[mode.ordinal()] = new FindVarHandle(mode, false);
+			staticVarHandles[mode.ordinal()] = new FindVarHandle(mode, true);
+		}
+	}
 	
 	SearchMode() {
 	
 	}
 	
+	/**
+	 * Search mode that searches for instance field access with the given memory ordering or atomic operation
+	 * (linked to {@code MethodHandles.Lookup::findVarHandle} on Java 9+; on Java 8, volatile fields are accessed
+	 * with {@code AtomicXxxFieldUpdater}s if possible, and other fields under a lock shared by all such accessors)
+	 * @param mode access mode
+	 * @return search mode for {@link MethodSequence#of(Class, FieldAccessor)}
+	 */
+	public static FieldAccessor findVarHandle(FieldAccessMode mode) {
+		return varHandles[mode.ordinal()];
+	}
+	
+	/**
+	 * Search mode that searches for static field access with the given memory ordering or atomic operation
+	 * (linked to {@code MethodHandles.Lookup::findStaticVarHandle} on Java 9+; on Java 8, fields are accessed
+	 * under a lock shared by all such accessors)
+	 * @param mode access mode
+	 * @return search mode for {@link MethodSequence#of(Class, FieldAccessor)}
+	 */
+	public static FieldAccessor findStaticVarHandle(FieldAccessMode mode) {
+		return staticVarHandles[mode.ordinal()];
+	}
+	
+	/**
+	 * Finds a member in the given class using the "find" method this search mode is linked with
+	 * @param sequence sequence to search in
+	 * @param refc the class to search in
+	 * @param name member name ({@code null} for constructors)
+	 * @param specialCaller special caller class ({@code null} unless this is {@link #findSpecial})
+	 * @return a method handle to the found member
+	 * @throws ReflectiveOperationException if there is no such member or it is not accessible
+	 */
+	abstract MethodHandle findMember(MethodSequence<?> sequence, Class<?> refc, String name, Class<?> specialCaller)
+			throws ReflectiveOperationException;
+	
+	/**
+	 * Checks the {@link MemberIndex} of the given class for the member {@link #findMember} would find
+	 * @param sequence sequence to search in
+	 * @param refc the class to search in
+	 * @param name member name ({@code null} for constructors)
+	 * @return failure record if the member is certainly absent, or {@code null} if it may exist
+	 */
+	ReflectiveOperationException knownAbsence(MethodSequence<?> sequence, Class<?> refc, String name) {
+		return null;
+	}
+	
+	/**
+	 * @return name of this search mode (the same as the name of its constant, for example {@code findStatic})
+	 */
+	@Override
+	public String toString() {
+		String name = getClass().getSimpleName();
+		return Character.toLowerCase(name.charAt(0)) + name.substring(1);
+	}
+	
 	public static abstract class GenericSearch extends SearchMode {
 		/**
 		 * Finds a method with the given name in the given class
@@ -62,6 +134,17 @@ public abstract class SearchMode {
 		 */
 		abstract MethodHandle findMethodHandle(MethodSequence<?> sequence, Class<?> refc, String name)
 				throws NoSuchMethodException, IllegalAccessException;
+		
+		@Override
+		MethodHandle findMember(MethodSequence<?> sequence, Class<?> refc, String name, Class<?> specialCaller)
+				throws ReflectiveOperationException {
+			return findMethodHandle(sequence, refc, name);
+		}
+		
+		@Override
+		ReflectiveOperationException knownAbsence(MethodSequence<?> sequence, Class<?> refc, String name) {
+			return MemberIndex.methodAbsence(refc, name, sequence.methodType);
+		}
 	}
 
 	static final class FindStatic extends GenericSearch {
@@ -115,9 +198,56 @@ public abstract class SearchMode {
 				throws NoSuchMethodException, IllegalAccessException {
 			return sequence.lookup.bind(receiver, name, sequence.methodType);
 		}
+		
+		@Override
+		MethodHandle findMember(MethodSequence<?> sequence, Class<?> refc, String name, Class<?> specialCaller) {
+			throw new UnsupportedOperationException("bind requires receiver instance");
+		}
 
 		Bind() {}
 	}
+	public static final class Duck extends SearchMode {
+		
+		/**
+		 * Finds an instance method in the given receiver class, or in its accessible supertypes
+		 * if the method is not accessible through the receiver class itself (for example, if the class is not public)
+		 * @param sequence sequence to search in
+		 * @param refc receiver class
+		 * @param name method name
+		 * @param specialCaller ignored
+		 * @return a method handle that invokes the given method
+		 * @throws NoSuchMethodException if there is no such method
+		 * @throws IllegalAccessException if the method is not accessible
+		 */
+		@Override
+		MethodHandle findMember(MethodSequence<?> sequence, Class<?> refc, String name, Class<?> specialCaller)
+				throws NoSuchMethodException, IllegalAccessException {
+			try {
+				return sequence.lookup.findVirtual(refc, name, sequence.methodType);
+			} catch (IllegalAccessException e) {
+				MethodHandle mh = findInSupertypes(sequence, refc, name);
+				if (mh == null) throw e;
+				return mh;
+			}
+		}
+		
+		private static MethodHandle findInSupertypes(MethodSequence<?> sequence, Class<?> type, String name) {
+			List<Class<?>> supertypes = new ArrayList<>();
+			if (type.getSuperclass() != null) supertypes.add(type.getSuperclass());
+			Collections.addAll(supertypes, type.getInterfaces());
+			for (Class<?> supertype : supertypes) {
+				try {
+					return sequence.lookup.findVirtual(supertype, name, sequence.methodType);
+				} catch (NoSuchMethodException | IllegalAccessException e) {
+					MethodHandle mh = findInSupertypes(sequence, supertype, name);
+					if (mh != null) return mh;
+				}
+			}
+			return null;
+		}
+
+		Duck() {}
+	}
 
 	public static abstract class FieldAccessor extends SearchMode {
 		
@@ -137,6 +267,22 @@ public abstract class SearchMode {
 		FieldAccessor() {}
 
 		public abstract MethodType methodType(Class<?> fieldType);
+		
+		@Override
+		MethodHandle findMember(MethodSequence<?> sequence, Class<?> refc, String name, Class<?> specialCaller)
+				throws ReflectiveOperationException {
+			return findField(sequence, refc, name, fieldType(sequence.methodType));
+		}
+		
+		@Override
+		ReflectiveOperationException knownAbsence(MethodSequence<?> sequence, Class<?> refc, String name) {
+			return MemberIndex.fieldAbsence(refc, name, fieldType(sequence.methodType));
+		}
+		
+		static Class<?> fieldType(MethodType type) {
+			// getters return the field, setters and other accessors take it as the first parameter
+			return type.parameterCount() == 0 ? type.returnType() : type.parameterType(0);
+		}
 	}
 
 	static final class FindGetter extends FieldAccessor {
@@ -231,6 +377,41 @@ public abstract class SearchMode {
 		}
 	}
 
+	static final class FindVarHandle extends FieldAccessor {
+		private final FieldAccessMode mode;
+		private final boolean isStatic;
+		
+		FindVarHandle(FieldAccessMode mode, boolean isStatic) {
+			this.mode = mode;
+			this.isStatic = isStatic;
+		}
+		
+		/**
+		 * Finds access of the mode of this search mode to the given field in the given class
+		 * @param sequence the method sequence
+		 * @param refc the owner class
+		 * @param name the field name
+		 * @param type the field type
+		 * @return the method handle of the access
+		 * @throws NoSuchFieldException if no such field exists
+		 * @throws IllegalAccessException if the field is not accessible, or the access mode is not supported for it
+		 */
+		@Override
+		public MethodHandle findField(MethodSequence<?> sequence, Class<?> refc, String name, Class<?> type)
+				throws NoSuchFieldException, IllegalAccessException {
+			return Platform.findVarHandle(sequence.lookup, refc, name, type, isStatic, mode);
+		}
+
+		public MethodType methodType(Class<?> fieldType) {
+			return mode.methodType(fieldType);
+		}
+		
+		@Override
+		public String toString() {
+			return (isStatic ? "findStaticVarHandle(" : "findVarHandle(") + mode + ")";
+		}
+	}
+
 	public static final class FindConstructor extends SearchMode {
 		
 		/**
@@ -245,6 +426,17 @@ public abstract class SearchMode {
 				throws NoSuchMethodException, IllegalAccessException {
 			return sequence.lookup.findConstructor(refc, sequence.methodType);
 		}
+		
+		@Override
+		MethodHandle findMember(MethodSequence<?> sequence, Class<?> refc, String name, Class<?> specialCaller)
+				throws ReflectiveOperationException {
+			return findConstructor(sequence, refc);
+		}
+		
+		@Override
+		ReflectiveOperationException knownAbsence(MethodSequence<?> sequence, Class<?> refc, String name) {
+			return MemberIndex.constructorAbsence(refc, sequence.methodType);
+		}
 
 		FindConstructor() {}
 	}
@@ -265,6 +457,17 @@ public abstract class SearchMode {
 				throws NoSuchMethodException, IllegalAccessException {
 			return sequence.lookup.findSpecial(refc, name, sequence.methodType, specialCaller);
 		}
+		
+		@Override
+		MethodHandle findMember(MethodSequence<?> sequence, Class<?> refc, String name, Class<?> specialCaller)
+				throws ReflectiveOperationException {
+			return findMethodHandle(sequence, refc, name, specialCaller);
+		}
+		
+		@Override
+		ReflectiveOperationException knownAbsence(MethodSequence<?> sequence, Class<?> refc, String name) {
+			return MemberIndex.methodAbsence(refc, name, sequence.methodType);
+		}
 
 		FindSpecial() {}
 	}
@@ -0,0 +1,138 @@
+package com.ydo4ki.ctrlf;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.WrongMethodTypeException;
+import java.lang.reflect.Array;
+import java.util.Arrays;
+
+/**
+ * Adapts method handles of candidates with a compatible signature to the method type of their sequence.
+ * <p>
+ * Parameters are matched by position: every parameter of the candidate takes the parameter of the sequence
+ * at the same position, which must convert to it (a subtype, a primitive widening, boxing or unboxing).
+ * If the sequence has more parameters than the candidate, its trailing parameters are dropped; if it has fewer,
+ * the trailing parameters of the candidate get {@code 0}/{@code false}/{@code null}. Parameters are never matched by type,
+ * so two parameters are only swapped by an explicit order given by the caller
+ * (for every candidate parameter, the index of the sequence parameter it takes, or {@code -1} for the default value).
+ * The return value is converted the same way (or dropped, if the sequence returns {@code void}).
+ * So the adapted method handle is built once with {@link MethodHandles#insertArguments}, {@link MethodHandle#asType}
+ * and {@link MethodHandles#permuteArguments}, and is invoked with the exact type of the sequence.
+ * <p>
+ * Leading parameters the candidate does not declare (the receiver of {@link SearchMode#findVirtual}) are kept as they are.
+ *
+ * @author Sulphuris
+ * @since 17.10.2026 08:31
+ */
+final class SignatureAdapter {
+	private SignatureAdapter() {}
+
+	/**
+	 * Adapts the given method handle matching parameters by position
+	 * @param mh found method handle
+	 * @param signature parameter and return types the candidate was declared with
+	 * @param type method type of the sequence
+	 * @return method handle whose type is the type of the sequence (with the leading parameters of the found method handle)
+	 * @throws WrongMethodTypeException if the signatures are not compatible
+	 */
+	static MethodHandle adapt(MethodHandle mh, MethodType signature, MethodType type) {
+		return adapt(mh, signature, type, null);
+	}
+
+	/**
+	 * @param mh found method handle
+	 * @param signature parameter and return types the candidate was declared with
+	 * @param type method type of the sequence
+	 * @param order order checked with {@link #checkOrder}, or {@code null} to match parameters by position
+	 * @return method handle whose type is the type of the sequence (with the leading parameters of the found method handle)
+	 * @throws WrongMethodTypeException if the signatures are not compatible
+	 */
+	static MethodHandle adapt(MethodHandle mh, MethodType signature, MethodType type, int[] order) {
+		mh = mh.asFixedArity();
+		MethodType found = mh.type();
+		int leading = found.parameterCount() - signature.parameterCount();
+		if (leading < 0) throw new WrongMethodTypeException(found + " does not match " + signature);
+		Class<?> rtype = signature.returnType() == type.returnType() ? found.returnType() : type.returnType();
+		MethodType target = type.insertParameterTypes(0, found.parameterList().subList(0, leading)).changeReturnType(rtype);
+		if (order == null && found.equals(target)) return mh;
+
+		int m = signature.parameterCount();
+		int n = type.parameterCount();
+		// sequence parameter each candidate parameter takes, or -1
+		int[] taken = order != null ? order : new int[m];
+		for (int i = 0; i < m; i++) {
+			if (order == null) taken[i] = i < n ? i : -1;
+			Class<?> param = found.parameterType(leading + i);
+			if (taken[i] >= 0 && !converts(type.parameterType(taken[i]), param))
+				throw new WrongMethodTypeException("Parameter " + taken[i] + " of " + type + " does not convert to " + param.getName());
+		}
+		if (rtype != void.class && !converts(found.returnType(), rtype))
+			throw new WrongMethodTypeException("Can not convert " + found.returnType().getName() + " to " + rtype.getName());
+
+		// defaults for candidate parameters that take nothing (from the last one, so positions do not shift)
+		for (int i = m - 1; i >= 0; i--)
+			if (taken[i] < 0) mh = MethodHandles.insertArguments(mh, leading + i, defaultValue(found.parameterType(leading + i)));
+		int[] reorder = new int[mh.type().parameterCount()];
+		Class<?>[] params = new Class<?>[reorder.length];
+		for (int k = 0; k < leading; k++) {
+			reorder[k] = k;
+			params[k] = found.parameterType(k);
+		}
+		for (int i = 0, k = leading; i < m; i++) {
+			if (taken[i] < 0) continue;
+			reorder[k] = leading + taken[i];
+			params[k++] = type.parameterType(taken[i]);
+		}
+		mh = mh.asType(MethodType.methodType(rtype, params));
+		return MethodHandles.permuteArguments(mh, target, reorder);
+	}
+
+	/**
+	 * @param order for every parameter of the candidate, the index of the sequence parameter it takes, or {@code -1} for the default value
+	 * @param signature parameter and return types the candidate is declared with
+	 * @param type method type of the sequence
+	 * @return a copy of the order
+	 * @throws IllegalArgumentException if the order does not have an index for every parameter of the candidate,
+	 *                                  or an index is not a parameter of the sequence
+	 */
+	static int[] checkOrder(int[] order, MethodType signature, MethodType type) {
+		if (order.length != signature.parameterCount())
+			throw new IllegalArgumentException("Order " + Arrays.toString(order) + " does not match " + signature);
+		for (int j : order)
+			if (j < -1 || j >= type.parameterCount())
+				throw new IllegalArgumentException("No parameter " + j + " in " + type);
+		return order.clone();
+	}
+
+	/**
+	 * @return true if a value of the first type can be passed where the second one is expected without loss
+	 */
+	private static boolean converts(Class<?> from, Class<?> to) {
+		if (from == to) return true;
+		if (from == void.class || to == void.class) return false;
+		if (!from.isPrimitive() && !to.isPrimitive()) return to.isAssignableFrom(from);
+		// boxing, and unboxing of wrappers only (asType would also cast other references, which may fail at runtime)
+		if (!to.isPrimitive()) return to.isAssignableFrom(wrap(from));
+		if (!from.isPrimitive()) return unwrap(from) != from && converts(unwrap(from), to);
+		try {
+			// primitive widening
+			MethodHandles.identity(to).asType(MethodType.methodType(to, from));
+			return true;
+		} catch (WrongMethodTypeException e) {
+			return false;
+		}
+	}
+
+	private static Class<?> wrap(Class<?> type) {
+		return MethodType.methodType(type).wrap().returnType();
+	}
+
+	private static Class<?> unwrap(Class<?> type) {
+		return MethodType.methodType(type).unwrap().returnType();
+	}
+
+	private static Object defaultValue(Class<?> type) {
+		return type.isPrimitive() ? Array.get(Array.newInstance(type, 1), 0) : null;
+	}
+}
@@ -0,0 +1,74 @@
+package com.ydo4ki.ctrlf;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * Operations of probing that depend on the Java version.
+ * <p>
+ * This is the Java 9+ implementation: owner classes in packages that are neither exported nor open to the module
+ * of the lookup class are rejected before any member lookup. The lookup itself is never widened.
+ * The check only rules out owner classes that {@link MethodHandles.Lookup} would reject anyway;
+ * whatever it lets through is still checked by the lookup.
+ *
+ * @author Sulphuris
+ * @since 17.10.2026 06:24
+ */
+final class Platform {
+	private Platform() {}
+
+	/**
+	 * Checks that the given owner class may be accessible from the given lookup at all, before its members are looked up:
+	 * it must be in the module of the lookup class, or its package must be exported or open to that module.
+	 * This holds for lookups without module access too, such as the ones {@link MethodHandles#privateLookupIn} returns
+	 * @param lookup lookup of the sequence
+	 * @param refc owner class
+	 * @throws IllegalAccessException if the owner class is not accessible
+	 */
+	static void checkAccess(MethodHandles.Lookup lookup, Class<?> refc) throws IllegalAccessException {
+		Module target = refc.getModule();
+		if (!target.isNamed()) return;
+		String pn = refc.getPackageName();
+		Module from = lookup.lookupClass().getModule();
+		if (target == from || target.isExported(pn, from) || target.isOpen(pn, from)) return;
+		throw new Inaccessible(refc.getName() + ": package " + pn + " of " + target + " is neither exported nor open to " + from);
+	}
+
+	/**
+	 * Finds field access of the given mode through {@link VarHandle#toMethodHandle(VarHandle.AccessMode)}
+	 * @param lookup lookup of the sequence
+	 * @param refc owner class
+	 * @param name field name
+	 * @param type field type
+	 * @param isStatic whether the field is static
+	 * @param mode access mode
+	 * @return method handle of the access
+	 * @throws NoSuchFieldException if there is no such field
+	 * @throws IllegalAccessException if the field is not accessible, or the mode is not supported for the field
+	 */
+	static MethodHandle findVarHandle(MethodHandles.Lookup lookup, Class<?> refc, String name, Class<?> type,
+									  boolean isStatic, FieldAccessMode mode) throws NoSuchFieldException, IllegalAccessException {
+		VarHandle vh = isStatic ? lookup.findStaticVarHandle(refc, name, type) : lookup.findVarHandle(refc, name, type);
+		VarHandle.AccessMode accessMode = VarHandle.AccessMode.valueOf(mode.name());
+		if (!vh.isAccessModeSupported(accessMode))
+			throw new IllegalAccessException(mode + " is not supported for " + type.getName() + " field " + refc.getName() + "." + name);
+		return vh.toMethodHandle(accessMode);
+	}
+
+	/**
+	 * Stackless failure record for an owner class that is not accessible from the lookup of the sequence
+	 */
+	static final class Inaccessible extends IllegalAccessException {
+		private static final long serialVersionUID = 1L;
+
+		Inaccessible(String message) {
+			super(message);
+		}
+
+		@Override
+		public synchronized Throwable fillInStackTrace() {
+			return this;
+		}
+	}
+}
@@ -0,0 +1,83 @@
+package com.ydo4ki.ctrlf;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Sulphuris
+ * @since 17.10.2026 11:40
+ */
+class AdaptiveCallSiteTest {
+	private static final MethodType TYPE = MethodType.methodType(int.class, int.class);
+	private static final String TARGET = Target.class.getName();
+
+	public static class Target {
+		static final AtomicInteger fastCalls = new AtomicInteger();
+
+		public static int slow(int x) {
+			LockSupport.parkNanos(100_000);
+			return x + 1;
+		}
+
+		public static int fast(int x) {
+			fastCalls.incrementAndGet();
+			return x + 1;
+		}
+
+		public static int broken(int x) {
+			throw new UnsupportedOperationException();
+		}
+	}
+
+	private static FoundMethod.Named bind(int sampleInterval, String first, String second) {
+		return MethodSequence.of(MethodHandles.lookup(), TYPE, SearchMode.findStatic)
+				.withAdaptiveBinding(2, sampleInterval)
+				.find(TARGET, first)
+				.fallback(TARGET, second);
+	}
+
+	@Test
+	void relinksToTheFasterCandidate() throws Throwable {
+		FoundMethod.Named found = bind(1, "slow", "fast");
+		AdaptiveCallSite site = found.getAdaptiveCallSite().get();
+		assertEquals(0, site.getCurrentIndex());
+		MethodHandle mh = found.methodHandle();
+		for (int i = 0; i < 1000 && site.getRelinkCount() == 0; i++) assertEquals(2, (int) mh.invokeExact(1));
+		assertEquals(1, site.getRelinkCount());
+		assertEquals(1, site.getCurrentIndex());
+		assertTrue(site.getLatencyNanos(0) > site.getLatencyNanos(1));
+	}
+
+	@Test
+	void onlyEveryIntervalthInvocationIsSampled() throws Throwable {
+		Target.fastCalls.set(0);
+		MethodHandle mh = bind(8, "slow", "fast").methodHandle();
+		for (int i = 0; i < 64; i++) assertEquals(2, (int) mh.invokeExact(1));
+		// samples alternate between the candidates, so the fast one got every other sample
+		assertEquals(4, Target.fastCalls.get());
+	}
+
+	@Test
+	void brokenCandidateIsExcluded() throws Throwable {
+		FoundMethod.Named found = bind(1, "fast", "broken");
+		AdaptiveCallSite site = found.getAdaptiveCallSite().get();
+		MethodHandle mh = found.methodHandle();
+		for (int i = 0; i < 200; i++) assertEquals(2, (int) mh.invokeExact(1));
+		assertEquals(0, site.getCurrentIndex());
+		assertTrue(Double.isNaN(site.getLatencyNanos(1)));
+		assertFalse(Double.isNaN(site.getLatencyNanos(0)));
+	}
+
+	@Test
+	void illegalSettingsAreRejected() {
+		assertThrows(IllegalArgumentException.class, () -> AdaptiveCallSite.check(0.5, 8));
+		assertThrows(IllegalArgumentException.class, () -> AdaptiveCallSite.check(2, 6));
+	}
+}
@@ -0,0 +1,111 @@
+package com.ydo4ki.ctrlf;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Sulphuris
+ * @since 17.10.2026 12:10
+ */
+class AsyncResolutionTest {
+	private static final MethodType TYPE = MethodType.methodType(int.class, int.class);
+	private static final String TARGET = Target.class.getName();
+
+	public static class Target {
+		public static int twice(int x) {
+			return x * 2;
+		}
+	}
+
+	private static FoundMethod.Named find() {
+		return MethodSequence.of(MethodHandles.lookup(), TYPE, SearchMode.findStatic)
+				.find(TARGET, "missing")
+				.fallback(TARGET, "twice");
+	}
+
+	@Test
+	void chainIsResolvedOnTheGivenExecutor() throws Exception {
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			AtomicReference<Thread> thread = new AtomicReference<>();
+			CompletableFuture<FoundMethod.Named> future = MethodSequence.async(() -> {
+				thread.set(Thread.currentThread());
+				return find();
+			}, executor);
+			FoundMethod.Named found = future.get(10, TimeUnit.SECONDS);
+			assertEquals(1, found.getFoundIndex().getAsInt());
+			assertNotSame(Thread.currentThread(), thread.get());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	void failureCompletesTheFuture() {
+		IllegalStateException failure = new IllegalStateException();
+		CompletableFuture<FoundMethod> future = MethodSequence.async(() -> {
+			throw failure;
+		}, Runnable::run);
+		assertSame(failure, assertThrows(CompletionException.class, future::join).getCause());
+	}
+
+	@Test
+	void lazyHandleJoinsOnFirstInvocation() throws Throwable {
+		CompletableFuture<FoundMethod> resolution = new CompletableFuture<>();
+		MethodHandle mh = MethodSequence.lazy(TYPE, resolution);
+		assertEquals(TYPE, mh.type());
+		assertFalse(resolution.isDone());
+		resolution.complete(find());
+		assertEquals(6, (int) mh.invokeExact(3));
+	}
+
+	@Test
+	void lazyHandleThrowsTheCauseOfFailure() {
+		IllegalStateException failure = new IllegalStateException();
+		CompletableFuture<FoundMethod> resolution = new CompletableFuture<>();
+		resolution.completeExceptionally(failure);
+		MethodHandle mh = MethodSequence.lazy(TYPE, resolution);
+		for (int i = 0; i < 2; i++) assertSame(failure, assertThrows(IllegalStateException.class, () -> {
+			int ignored = (int) mh.invokeExact(1);
+		}));
+	}
+
+	@Test
+	void sequentialFinderIsProbedRightAway() {
+		assertTrue(MethodSequence.of(MethodHandles.lookup(), TYPE, SearchMode.findStatic)
+				.find(TARGET, "twice")
+				.whenProbed()
+				.isDone());
+	}
+
+	@Test
+	void whenProbedCompletesWithParallelProbes() throws Throwable {
+		List<Runnable> probes = new ArrayList<>();
+		Executor deferred = probes::add;
+		MethodFinder.MethodFinderGeneric finder = MethodSequence.of(MethodHandles.lookup(), TYPE, SearchMode.findStatic)
+				.withParallelProbing(deferred)
+				.find(TARGET, "missing")
+				.orElse(TARGET, "twice");
+		CompletableFuture<FoundMethod.Named> found = finder.whenProbed().thenApply(ignored -> finder.fallback(TARGET, "twice"));
+		assertFalse(found.isDone());
+		// fallback, called back after the probes, submits one more probe
+		for (int i = 0; i < probes.size(); i++) probes.get(i).run();
+		assertTrue(found.isDone());
+		assertEquals(1, found.join().getFoundIndex().getAsInt());
+		assertEquals(10, (int) found.join().methodHandle().invokeExact(5));
+	}
+}
@@ -0,0 +1,87 @@
+package com.ydo4ki.ctrlf;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Sulphuris
+ * @since 17.10.2026 10:55
+ */
+class BindingRegistryTest {
+	private static final MethodType INT = MethodType.methodType(int.class);
+	private static final String TARGET = Target.class.getName();
+
+	public static class Target {
+		public static int one() {
+			return 1;
+		}
+
+		public static int two() {
+			return 2;
+		}
+	}
+
+	@BeforeEach
+	void reset() {
+		ResolutionCache.invalidateAll();
+	}
+
+	private static Supplier<FoundMethod> chain(String first, String second) {
+		return () -> MethodSequence.of(MethodHandles.lookup(), INT, SearchMode.findStatic)
+				.find(TARGET, first)
+				.fallback(TARGET, second);
+	}
+
+	@Test
+	void summaryClassifiesBindings() {
+		BindingRegistry registry = new BindingRegistry();
+		BindingRegistry.Binding first = registry.register("first", chain("one", "two"));
+		BindingRegistry.Binding fellBack = registry.register("fellBack", chain("missing", "two"));
+		BindingRegistry.Binding notFound = registry.register("notFound", chain("missing", "absent"));
+		assertFalse(first.isResolved());
+
+		BindingRegistry.Summary summary = registry.resolveAll();
+		assertEquals(names(first), names(summary.getFoundFirst().toArray(new BindingRegistry.Binding[0])));
+		assertEquals(names(fellBack), names(summary.getFellBack().toArray(new BindingRegistry.Binding[0])));
+		assertEquals(names(notFound), names(summary.getNotFound().toArray(new BindingRegistry.Binding[0])));
+		assertTrue(first.isResolved());
+		assertTrue(fellBack.toString().endsWith("found " + TARGET + ".two (fallback #1)"), fellBack.toString());
+	}
+
+	@Test
+	void identicalProbesArePerformedOnce() {
+		BindingRegistry registry = new BindingRegistry();
+		for (int i = 0; i < 16; i++) registry.register("binding" + i, chain("missing", "one"));
+		registry.resolveAll();
+		assertEquals(2, ResolutionCache.missCount());
+	}
+
+	@Test
+	void resolvedBindingsAreNotResolvedAgain() throws Throwable {
+		AtomicInteger resolutions = new AtomicInteger();
+		BindingRegistry registry = new BindingRegistry();
+		BindingRegistry.Binding binding = registry.register("counted", () -> {
+			resolutions.incrementAndGet();
+			return chain("one", "two").get();
+		});
+		assertEquals(1, (int) binding.methodHandle().invokeExact());
+		registry.resolveAll();
+		assertSame(binding.get(), binding.get());
+		assertEquals(1, resolutions.get());
+	}
+
+	private static List<String> names(BindingRegistry.Binding... bindings) {
+		String[] names = new String[bindings.length];
+		for (int i = 0; i < names.length; i++) names[i] = bindings[i].getName();
+		return Arrays.asList(names);
+	}
+}
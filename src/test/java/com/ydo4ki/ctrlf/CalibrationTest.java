@@ -0,0 +1,74 @@
+package com.ydo4ki.ctrlf;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Sulphuris
+ * @since 17.10.2026 11:35
+ */
+class CalibrationTest {
+	private static final MethodType TYPE = MethodType.methodType(int.class, int.class);
+	private static final String TARGET = Target.class.getName();
+
+	public static class Target {
+		public static int slow(int x) {
+			LockSupport.parkNanos(200_000);
+			return x;
+		}
+
+		public static int fast(int x) {
+			return x;
+		}
+
+		public static int glacial(int x) {
+			LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(20));
+			return x;
+		}
+
+		public static int broken(int x) {
+			throw new UnsupportedOperationException();
+		}
+	}
+
+	private static FoundMethod.Named calibrate(Duration budget, String first, String second) {
+		return MethodSequence.of(MethodHandles.lookup(), TYPE, SearchMode.findStatic)
+				.withCalibration(budget, 1)
+				.find(TARGET, first)
+				.fallback(TARGET, second);
+	}
+
+	@Test
+	void fastestCandidateIsChosen() {
+		FoundMethod.Named found = calibrate(Duration.ofMillis(100), "slow", "fast");
+		Calibration calibration = found.getCalibration().get();
+		assertEquals(1, calibration.getChosen().getIndex());
+		assertEquals(1, found.getFoundIndex().getAsInt());
+		assertEquals("fast", found.getFoundName().get());
+		assertTrue(calibration.getEntries().get(0).getNanosPerInvocation() > calibration.getEntries().get(1).getNanosPerInvocation());
+	}
+
+	@Test
+	void failingCandidateIsNotChosen() {
+		Calibration calibration = calibrate(Duration.ofMillis(20), "broken", "slow").getCalibration().get();
+		assertEquals(1, calibration.getChosen().getIndex());
+		assertInstanceOf(UnsupportedOperationException.class, calibration.getEntries().get(0).getFailure().get());
+	}
+
+	@Test
+	void budgetIsALimit() {
+		// one invocation of each candidate takes longer than the budget
+		Calibration calibration = calibrate(Duration.ofMillis(5), "glacial", "glacial").getCalibration().get();
+		assertTrue(calibration.getElapsedNanos() < TimeUnit.MILLISECONDS.toNanos(200), calibration.toString());
+		// no round measured both candidates
+		assertTrue(Double.isNaN(calibration.getChosen().getNanosPerInvocation()));
+		assertEquals(0, calibration.getChosen().getIndex());
+	}
+}
@@ -0,0 +1,92 @@
+package com.ydo4ki.ctrlf;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Sulphuris
+ * @since 17.10.2026 10:26
+ */
+class ClassLoadingTest {
+	private static final MethodType INT = MethodType.methodType(int.class);
+
+	static boolean lazyInitialized;
+	static boolean eagerInitialized;
+
+	public static class Lazy {
+		static {
+			lazyInitialized = true;
+		}
+
+		public static int value() {
+			return 1;
+		}
+	}
+
+	public static class Eager {
+		static {
+			eagerInitialized = true;
+		}
+
+		public static int value() {
+			return 2;
+		}
+	}
+
+	@Test
+	void ownerIsInitializedOnlyWhenInvokedIfInitializationIsDisabled() throws Throwable {
+		FoundMethod found = MethodSequence.of(MethodHandles.lookup(), INT, SearchMode.findStatic)
+				.withInitialization(false)
+				.find(Lazy.class.getName(), "value")
+				.fallback(Lazy.class.getName(), "value");
+		assertFalse(lazyInitialized);
+		assertEquals(1, (int) found.methodHandle().invokeExact());
+		assertTrue(lazyInitialized);
+	}
+
+	@Test
+	void ownerIsInitializedByDefault() {
+		MethodSequence.of(MethodHandles.lookup(), INT, SearchMode.findStatic)
+				.find(Eager.class.getName(), "value")
+				.fallback(Eager.class.getName(), "value");
+		assertTrue(eagerInitialized);
+	}
+
+	@Test
+	void ownersAreLoadedWithTheGivenClassLoader() {
+		String owner = Eager.class.getName();
+		FoundMethod.Named bootstrap = MethodSequence.of(MethodHandles.lookup(), INT, SearchMode.findStatic)
+				.withClassLoader(null)
+				.find(owner, "value")
+				.fallback(owner, "value");
+		assertFalse(bootstrap.getFound().isPresent());
+		FoundMethod.Named application = MethodSequence.of(MethodHandles.lookup(), INT, SearchMode.findStatic)
+				.withClassLoader(null)
+				.withClassLoader(ClassLoadingTest.class.getClassLoader())
+				.find(owner, "value")
+				.fallback(owner, "value");
+		assertTrue(application.getFound().isPresent());
+	}
+
+	@Test
+	void optionsDoNotChangeASharedSequence() {
+		String owner = Eager.class.getName();
+		MethodSequence.MethodSequenceGenericDefault shared = MethodSequence.of(MethodHandles.lookup(), INT, SearchMode.findStatic);
+		MethodSequence.MethodSequenceGenericDefault bootstrap = shared.withClassLoader(null);
+		assertNotSame(shared, bootstrap);
+		assertNotSame(shared, shared.withInitialization(false));
+		assertNotSame(shared, shared.withParallelProbing(Runnable::run));
+		assertNotSame(shared, shared.withFailover());
+		assertFalse(bootstrap.find(owner, "value").getFound().isPresent());
+		assertTrue(shared.find(owner, "value").getFound().isPresent());
+		assertTrue(shared.initialize);
+		assertNull(shared.probeExecutor);
+		assertNull(shared.failover);
+		// options are kept by sequences derived later
+		assertFalse(bootstrap.withName("value").find(owner).getFound().isPresent());
+	}
+}
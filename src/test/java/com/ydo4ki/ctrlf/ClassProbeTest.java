@@ -0,0 +1,57 @@
+package com.ydo4ki.ctrlf;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Sulphuris
+ * @since 17.10.2026 10:12
+ */
+class ClassProbeTest {
+	private static final ClassLoader loader = ClassProbeTest.class.getClassLoader();
+
+	@BeforeEach
+	void reset() {
+		ClassProbe.forgetAll();
+	}
+
+	@Test
+	void presentClassIsLoaded() {
+		assertSame(ClassProbeTest.class, ClassProbe.find(ClassProbeTest.class.getName(), loader, false));
+		assertSame(String.class, ClassProbe.find("java.lang.String", null, false));
+	}
+
+	@Test
+	void absentClassIsRecordedWithoutStackTrace() {
+		assertNull(ClassProbe.find("me.random.Absent", loader, false));
+		ClassNotFoundException absence = ClassProbe.absence("me.random.Absent", loader);
+		assertEquals("me.random.Absent", absence.getMessage());
+		assertEquals(0, absence.getStackTrace().length);
+		// the record is shared by later probes
+		assertNull(ClassProbe.find("me.random.Absent", loader, false));
+		assertSame(absence, ClassProbe.absence("me.random.Absent", loader));
+	}
+
+	@Test
+	void absenceIsPerClassLoader() {
+		assertNull(ClassProbe.find("me.random.Absent", loader, false));
+		ClassLoader other = new ClassLoader(loader) {};
+		// not resource backed, so probed with Class.forName, which records its own exception
+		assertNull(ClassProbe.find("me.random.Absent", other, false));
+		ClassNotFoundException absence = ClassProbe.absence("me.random.Absent", other);
+		assertNotSame(ClassProbe.absence("me.random.Absent", loader), absence);
+		assertNotEquals(0, absence.getStackTrace().length);
+		assertSame(ClassProbeTest.class, ClassProbe.find(ClassProbeTest.class.getName(), other, false));
+	}
+
+	@Test
+	void forgetClearsAbsence() {
+		assertNull(ClassProbe.find("me.random.Absent", loader, false));
+		ClassNotFoundException absence = ClassProbe.absence("me.random.Absent", loader);
+		ClassProbe.forget("me.random.Absent");
+		assertNull(ClassProbe.find("me.random.Absent", loader, false));
+		assertNotSame(absence, ClassProbe.absence("me.random.Absent", loader));
+	}
+}
@@ -0,0 +1,82 @@
+package com.ydo4ki.ctrlf;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Sulphuris
+ * @since 17.10.2026 11:45
+ */
+class DuckCallSiteTest {
+	private static final MethodType TYPE = MethodType.methodType(String.class);
+
+	public static class New {
+		public String getVersion() {
+			return "new";
+		}
+	}
+
+	public static class Old {
+		public String version() {
+			return "old";
+		}
+	}
+
+	public static class Versioned {
+		private final int n;
+
+		Versioned(int n) {
+			this.n = n;
+		}
+
+		public String version() {
+			return "v" + n;
+		}
+	}
+
+	private static MethodSequence.MethodSequenceDuck sequence() {
+		return MethodSequence.of(MethodHandles.lookup(), TYPE, SearchMode.duck);
+	}
+
+	@Test
+	void dispatchesOnReceiverClass() throws Throwable {
+		MethodHandle mh = sequence().find("getVersion").fallback("version").methodHandle();
+		assertEquals(MethodType.methodType(String.class, Object.class), mh.type());
+		assertEquals("new", (String) mh.invokeExact((Object) new New()));
+		assertEquals("old", (String) mh.invokeExact((Object) new Old()));
+		assertEquals("new", (String) mh.invokeExact((Object) new New()));
+	}
+
+	@Test
+	void missingMethodAndNullReceiverAreRejected() {
+		MethodHandle mh = sequence().find("getVersion").fallback("version").methodHandle();
+		IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> {
+			String ignored = (String) mh.invokeExact((Object) "no version");
+		});
+		assertInstanceOf(NoSuchMethodException.class, e.getCause());
+		assertThrows(NullPointerException.class, () -> {
+			String ignored = (String) mh.invokeExact((Object) null);
+		});
+	}
+
+	@Test
+	void becomesMegamorphicAfterTheInlineCacheIsFull() throws Throwable {
+		DuckCallSite site = new DuckCallSite(sequence(), new String[]{"version"});
+		MethodHandle mh = site.dynamicInvoker();
+		Object[] receivers = {
+				new Versioned(0), new Versioned(1) {}, new Versioned(2) {}, new Versioned(3) {}, new Versioned(4) {},
+				new Versioned(5) {}, new Versioned(6) {}, new Versioned(7) {}, new Versioned(8) {}
+		};
+		for (int i = 0; i < DuckCallSite.LIMIT; i++) assertEquals("v" + i, (String) mh.invokeExact(receivers[i]));
+		assertTrue(site.toString().contains(DuckCallSite.LIMIT + " cached"), site.toString());
+		assertEquals("v8", (String) mh.invokeExact(receivers[DuckCallSite.LIMIT]));
+		assertTrue(site.toString().contains("megamorphic"));
+		// still dispatches every receiver class
+		for (int i = 0; i < receivers.length; i++) assertEquals("v" + i, (String) mh.invokeExact(receivers[i]));
+	}
+}
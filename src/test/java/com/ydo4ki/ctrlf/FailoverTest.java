@@ -0,0 +1,81 @@
+package com.ydo4ki.ctrlf;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Sulphuris
+ * @since 17.10.2026 11:30
+ */
+class FailoverTest {
+	private static final MethodType TYPE = MethodType.methodType(int.class, int.class);
+	private static final String TARGET = Target.class.getName();
+
+	public static class Target {
+		static final AtomicInteger brokenCalls = new AtomicInteger();
+
+		public static int broken(int x) {
+			brokenCalls.incrementAndGet();
+			throw new UnsupportedOperationException();
+		}
+
+		public static int failing(int x) {
+			throw new IllegalStateException();
+		}
+
+		public static int working(int x) {
+			return x + 1;
+		}
+	}
+
+	private static MethodSequence.MethodSequenceGenericDefault sequence() {
+		return MethodSequence.of(MethodHandles.lookup(), TYPE, SearchMode.findStatic);
+	}
+
+	@Test
+	void switchesToTheNextCandidateOnce() throws Throwable {
+		Target.brokenCalls.set(0);
+		MethodHandle mh = sequence().withFailover().find(TARGET, "broken").fallback(TARGET, "working").methodHandle();
+		assertEquals(2, (int) mh.invokeExact(1));
+		assertEquals(3, (int) mh.invokeExact(2));
+		assertEquals(1, Target.brokenCalls.get());
+	}
+
+	@Test
+	void otherFailuresAreRethrown() {
+		MethodHandle mh = sequence().withFailover(UnsupportedOperationException.class)
+				.find(TARGET, "failing").fallback(TARGET, "working").methodHandle();
+		assertThrows(IllegalStateException.class, () -> {
+			int ignored = (int) mh.invokeExact(1);
+		});
+	}
+
+	@Test
+	void configuredFailuresAreSwitchedOn() throws Throwable {
+		MethodHandle mh = sequence().withFailover(IllegalStateException.class)
+				.find(TARGET, "failing").fallback(TARGET, "working").methodHandle();
+		assertEquals(2, (int) mh.invokeExact(1));
+	}
+
+	@Test
+	void getFoundReturnsTheFailoverHandle() throws Throwable {
+		MethodFinder.MethodFinderGeneric finder = sequence().withFailover().find(TARGET, "broken").orElse(TARGET, "working");
+		MethodHandle found = finder.getFound().get();
+		assertSame(found, finder.getFound().get());
+		// fails over instead of throwing
+		assertEquals(2, (int) found.invokeExact(1));
+		MethodHandle fallback = finder.fallback(TARGET, "working").methodHandle();
+		assertSame(fallback, finder.getFound().get());
+	}
+
+	@Test
+	void nullFailureIsRejected() {
+		assertThrows(NullPointerException.class, () -> sequence().withFailover(UnsupportedOperationException.class, null));
+	}
+}
@@ -0,0 +1,74 @@
+package com.ydo4ki.ctrlf;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Sulphuris
+ * @since 17.10.2026 12:00
+ */
+class FieldAccessTest {
+	private static final String TARGET = Target.class.getName();
+
+	public static class Target {
+		public volatile int count;
+		public volatile String name = "a";
+		public double plain;
+		public static long total;
+	}
+
+	private static MethodHandle find(Class<?> type, FieldAccessMode mode, String name) {
+		return MethodSequence.of(MethodHandles.lookup(), type, SearchMode.findVarHandle(mode))
+				.find(TARGET, name)
+				.fallback(TARGET, name)
+				.methodHandle();
+	}
+
+	@Test
+	void volatileFieldsAreUpdatedAtomically() throws Throwable {
+		Target target = new Target();
+		assertTrue((boolean) find(int.class, FieldAccessMode.COMPARE_AND_SET, "count").invokeExact(target, 0, 5));
+		assertEquals(5, (int) find(int.class, FieldAccessMode.GET_AND_ADD, "count").invokeExact(target, 2));
+		assertEquals(7, (int) find(int.class, FieldAccessMode.GET_VOLATILE, "count").invokeExact(target));
+		assertEquals("a", (String) find(String.class, FieldAccessMode.GET_AND_SET, "name").invokeExact(target, "b"));
+		assertEquals("b", (String) find(String.class, FieldAccessMode.COMPARE_AND_EXCHANGE, "name").invokeExact(target, "c", "d"));
+		assertEquals("b", target.name);
+	}
+
+	@Test
+	void plainAndStaticFieldsAreAccessed() throws Throwable {
+		Target target = new Target();
+		target.plain = 1.5;
+		assertEquals(1.5, (double) find(double.class, FieldAccessMode.GET_AND_ADD, "plain").invokeExact(target, 1.0));
+		assertEquals(2.5, target.plain);
+		MethodHandle add = MethodSequence.of(MethodHandles.lookup(), long.class, SearchMode.findStaticVarHandle(FieldAccessMode.GET_AND_ADD))
+				.find(TARGET, "total")
+				.fallback(TARGET, "total")
+				.methodHandle();
+		assertEquals(0L, (long) add.invokeExact(3L));
+		assertEquals(3L, Target.total);
+	}
+
+	@Test
+	void getAndAddIsRejectedForReferenceFields() {
+		FoundMethod found = MethodSequence.of(MethodHandles.lookup(), String.class, SearchMode.findVarHandle(FieldAccessMode.GET_AND_ADD))
+				.find(TARGET, "name")
+				.fallback(TARGET, "name");
+		assertFalse(found.getFound().isPresent());
+		assertInstanceOf(IllegalAccessException.class, found.getErr().orElse(null));
+	}
+
+	@Test
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	void referenceUpdaterDoesNotAdd() {
+		LegacyFieldAccess.Ops ops = new LegacyFieldAccess.ReferenceUpdater(
+				AtomicReferenceFieldUpdater.newUpdater((Class) Target.class, String.class, "name"));
+		IllegalStateException e = assertThrows(IllegalStateException.class, () -> ops.getAndAdd(new Target(), "x"));
+		assertTrue(e.getMessage().contains("GET_AND_ADD"), e.getMessage());
+	}
+}
@@ -0,0 +1,79 @@
+package com.ydo4ki.ctrlf;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandleProxies;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Iterator;
+import java.util.function.Function;
+import java.util.function.IntUnaryOperator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Sulphuris
+ * @since 17.10.2026 11:50
+ */
+class FunctionalAdapterTest {
+	private static final String TARGET = Target.class.getName();
+
+	public static class Target {
+		public static int twice(int x) {
+			return x * 2;
+		}
+
+		public static Integer length(String s) {
+			return s.length();
+		}
+
+		public static int add(int x, int y) {
+			return x + y;
+		}
+	}
+
+	private static FoundMethod twice() {
+		return MethodSequence.of(MethodHandles.lookup(), MethodType.methodType(int.class, int.class), SearchMode.findStatic)
+				.find(TARGET, "missing")
+				.fallback(TARGET, "twice");
+	}
+
+	@Test
+	void directHandleBecomesALambda() {
+		IntUnaryOperator f = twice().asInterface(MethodHandles.lookup(), IntUnaryOperator.class);
+		assertFalse(MethodHandleProxies.isWrapperInstance(f));
+		assertEquals(6, f.applyAsInt(3));
+	}
+
+	@Test
+	void genericInterfaceGetsBridges() {
+		Function<String, Integer> f = MethodSequence.of(MethodHandles.lookup(), MethodType.methodType(Integer.class, String.class), SearchMode.findStatic)
+				.find(TARGET, "length")
+				.fallback(TARGET, "length")
+				.asInterface(MethodHandles.lookup(), functionOf());
+		assertFalse(MethodHandleProxies.isWrapperInstance(f));
+		assertEquals(3, (int) f.apply("abc"));
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Class<Function<String, Integer>> functionOf() {
+		return (Class<Function<String, Integer>>) (Class<?>) Function.class;
+	}
+
+	@Test
+	void otherHandlesAreWrapped() throws ReflectiveOperationException {
+		MethodHandle add = MethodHandles.lookup().findStatic(Target.class, "add", MethodType.methodType(int.class, int.class, int.class));
+		IntUnaryOperator f = MethodSequence.of(MethodHandles.lookup(), MethodType.methodType(int.class, int.class), SearchMode.findStatic)
+				.find(TARGET, "missing")
+				.fallback(MethodHandles.insertArguments(add, 0, 10))
+				.asInterface(MethodHandles.lookup(), IntUnaryOperator.class);
+		assertTrue(MethodHandleProxies.isWrapperInstance(f));
+		assertEquals(13, f.applyAsInt(3));
+	}
+
+	@Test
+	void notFunctionalInterfaceIsRejected() {
+		assertThrows(IllegalArgumentException.class, () -> twice().asInterface(MethodHandles.lookup(), Iterator.class));
+	}
+}
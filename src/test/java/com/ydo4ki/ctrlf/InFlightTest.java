@@ -0,0 +1,128 @@
+package com.ydo4ki.ctrlf;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Sulphuris
+ * @since 17.10.2026 12:05
+ */
+class InFlightTest {
+	private static final int THREADS = 8;
+
+	private static <T> List<T> race(int threads, Callable<T> task) throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			CountDownLatch start = new CountDownLatch(1);
+			List<Future<T>> futures = new ArrayList<>();
+			for (int i = 0; i < threads; i++) futures.add(executor.submit(() -> {
+				start.await();
+				return task.call();
+			}));
+			start.countDown();
+			List<T> results = new ArrayList<>();
+			for (Future<T> future : futures) results.add(future.get(10, TimeUnit.SECONDS));
+			return results;
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	void racingThreadsShareOneProbe() throws Exception {
+		InFlight<String, Object> inFlight = new InFlight<>(true);
+		AtomicInteger probes = new AtomicInteger();
+		List<Object> results = race(THREADS, () -> inFlight.resolve("key", key -> {
+			probes.incrementAndGet();
+			try {
+				Thread.sleep(50);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return new Object();
+		}));
+		assertEquals(1, probes.get());
+		for (Object result : results) assertSame(results.get(0), result);
+	}
+
+	@Test
+	void failureIsShared() {
+		InFlight<String, Object> inFlight = new InFlight<>(true);
+		IllegalStateException failure = new IllegalStateException();
+		assertSame(failure, assertThrows(IllegalStateException.class, () -> inFlight.resolve("key", key -> {
+			throw failure;
+		})));
+		assertSame(failure, assertThrows(IllegalStateException.class, () -> inFlight.resolve("key", key -> new Object())));
+	}
+
+	@Test
+	void completedProbesAreNotRetainedUnlessAsked() {
+		InFlight<String, Integer> inFlight = new InFlight<>(false);
+		AtomicInteger probes = new AtomicInteger();
+		assertEquals(1, (int) inFlight.resolve("key", key -> probes.incrementAndGet()));
+		assertEquals(2, (int) inFlight.resolve("key", key -> probes.incrementAndGet()));
+	}
+
+	@Test
+	void reentrantProbeDoesNotWaitForItself() {
+		InFlight<String, String> inFlight = new InFlight<>(true);
+		// a class initializer run by the probe asks for the same key
+		String result = assertTimeoutPreemptively(Duration.ofSeconds(5),
+				() -> inFlight.resolve("key", key -> "outer " + inFlight.resolve(key, k -> "inner")));
+		assertEquals("outer inner", result);
+	}
+
+	@Test
+	void waitCycleIsBrokenBeforePatienceRunsOut() throws Exception {
+		InFlight<String, String> inFlight = new InFlight<>(true);
+		CountDownLatch bothProbing = new CountDownLatch(2);
+		AtomicInteger threads = new AtomicInteger();
+		// each thread probes its own key and then, while probing, asks for the key of the other thread
+		List<String> results = assertTimeoutPreemptively(Duration.ofMillis(900), () -> race(2, () -> {
+			boolean first = threads.getAndIncrement() == 0;
+			return inFlight.resolve(first ? "a" : "b", key -> {
+				bothProbing.countDown();
+				try {
+					bothProbing.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				return key + inFlight.resolve(first ? "b" : "a", k -> "!");
+			});
+		}));
+		assertEquals(2, results.size());
+	}
+
+	public static class Target {
+		public static int answer() {
+			return 42;
+		}
+	}
+
+	@Test
+	void concurrentFindersProbeOnce() throws Exception {
+		ResolutionCache.invalidateAll();
+		String target = Target.class.getName();
+		List<Boolean> found = race(THREADS, () -> MethodSequence.of(MethodHandles.lookup(), MethodType.methodType(int.class), SearchMode.findStatic)
+				.find(target, "missing")
+				.fallback(target, "answer")
+				.getFound()
+				.isPresent());
+		for (boolean f : found) assertTrue(f);
+		assertEquals(2, ResolutionCache.missCount());
+	}
+}
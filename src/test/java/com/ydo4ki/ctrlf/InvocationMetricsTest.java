@@ -0,0 +1,67 @@
+package com.ydo4ki.ctrlf;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Sulphuris
+ * @since 17.10.2026 11:20
+ */
+class InvocationMetricsTest {
+	public static class Target {
+		public static int twice(int x) {
+			if (x < 0) throw new IllegalArgumentException();
+			return x * 2;
+		}
+
+		public static String name(String s) {
+			return s;
+		}
+	}
+
+	private static MethodHandle find(String name, MethodType type) throws ReflectiveOperationException {
+		return MethodHandles.lookup().findStatic(Target.class, name, type);
+	}
+
+	@Test
+	void invocationsAndFailuresAreCounted() throws Throwable {
+		InvocationMetrics metrics = new InvocationMetrics(1);
+		MethodHandle mh = metrics.instrument(find("twice", MethodType.methodType(int.class, int.class)));
+		assertEquals(MethodType.methodType(int.class, int.class), mh.type());
+		assertEquals(6, (int) mh.invokeExact(3));
+		assertThrows(IllegalArgumentException.class, () -> {
+			int ignored = (int) mh.invokeExact(-1);
+		});
+		InvocationMetrics.Snapshot snapshot = metrics.snapshot();
+		assertEquals(2, snapshot.getInvocationCount());
+		assertEquals(1, snapshot.getFailureCount());
+		assertEquals(1, snapshot.getSampleCount());
+		metrics.reset();
+		assertEquals(0, metrics.snapshot().getInvocationCount());
+	}
+
+	@Test
+	void referenceResultsKeepTheirType() throws Throwable {
+		MethodHandle mh = new InvocationMetrics().instrument(find("name", MethodType.methodType(String.class, String.class)));
+		assertEquals("a", (String) mh.invokeExact("a"));
+	}
+
+	@Test
+	void primitiveResultsAreNotBoxed() {
+		assertEquals(MethodType.methodType(int.class, InvocationMetrics.class, long.class, int.class), InvocationMetrics.exit(int.class).type());
+		assertEquals(MethodType.methodType(char.class, InvocationMetrics.class, long.class, char.class), InvocationMetrics.exit(char.class).type());
+	}
+
+	@Test
+	void sampleIntervalIsAPowerOfTwo() {
+		assertEquals(8, InvocationMetrics.checkSampleInterval(8));
+		assertThrows(IllegalArgumentException.class, () -> InvocationMetrics.checkSampleInterval(0));
+		assertThrows(IllegalArgumentException.class, () -> InvocationMetrics.checkSampleInterval(12));
+		assertThrows(IllegalArgumentException.class, () -> new BindingRegistry().withInstrumentation(3));
+	}
+}
@@ -0,0 +1,54 @@
+package com.ydo4ki.ctrlf;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Sulphuris
+ * @since 17.10.2026 10:20
+ */
+class LazyResolutionTest {
+	private static final MethodType TYPE = MethodType.methodType(int.class, int.class);
+	private static final String TARGET = Target.class.getName();
+
+	public static class Target {
+		public static int twice(int x) {
+			return x * 2;
+		}
+	}
+
+	@Test
+	void resolvesOnFirstInvocationOnly() throws Throwable {
+		AtomicInteger resolutions = new AtomicInteger();
+		MethodHandle mh = MethodSequence.lazy(TYPE, () -> {
+			resolutions.incrementAndGet();
+			return MethodSequence.of(MethodHandles.lookup(), TYPE, SearchMode.findStatic).find(TARGET, "twice").fallback(TARGET, "twice");
+		});
+		assertEquals(0, resolutions.get());
+		assertEquals(TYPE, mh.type());
+		assertEquals(4, (int) mh.invokeExact(2));
+		assertEquals(10, (int) mh.invokeExact(5));
+		assertEquals(1, resolutions.get());
+	}
+
+	@Test
+	void failedResolutionIsRetried() throws Throwable {
+		AtomicInteger resolutions = new AtomicInteger();
+		MethodHandle mh = MethodSequence.lazy(TYPE, () -> {
+			String name = resolutions.incrementAndGet() == 1 ? "missing" : "twice";
+			return MethodSequence.of(MethodHandles.lookup(), TYPE, SearchMode.findStatic).find(TARGET, name).fallback(TARGET, name);
+		});
+		RuntimeException e = assertThrows(RuntimeException.class, () -> {
+			int ignored = (int) mh.invokeExact(1);
+		});
+		assertInstanceOf(NoSuchMethodException.class, e.getCause());
+		assertEquals(6, (int) mh.invokeExact(3));
+		assertEquals(2, resolutions.get());
+	}
+}
@@ -0,0 +1,105 @@
+package com.ydo4ki.ctrlf;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Sulphuris
+ * @since 17.10.2026 12:30
+ */
+class MemberIndexTest {
+	private static final MethodType INT = MethodType.methodType(int.class);
+
+	public interface Sized {
+		default int size() {
+			return 0;
+		}
+	}
+
+	public static class Base {
+		public int inherited;
+
+		public int base() {
+			return 1;
+		}
+	}
+
+	public static class Target extends Base implements Sized {
+		public String name;
+
+		public Target() {}
+
+		public Target(String name) {
+			this.name = name;
+		}
+
+		public int own() {
+			return 2;
+		}
+	}
+
+	@Test
+	void declaredAndInheritedMethodsMayExist() {
+		assertNull(MemberIndex.methodAbsence(Target.class, "own", INT));
+		assertNull(MemberIndex.methodAbsence(Target.class, "base", INT));
+		assertNull(MemberIndex.methodAbsence(Target.class, "size", INT));
+		assertNull(MemberIndex.methodAbsence(Target.class, "hashCode", INT));
+		assertNull(MemberIndex.methodAbsence(Sized.class, "hashCode", INT));
+	}
+
+	@Test
+	void absentMethodIsKnownWithoutStackTrace() {
+		NoSuchMethodException absence = MemberIndex.methodAbsence(Target.class, "missing", INT);
+		assertInstanceOf(MemberIndex.AbsentMethod.class, absence);
+		assertEquals(0, absence.getStackTrace().length);
+		// the name exists with another type
+		assertNotNull(MemberIndex.methodAbsence(Target.class, "own", MethodType.methodType(long.class)));
+	}
+
+	@Test
+	void signaturePolymorphicMethodsAreLookedUp() {
+		assertNull(MemberIndex.methodAbsence(MethodHandle.class, "invokeExact", MethodType.methodType(long.class, String[].class)));
+	}
+
+	@Test
+	void fieldsAreIndexed() {
+		assertNull(MemberIndex.fieldAbsence(Target.class, "name", String.class));
+		assertNull(MemberIndex.fieldAbsence(Target.class, "inherited", int.class));
+		assertInstanceOf(MemberIndex.AbsentField.class, MemberIndex.fieldAbsence(Target.class, "name", Object.class));
+		assertInstanceOf(MemberIndex.AbsentField.class, MemberIndex.fieldAbsence(Target.class, "missing", int.class));
+		// reflection hides fields of core classes, so they are always looked up
+		assertNull(MemberIndex.fieldAbsence(String.class, "missing", int.class));
+		assertNull(MemberIndex.fieldAbsence(Class.class, "missing", int.class));
+	}
+
+	public enum Kind {
+		FIRST
+	}
+
+	@Test
+	void fieldsOfCommonSuperclassesAreKnown() {
+		assertNull(MemberIndex.fieldAbsence(Kind.class, "FIRST", Kind.class));
+		assertNotNull(MemberIndex.fieldAbsence(Kind.class, "SECOND", Kind.class));
+		assertNotNull(MemberIndex.fieldAbsence(IllegalStateException.class, "missing", int.class));
+	}
+
+	@Test
+	void constructorsAreIndexed() {
+		assertNull(MemberIndex.constructorAbsence(Target.class, MethodType.methodType(void.class)));
+		assertNull(MemberIndex.constructorAbsence(Target.class, MethodType.methodType(void.class, String.class)));
+		assertNotNull(MemberIndex.constructorAbsence(Target.class, MethodType.methodType(void.class, int.class)));
+	}
+
+	@Test
+	void finderFailsWithTheIndexRecord() {
+		FoundMethod found = MethodSequence.of(MethodHandles.lookup(), INT, SearchMode.findVirtual)
+				.find(Target.class.getName(), "missing")
+				.fallback(Target.class.getName(), "absent");
+		assertInstanceOf(MemberIndex.AbsentMethod.class, found.getErr().orElse(null));
+	}
+}
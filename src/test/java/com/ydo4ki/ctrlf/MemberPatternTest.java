@@ -0,0 +1,148 @@
+package com.ydo4ki.ctrlf;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Sulphuris
+ * @since 17.10.2026 12:35
+ */
+class MemberPatternTest {
+	private static final MethodType LONG = MethodType.methodType(long.class, String.class);
+	private static final String TARGET = Target.class.getName();
+
+	public static class Base {
+		public static long parse(String s) {
+			return -1;
+		}
+	}
+
+	public static class Target extends Base {
+		public static long parseLong(String s) {
+			return Long.parseLong(s);
+		}
+
+		public static long parseInt(String s) {
+			return Integer.parseInt(s);
+		}
+
+		public static int parseShort(String s) {
+			return Short.parseShort(s);
+		}
+
+		public static long parseRadix(String s, int radix) {
+			return Long.parseLong(s, radix);
+		}
+
+		public long parseAny(String s) {
+			return Long.parseLong(s);
+		}
+	}
+
+	@BeforeEach
+	void reset() {
+		ResolutionCache.invalidateAll();
+	}
+
+	private static List<String> ranked(MemberPattern pattern, boolean isStatic) {
+		return MemberIndex.matchMethods(Target.class, pattern, LONG, isStatic).stream()
+				.map(m -> m.name + m.type)
+				.collect(Collectors.toList());
+	}
+
+	@Test
+	void matchesAreRanked() {
+		// the owner class first; then the exact type, the closest number of parameters, the shortest name
+		assertEquals(Arrays.asList(
+				"parseInt(String)long",
+				"parseLong(String)long",
+				"parseShort(String)int",
+				"parseRadix(String,int)long",
+				"parse(String)long"
+		), ranked(MemberPattern.regex("parse.*").withAnyShape(), true));
+		assertEquals(Arrays.asList("parseInt(String)long", "parseLong(String)long", "parse(String)long"),
+				ranked(MemberPattern.regex("parse.*"), true));
+	}
+
+	@Test
+	void staticnessIsMatched() throws Throwable {
+		assertEquals(Collections.singletonList("parseAny(String)long"), ranked(MemberPattern.regex("parse.*"), false));
+		FoundMethod.Named found = MethodSequence.of(MethodHandles.lookup(), LONG, SearchMode.findVirtual)
+				.find(TARGET, "missing")
+				.fallbackMatching(TARGET, MemberPattern.regex("parse.*"));
+		assertEquals("parseAny", found.getFoundName().orElse(null));
+		assertEquals(7L, (long) found.methodHandle().invoke(new Target(), "7"));
+	}
+
+	@Test
+	void firstFoundMatchWins() throws Throwable {
+		FoundMethod.Named found = MethodSequence.of(MethodHandles.lookup(), LONG, SearchMode.findStatic)
+				.find(TARGET, "missing")
+				.fallbackMatching(TARGET, MemberPattern.regex("parse(Long|Int)"));
+		assertEquals("parseInt", found.getFoundName().orElse(null));
+		assertEquals(12L, (long) found.methodHandle().invokeExact("12"));
+	}
+
+	@Test
+	void patternThatMatchesNothingIsNotProbed() {
+		MethodFinder.MethodFinderGeneric finder = MethodSequence.of(MethodHandles.lookup(), LONG, SearchMode.findStatic)
+				.find(TARGET, "missing");
+		assertEquals(1, ResolutionCache.size());
+		FoundMethod.Named found = finder.fallbackMatching(TARGET, MemberPattern.regex("format.*"));
+		assertFalse(found.getFound().isPresent());
+		Throwable failure = found.getErr().orElse(null);
+		assertInstanceOf(NoSuchMethodException.class, failure);
+		assertTrue(failure.getMessage().contains("/format.*/"), failure.getMessage());
+		assertEquals(1, ResolutionCache.size());
+		assertEquals(1, ResolutionCache.missCount());
+	}
+
+	@Test
+	void patternInAbsentClassFailsWithTheClassAbsence() {
+		FoundMethod.Named found = MethodSequence.of(MethodHandles.lookup(), LONG, SearchMode.findStatic)
+				.find(TARGET, "missing")
+				.fallbackMatching("me.random.Absent", MemberPattern.regex("parse.*"));
+		assertInstanceOf(ClassNotFoundException.class, found.getErr().orElse(null));
+		assertEquals(1, ResolutionCache.size());
+	}
+
+	@Test
+	void earlierCandidateWinsOverAPatternThatMatchesNothing() {
+		FoundMethod.Named found = MethodSequence.of(MethodHandles.lookup(), LONG, SearchMode.findStatic)
+				.find(TARGET, "parseLong")
+				.fallbackMatching(TARGET, MemberPattern.regex("format.*"));
+		assertEquals("parseLong", found.getFoundName().orElse(null));
+		assertEquals(0, found.getFoundIndex().getAsInt());
+	}
+
+	static boolean initialized;
+
+	public static class Initialized {
+		static {
+			initialized = true;
+		}
+
+		public static long parse(String s) {
+			return 0;
+		}
+	}
+
+	@Test
+	void patternIsNotMatchedIfAnEarlierParallelProbeWins() {
+		FoundMethod.Named found = MethodSequence.of(MethodHandles.lookup(), LONG, SearchMode.findStatic)
+				.withParallelProbing(Runnable::run)
+				.find(TARGET, "parseLong")
+				.fallbackMatching(Initialized.class.getName(), MemberPattern.regex("parse.*"));
+		assertEquals(0, found.getFoundIndex().getAsInt());
+		assertFalse(initialized);
+	}
+}
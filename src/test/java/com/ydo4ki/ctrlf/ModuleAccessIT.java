@@ -0,0 +1,55 @@
+package com.ydo4ki.ctrlf;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.net.URL;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs against the packaged multi-release jar (see the {@code multi-release} profile), so that the Java 9 layer is tested
+ *
+ * @author Sulphuris
+ * @since 17.10.2026 12:40
+ */
+class ModuleAccessIT {
+	private static final MethodType BOOLEAN = MethodType.methodType(boolean.class);
+
+	@BeforeEach
+	void reset() {
+		ResolutionCache.invalidateAll();
+	}
+
+	@Test
+	void java9LayerIsLoaded() {
+		URL platform = Platform.class.getResource("Platform.class");
+		assertNotNull(platform);
+		assertTrue(platform.toString().contains("META-INF/versions/9/"), platform.toString());
+	}
+
+	@Test
+	void lookupInAnOpenPackageFindsMembers() throws Throwable {
+		// opened to this module by --add-opens, see the failsafe configuration
+		Class<?> vm = Class.forName("jdk.internal.misc.VM");
+		MethodHandles.Lookup lookup = (MethodHandles.Lookup) MethodHandles.class
+				.getMethod("privateLookupIn", Class.class, MethodHandles.Lookup.class)
+				.invoke(null, vm, MethodHandles.lookup());
+		FoundMethod.Named found = MethodSequence.of(lookup, BOOLEAN, SearchMode.findStatic)
+				.find("jdk.internal.misc.VM", "isBooted")
+				.fallback("jdk.internal.misc.VM", "isBooted");
+		assertTrue(found.getFound().isPresent(), () -> String.valueOf(found.getErr().orElse(null)));
+		assertTrue((boolean) found.methodHandle().invokeExact());
+	}
+
+	@Test
+	void ownerInAPackageThatIsNotExportedIsRejected() {
+		FoundMethod.Named found = MethodSequence.of(MethodHandles.lookup(), MethodType.methodType(Class.class), SearchMode.findStatic)
+				.find("jdk.internal.reflect.Reflection", "getCallerClass")
+				.fallback("jdk.internal.reflect.Reflection", "getCallerClass");
+		assertFalse(found.getFound().isPresent());
+		assertInstanceOf(Platform.Inaccessible.class, found.getErr().orElse(null));
+	}
+}
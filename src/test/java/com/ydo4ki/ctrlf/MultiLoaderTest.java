@@ -0,0 +1,114 @@
+package com.ydo4ki.ctrlf;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Sulphuris
+ * @since 17.10.2026 12:15
+ */
+class MultiLoaderTest {
+	private static final MethodType INT = MethodType.methodType(int.class);
+	private static final String PLUGIN = Plugin.class.getName();
+	private static final ClassLoader application = MultiLoaderTest.class.getClassLoader();
+
+	public static class Plugin {
+		public static int version() {
+			return 1;
+		}
+	}
+
+	/**
+	 * Loads its own copy of {@link Plugin}, like the class loader of a redeployed plugin
+	 */
+	static final class PluginLoader extends ClassLoader {
+		PluginLoader() {
+			super(application);
+		}
+
+		@Override
+		protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+			if (!name.equals(PLUGIN)) return super.loadClass(name, resolve);
+			synchronized (getClassLoadingLock(name)) {
+				Class<?> c = findLoadedClass(name);
+				if (c != null) return c;
+				try (InputStream in = application.getResourceAsStream(name.replace('.', '/') + ".class")) {
+					ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+					byte[] buffer = new byte[4096];
+					for (int n; (n = in.read(buffer)) > 0; ) bytes.write(buffer, 0, n);
+					return defineClass(name, bytes.toByteArray(), 0, bytes.size());
+				} catch (IOException e) {
+					throw new ClassNotFoundException(name, e);
+				}
+			}
+		}
+	}
+
+	@BeforeEach
+	void reset() {
+		ResolutionCache.invalidateAll();
+	}
+
+	private static FoundMethod.Named find(ClassLoader... loaders) {
+		return MethodSequence.of(MethodHandles.lookup(), INT, SearchMode.findStatic)
+				.withClassLoaders(loaders)
+				.find(PLUGIN, "version")
+				.fallback(PLUGIN, "version");
+	}
+
+	@Test
+	void firstClassLoaderWithTheCandidateWins() {
+		PluginLoader plugin = new PluginLoader();
+		Object owner = find(null, plugin, application).getFoundOwner().orElse(null);
+		assertInstanceOf(Class.class, owner);
+		assertSame(plugin, ((Class<?>) owner).getClassLoader());
+		assertSame(Plugin.class, find(null, application, plugin).getFoundOwner().orElse(null));
+		assertThrows(IllegalArgumentException.class, () -> MethodSequence.of(MethodHandles.lookup(), INT, SearchMode.findStatic)
+				.withClassLoaders());
+	}
+
+	@Test
+	void probesAreCachedPerClassLoader() {
+		PluginLoader plugin = new PluginLoader();
+		find(application);
+		assertEquals(1, ResolutionCache.missCount());
+		find(plugin);
+		assertEquals(2, ResolutionCache.missCount());
+		// a new class loader only costs probes in it
+		find(plugin, application);
+		assertEquals(2, ResolutionCache.missCount());
+	}
+
+	@Test
+	void cacheDoesNotKeepClassLoaders() throws InterruptedException {
+		WeakReference<ClassLoader> plugin = resolveInPlugin();
+		List<byte[]> garbage = new ArrayList<>();
+		for (int i = 0; i < 50 && plugin.get() != null; i++) {
+			garbage.add(new byte[1 << 20]);
+			if (garbage.size() > 8) garbage.clear();
+			System.gc();
+			Thread.sleep(10);
+		}
+		assertNull(plugin.get());
+	}
+
+	private static WeakReference<ClassLoader> resolveInPlugin() {
+		PluginLoader plugin = new PluginLoader();
+		assertTrue(find(plugin).getFound().isPresent());
+		// only the bootstrap class loader is probed anew
+		assertTrue(find(null, plugin).getFound().isPresent());
+		assertEquals(2, ResolutionCache.missCount());
+		return new WeakReference<>(plugin);
+	}
+}
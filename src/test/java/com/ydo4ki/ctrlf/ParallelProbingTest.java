@@ -0,0 +1,108 @@
+package com.ydo4ki.ctrlf;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.time.Duration;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Sulphuris
+ * @since 17.10.2026 10:41
+ */
+class ParallelProbingTest {
+	private static final MethodType INT = MethodType.methodType(int.class);
+
+	public static class First {
+		public static int value() {
+			return 1;
+		}
+	}
+
+	public static class Second {
+		public static int value() {
+			return 2;
+		}
+	}
+
+	/**
+	 * Resolves a sequence in parallel from its static initializer; the owner reads a field of this class
+	 */
+	static class Host {
+		static final int BEFORE = Integer.parseInt("7");
+		static final FoundMethod FOUND = MethodSequence.of(MethodHandles.lookup(), INT, SearchMode.findStatic)
+				.withParallelProbing()
+				.find(Dependent.class.getName(), "value")
+				.fallback(Dependent.class.getName(), "value");
+	}
+
+	public static class Dependent {
+		static final int SEEN = Host.BEFORE;
+
+		public static int value() {
+			return SEEN;
+		}
+	}
+
+	@Test
+	void firstFoundCandidateInDeclarationOrderWins() throws Throwable {
+		ExecutorService pool = Executors.newFixedThreadPool(2);
+		try {
+			// the first probe completes last
+			AtomicInteger submitted = new AtomicInteger();
+			Executor delayed = task -> {
+				boolean first = submitted.getAndIncrement() == 0;
+				pool.execute(() -> {
+					if (first) sleep();
+					task.run();
+				});
+			};
+			FoundMethod.Named found = MethodSequence.of(MethodHandles.lookup(), INT, SearchMode.findStatic)
+					.withParallelProbing(delayed)
+					.find(First.class.getName(), "value")
+					.fallback(Second.class.getName(), "value");
+			assertEquals(1, (int) found.methodHandle().invokeExact());
+			assertEquals(0, found.getFoundIndex().getAsInt());
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	void probingFromStaticInitializerDoesNotDeadlock() throws Throwable {
+		FoundMethod found = assertTimeoutPreemptively(Duration.ofSeconds(10), () -> Host.FOUND);
+		assertEquals(7, (int) found.methodHandle().invokeExact());
+	}
+
+	@Test
+	void notFoundCandidatesAreNotInitialized() {
+		FoundMethod.Named found = MethodSequence.of(MethodHandles.lookup(), INT, SearchMode.findStatic)
+				.withParallelProbing()
+				.find(Untouched.class.getName(), "missing")
+				.fallback(First.class.getName(), "value");
+		assertTrue(found.getFound().isPresent());
+		assertFalse(untouchedInitialized);
+	}
+
+	static boolean untouchedInitialized;
+
+	public static class Untouched {
+		static {
+			untouchedInitialized = true;
+		}
+	}
+
+	private static void sleep() {
+		try {
+			Thread.sleep(100);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,142 @@
+package com.ydo4ki.ctrlf;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Sulphuris
+ * @since 17.10.2026 11:15
+ */
+class PersistentResolutionCacheTest {
+	private static final MethodType TYPE = MethodType.methodType(int.class, int.class);
+	private static final String TARGET = Target.class.getName();
+
+	public static class Target {
+		public static int first(int x) {
+			return x + 1;
+		}
+
+		public static int second(int x) {
+			return x + 2;
+		}
+
+		private static int hidden(int x) {
+			return x;
+		}
+	}
+
+	@TempDir
+	Path dir;
+
+	@BeforeEach
+	void enable() throws IOException {
+		ResolutionCache.invalidateAll();
+		ResolutionTrace.setEnabled(true);
+		PersistentResolutionCache.enable(dir.resolve("ctrlf.cache"));
+	}
+
+	@AfterEach
+	void disable() {
+		PersistentResolutionCache.disable();
+		ResolutionCache.invalidateAll();
+		ResolutionTrace.setEnabled(false);
+	}
+
+	private static MethodSequence.MethodSequenceGenericDefault sequence(MethodHandles.Lookup lookup) {
+		return MethodSequence.of(lookup, TYPE, SearchMode.findStatic);
+	}
+
+	private static FoundMethod.Named find(MethodSequence.MethodSequenceGenericDefault sequence, String... names) {
+		MethodFinder.MethodFinderGeneric finder = sequence.find(TARGET, names[0]);
+		for (int i = 1; i < names.length - 1; i++) finder.orElse(TARGET, names[i]);
+		return finder.fallback(TARGET, names[names.length - 1]);
+	}
+
+	/**
+	 * Starts using the cache file again, like a restarted process
+	 */
+	private void restart() throws IOException {
+		ResolutionCache.invalidateAll();
+		PersistentResolutionCache.enable(dir.resolve("ctrlf.cache"));
+	}
+
+	@Test
+	void rememberedWinnerIsTheOnlyProbe() throws Throwable {
+		MethodSequence.MethodSequenceGenericDefault sequence = sequence(MethodHandles.lookup());
+		assertEquals(2, find(sequence, "missing", "hidden", "second").getFoundIndex().getAsInt());
+		assertEquals(3, ResolutionCache.missCount());
+		restart();
+		assertEquals(1, PersistentResolutionCache.size());
+		FoundMethod.Named found = find(sequence, "missing", "hidden", "second");
+		assertEquals(2, found.getFoundIndex().getAsInt());
+		assertEquals(3, (int) found.methodHandle().invokeExact(1));
+		// candidates that were not accessible are skipped too
+		assertEquals(1, ResolutionCache.missCount());
+		assertEquals(ResolutionTrace.Outcome.SKIPPED, found.getTrace().getSteps().get(0).getOutcome());
+		assertEquals(ResolutionTrace.Outcome.SKIPPED, found.getTrace().getSteps().get(1).getOutcome());
+	}
+
+	@Test
+	void changedSequenceIsProbedInFull() throws Throwable {
+		MethodSequence.MethodSequenceGenericDefault sequence = sequence(MethodHandles.lookup());
+		find(sequence, "missing", "hidden", "second");
+		restart();
+		// the same first candidate and the same index of the winner, but another candidate before it
+		FoundMethod.Named found = find(sequence, "missing", "first", "second");
+		assertEquals(1, found.getFoundIndex().getAsInt());
+		assertEquals(2, (int) found.methodHandle().invokeExact(1));
+		restart();
+		assertEquals(1, find(sequence, "missing", "first", "second").getFoundIndex().getAsInt());
+		assertEquals(1, ResolutionCache.missCount());
+	}
+
+	@Test
+	void staleWinnerIsNotTrusted() throws Throwable {
+		MethodSequence.MethodSequenceGenericDefault sequence = sequence(MethodHandles.lookup());
+		find(sequence, "missing", "second");
+		restart();
+		// shorter than the remembered sequence
+		FoundMethod.Named found = sequence.find(TARGET, "missing").fallback(TARGET, "absent");
+		assertFalse(found.getFound().isPresent());
+		assertEquals(2, ResolutionCache.missCount());
+	}
+
+	@Test
+	void sequencesWithoutWinnerAreNotRemembered() {
+		find(sequence(MethodHandles.lookup()), "missing", "absent");
+		find(sequence(MethodHandles.lookup()), "first", "second");
+		assertEquals(0, PersistentResolutionCache.size());
+		find(sequence(MethodHandles.publicLookup()), "missing", "first");
+		assertEquals(1, PersistentResolutionCache.size());
+	}
+
+	@Test
+	void fingerprintCoversClassDirectoryFiles() throws IOException {
+		Path classes = Files.createDirectories(dir.resolve("classes/p"));
+		Path file = Files.write(classes.resolve("A.class"), new byte[]{1, 2, 3});
+		String classPath = System.getProperty("java.class.path");
+		try {
+			System.setProperty("java.class.path", dir.resolve("classes").toString());
+			long before = PersistentResolutionCache.fingerprint();
+			assertEquals(before, PersistentResolutionCache.fingerprint());
+			Files.setLastModifiedTime(file, FileTime.fromMillis(Files.getLastModifiedTime(file).toMillis() - 60_000));
+			long touched = PersistentResolutionCache.fingerprint();
+			assertNotEquals(before, touched);
+			Files.write(classes.resolve("B.class"), new byte[]{1});
+			assertNotEquals(touched, PersistentResolutionCache.fingerprint());
+		} finally {
+			System.setProperty("java.class.path", classPath);
+		}
+	}
+}
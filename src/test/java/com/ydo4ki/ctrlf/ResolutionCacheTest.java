@@ -0,0 +1,108 @@
+package com.ydo4ki.ctrlf;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Sulphuris
+ * @since 17.10.2026 10:05
+ */
+class ResolutionCacheTest {
+	private static final MethodType INT = MethodType.methodType(int.class);
+	private static final String TARGET = Target.class.getName();
+
+	public static class Target {
+		public static int answer() {
+			return 42;
+		}
+	}
+
+	static boolean initialized;
+
+	public static class Initialized {
+		static {
+			initialized = true;
+		}
+
+		public static int answer() {
+			return 42;
+		}
+	}
+
+	@BeforeEach
+	void reset() {
+		ResolutionCache.invalidateAll();
+	}
+
+	@AfterEach
+	void restore() {
+		ResolutionCache.setMaximumSize(ResolutionCache.DEFAULT_MAXIMUM_SIZE);
+		ResolutionCache.setEnabled(true);
+	}
+
+	private static FoundMethod.Named find(String name) {
+		return MethodSequence.of(MethodHandles.lookup(), INT, SearchMode.findStatic).find(TARGET, name).fallback(TARGET, name);
+	}
+
+	@Test
+	void missIsProbedOnce() {
+		assertFalse(find("missing").getFound().isPresent());
+		assertEquals(1, ResolutionCache.missCount());
+		assertFalse(find("missing").getFound().isPresent());
+		assertEquals(1, ResolutionCache.missCount());
+		assertEquals(3, ResolutionCache.hitCount());
+	}
+
+	@Test
+	void foundHandleIsShared() throws Throwable {
+		FoundMethod first = find("answer");
+		FoundMethod second = find("answer");
+		assertSame(first.methodHandle(), second.methodHandle());
+		assertEquals(42, (int) second.methodHandle().invokeExact());
+		assertEquals(1, ResolutionCache.missCount());
+	}
+
+	@Test
+	void invalidateForgetsOwner() {
+		find("missing");
+		assertEquals(1, ResolutionCache.size());
+		ResolutionCache.invalidate(TARGET);
+		assertEquals(0, ResolutionCache.size());
+		find("missing");
+		assertEquals(2, ResolutionCache.missCount());
+	}
+
+	@Test
+	void sizeIsBounded() {
+		ResolutionCache.setMaximumSize(2);
+		for (int i = 0; i < 5; i++) find("missing" + i);
+		assertTrue(ResolutionCache.size() <= 2);
+		assertThrows(IllegalArgumentException.class, () -> ResolutionCache.setMaximumSize(-1));
+	}
+
+	@Test
+	void disabledCacheProbesEveryTime() {
+		ResolutionCache.setEnabled(false);
+		find("missing");
+		find("missing");
+		assertEquals(0, ResolutionCache.size());
+		assertEquals(0, ResolutionCache.hitCount());
+	}
+
+	@Test
+	void probeWithoutInitializationDoesNotAnswerAnInitializingProbe() {
+		String owner = Initialized.class.getName();
+		MethodSequence.MethodSequenceGenericDefault sequence = MethodSequence.of(MethodHandles.lookup(), INT, SearchMode.findStatic);
+		assertTrue(sequence.withInitialization(false).find(owner, "answer").getFound().isPresent());
+		assertFalse(initialized);
+		assertTrue(sequence.find(owner, "answer").getFound().isPresent());
+		assertTrue(initialized);
+		assertEquals(2, ResolutionCache.missCount());
+	}
+}
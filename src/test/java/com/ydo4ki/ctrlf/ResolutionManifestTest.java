@@ -0,0 +1,120 @@
+package com.ydo4ki.ctrlf;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Sulphuris
+ * @since 17.10.2026 11:10
+ */
+class ResolutionManifestTest {
+	private static final MethodType TYPE = MethodType.methodType(int.class, int.class);
+	private static final String TARGET = Target.class.getName();
+
+	public static class Target {
+		public static int first(int x) {
+			return x + 1;
+		}
+
+		public static int second(int x) {
+			return x + 2;
+		}
+	}
+
+	@TempDir
+	Path dir;
+
+	private final ClassLoader context = Thread.currentThread().getContextClassLoader();
+
+	@BeforeEach
+	void trace() {
+		ResolutionCache.invalidateAll();
+		ResolutionTrace.setEnabled(true);
+	}
+
+	@AfterEach
+	void restore() {
+		Thread.currentThread().setContextClassLoader(context);
+		ResolutionManifest.reload();
+		ResolutionTrace.setEnabled(false);
+	}
+
+	private void manifest(String... entries) throws IOException {
+		Path file = dir.resolve(ResolutionManifest.RESOURCE);
+		Files.createDirectories(file.getParent());
+		List<String> lines = Arrays.asList(entries);
+		lines.replaceAll(entry -> ResolutionManifest.getFeatureLevel() + " " + entry);
+		Files.write(file, lines, StandardCharsets.UTF_8);
+		Thread.currentThread().setContextClassLoader(new URLClassLoader(new URL[]{dir.toUri().toURL()}, context));
+		ResolutionManifest.reload();
+	}
+
+	private static boolean skipped(FoundMethod found) {
+		return found.getTrace().getSteps().stream().anyMatch(step -> step.getOutcome() == ResolutionTrace.Outcome.SKIPPED);
+	}
+
+	private static FoundMethod.Named find() {
+		return MethodSequence.of(MethodHandles.lookup(), TYPE, SearchMode.findStatic)
+				.find(TARGET, "first")
+				.fallback(TARGET, "second");
+	}
+
+	@Test
+	void predictedWinnerIsTheOnlyProbe() throws Throwable {
+		manifest("com.example.DoesNotExist");
+		FoundMethod.Named found = MethodSequence.of(MethodHandles.lookup(), TYPE, SearchMode.findStatic)
+				.find("com.example.DoesNotExist", "first")
+				.fallback(TARGET, "second");
+		assertEquals(1, found.getFoundIndex().getAsInt());
+		assertEquals(3, (int) found.methodHandle().invokeExact(1));
+		assertEquals(1, ResolutionCache.missCount());
+		assertEquals(2, found.getTrace().getSteps().size());
+		assertEquals(ResolutionTrace.Outcome.SKIPPED, found.getTrace().getSteps().get(0).getOutcome());
+	}
+
+	@Test
+	void predictionIsTrusted() throws Throwable {
+		manifest(TARGET + "#first");
+		FoundMethod.Named found = find();
+		assertEquals(1, found.getFoundIndex().getAsInt());
+		assertEquals(3, (int) found.methodHandle().invokeExact(1));
+		assertEquals(1, ResolutionCache.missCount());
+		assertTrue(skipped(found));
+	}
+
+	@Test
+	void skippedCandidatesAreProbedIfThePredictedWinnerIsNotFound() throws Throwable {
+		manifest(TARGET + "#first");
+		FoundMethod.Named found = MethodSequence.of(MethodHandles.lookup(), TYPE, SearchMode.findStatic)
+				.find(TARGET, "first")
+				.orElse(TARGET, "missing")
+				.fallback(TARGET, "second");
+		// the manifest is stale: the earlier candidate is found after all
+		assertEquals(0, found.getFoundIndex().getAsInt());
+		assertEquals(2, (int) found.methodHandle().invokeExact(1));
+		assertEquals(2, ResolutionCache.missCount());
+	}
+
+	@Test
+	void descriptorEntriesArePredictions() throws Throwable {
+		manifest(TARGET + "#first" + TYPE.toMethodDescriptorString());
+		assertTrue(skipped(find()));
+		manifest(TARGET + "#first(J)J");
+		assertFalse(skipped(find()));
+	}
+}
@@ -0,0 +1,88 @@
+package com.ydo4ki.ctrlf;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Sulphuris
+ * @since 17.10.2026 12:20
+ */
+class ResolutionPlanTest {
+	private static final MethodType TYPE = MethodType.methodType(int.class, int.class);
+	private static final String TARGET = Target.class.getName();
+
+	public static class Target {
+		public static int twice(int x) {
+			return x * 2;
+		}
+
+		public Target() {}
+
+		public int value;
+	}
+
+	private static final ResolutionPlan PLAN = ResolutionPlan.builder(TYPE, SearchMode.findStatic)
+			.candidate("me.random.Absent", "twice")
+			.candidate(TARGET, "missing")
+			.candidate(TARGET, "twice")
+			.build();
+
+	@BeforeEach
+	void reset() {
+		ResolutionCache.invalidateAll();
+	}
+
+	@Test
+	void planResolvesLikeAFinder() throws Throwable {
+		FoundMethod.Named found = PLAN.resolve(MethodHandles.lookup());
+		assertEquals(2, found.getFoundIndex().getAsInt());
+		assertEquals("twice", found.getFoundName().orElse(null));
+		assertEquals(8, (int) found.methodHandle().invokeExact(4));
+		assertEquals(3, PLAN.size());
+	}
+
+	@Test
+	void repeatedResolutionDoesNotProbeAgain() {
+		PLAN.resolve(MethodHandles.lookup());
+		long misses = ResolutionCache.missCount();
+		FoundMethod.Named again = PLAN.resolve(MethodHandles.lookup());
+		assertTrue(again.getFound().isPresent());
+		assertEquals(misses, ResolutionCache.missCount());
+	}
+
+	@Test
+	void planIsResolvedInTheGivenClassLoaders() {
+		assertFalse(PLAN.resolve(MethodHandles.lookup(), (ClassLoader) null).getFound().isPresent());
+		assertTrue(PLAN.resolve(MethodHandles.lookup(), null, ResolutionPlanTest.class.getClassLoader()).getFound().isPresent());
+	}
+
+	@Test
+	void fieldsAndConstructorsArePlanned() throws Throwable {
+		ResolutionPlan getter = ResolutionPlan.builder(int.class, SearchMode.findGetter).candidate(TARGET, "value").build();
+		Target target = new Target();
+		target.value = 7;
+		assertEquals(7, (int) getter.resolve(MethodHandles.lookup()).methodHandle().invoke(target));
+		ResolutionPlan constructor = ResolutionPlan.builder(MethodType.methodType(void.class), SearchMode.findConstructor)
+				.candidate(TARGET)
+				.build();
+		assertInstanceOf(Target.class, constructor.resolve(MethodHandles.lookup()).methodHandle().invoke());
+	}
+
+	@Test
+	void candidatesAreValidatedWhenAdded() {
+		ResolutionPlan.Builder builder = ResolutionPlan.builder(TYPE, SearchMode.findStatic);
+		assertThrows(IllegalArgumentException.class, () -> builder.candidate(TARGET));
+		assertThrows(IllegalArgumentException.class, () -> builder.candidate(TARGET, "a.b"));
+		assertThrows(IllegalArgumentException.class, () -> builder.candidate(TARGET, "twice", TARGET));
+		assertThrows(IllegalArgumentException.class, () -> ResolutionPlan.builder(MethodType.methodType(void.class), SearchMode.findConstructor)
+				.candidate(TARGET, "twice"));
+		assertThrows(IllegalArgumentException.class, () -> ResolutionPlan.builder(TYPE, SearchMode.findSpecial)
+				.candidate(TARGET, "twice"));
+		assertEquals(0, builder.build().size());
+	}
+}
@@ -0,0 +1,60 @@
+package com.ydo4ki.ctrlf;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Sulphuris
+ * @since 17.10.2026 11:25
+ */
+class ResolutionTraceTest {
+	private static final MethodType TYPE = MethodType.methodType(int.class, int.class);
+	private static final String TARGET = Target.class.getName();
+
+	public static class Target {
+		public static int twice(int x) {
+			return x * 2;
+		}
+	}
+
+	@AfterEach
+	void restore() {
+		ResolutionTrace.setEnabled(false);
+	}
+
+	private static FoundMethod.Named find() {
+		return MethodSequence.of(MethodHandles.lookup(), TYPE, SearchMode.findStatic)
+				.find(TARGET, "missing")
+				.fallback(TARGET, "twice");
+	}
+
+	@Test
+	void disabledByDefault() {
+		assertFalse(ResolutionTrace.isEnabled());
+		FoundMethod.Named found = find();
+		assertEquals(1, found.getFoundIndex().getAsInt());
+		assertTrue(found.getTrace().getSteps().isEmpty());
+		assertEquals(0, found.getTrace().getTotalNanos());
+		// untraced resolutions share one recorder
+		assertSame(ResolutionTrace.Recorder.start(), ResolutionTrace.Recorder.start());
+	}
+
+	@Test
+	void enabledTraceRecordsEveryProbe() {
+		ResolutionTrace.setEnabled(true);
+		assertNotSame(ResolutionTrace.Recorder.start(), ResolutionTrace.Recorder.start());
+		List<ResolutionTrace.Step> steps = find().getTrace().getSteps();
+		assertEquals(2, steps.size());
+		assertEquals(ResolutionTrace.Outcome.NOT_FOUND, steps.get(0).getOutcome());
+		assertInstanceOf(NoSuchMethodException.class, steps.get(0).getFailure().get());
+		assertEquals("missing", steps.get(0).getName().get());
+		assertEquals(ResolutionTrace.Outcome.FOUND, steps.get(1).getOutcome());
+		assertEquals(1, steps.get(1).getIndex());
+	}
+}
@@ -0,0 +1,96 @@
+package com.ydo4ki.ctrlf;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.WrongMethodTypeException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Sulphuris
+ * @since 17.10.2026 12:25
+ */
+class SignatureAdapterTest {
+	private static final String TARGET = Target.class.getName();
+	/* (int offset, long length) */
+	private static final MethodType RANGE = MethodType.methodType(String.class, int.class, long.class);
+	private static final MethodType LONGS = MethodType.methodType(String.class, long.class, long.class);
+
+	public static class Target {
+		public static String range(long offset, long length) {
+			return "offset=" + offset + " length=" + length;
+		}
+
+		public static String reversed(long length, long offset) {
+			return "offset=" + offset + " length=" + length;
+		}
+
+		public static String first(long offset) {
+			return "offset=" + offset;
+		}
+
+		public static String flagged(int offset, long length, boolean flag) {
+			return "offset=" + offset + " length=" + length + " flag=" + flag;
+		}
+
+		public static String named(String name, int offset) {
+			return name + offset;
+		}
+	}
+
+	private static MethodFinder.MethodFinderGeneric sequence(MethodType type) {
+		return MethodSequence.of(MethodHandles.lookup(), type, SearchMode.findStatic).find(TARGET, "missing");
+	}
+
+	@Test
+	void sameTypedParametersAreNotSwapped() throws Throwable {
+		MethodHandle mh = sequence(RANGE).fallback(TARGET, "range", LONGS).methodHandle();
+		assertEquals(RANGE, mh.type());
+		assertEquals("offset=1 length=2", (String) mh.invokeExact(1, 2L));
+	}
+
+	@Test
+	void explicitOrderReordersParameters() throws Throwable {
+		MethodHandle mh = sequence(RANGE).fallback(TARGET, "reversed", LONGS, 1, 0).methodHandle();
+		assertEquals("offset=1 length=2", (String) mh.invokeExact(1, 2L));
+		MethodHandle defaulted = sequence(RANGE).fallback(TARGET, "range", LONGS, -1, 0).methodHandle();
+		assertEquals("offset=0 length=1", (String) defaulted.invokeExact(1, 2L));
+	}
+
+	@Test
+	void trailingParametersAreDroppedOrDefaulted() throws Throwable {
+		MethodHandle dropped = sequence(RANGE).fallback(TARGET, "first", MethodType.methodType(String.class, long.class)).methodHandle();
+		assertEquals("offset=1", (String) dropped.invokeExact(1, 2L));
+		MethodHandle defaulted = sequence(RANGE)
+				.fallback(TARGET, "flagged", MethodType.methodType(String.class, int.class, long.class, boolean.class))
+				.methodHandle();
+		assertEquals("offset=1 length=2 flag=false", (String) defaulted.invokeExact(1, 2L));
+	}
+
+	@Test
+	void parametersThatDoNotConvertByPositionAreNotMatchedByType() {
+		FoundMethod.Named found = sequence(MethodType.methodType(String.class, int.class, String.class))
+				.fallback(TARGET, "named", MethodType.methodType(String.class, String.class, int.class));
+		assertFalse(found.getFound().isPresent());
+		assertInstanceOf(WrongMethodTypeException.class, found.getErr().orElse(null));
+	}
+
+	@Test
+	void orderIsValidatedWhenDeclared() {
+		assertThrows(IllegalArgumentException.class, () -> sequence(RANGE).orElse(TARGET, "range", LONGS, 0));
+		assertThrows(IllegalArgumentException.class, () -> sequence(RANGE).orElse(TARGET, "range", LONGS, 0, 2));
+		assertThrows(IllegalArgumentException.class, () -> sequence(RANGE).orElse(TARGET, "range", LONGS, 0, -2));
+	}
+
+	@Test
+	void givenHandleIsAdapted() throws Throwable {
+		MethodHandle reversed = MethodHandles.lookup().findStatic(Target.class, "reversed", LONGS);
+		MethodHandle swapped = sequence(RANGE).fallbackAdapted(reversed, 1, 0).methodHandle();
+		assertEquals("offset=1 length=2", (String) swapped.invokeExact(1, 2L));
+		MethodHandle positional = sequence(RANGE).fallbackAdapted(reversed).methodHandle();
+		assertEquals("offset=2 length=1", (String) positional.invokeExact(1, 2L));
+	}
+}
@@ -0,0 +1,56 @@
+package com.ydo4ki.ctrlf;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Sulphuris
+ * @since 17.10.2026 11:55
+ */
+class SpecialLookupTest {
+	private static final MethodType STRING = MethodType.methodType(String.class);
+	private static final String BASE = Base.class.getName();
+	private static final String CHILD = Child.class.getName();
+
+	public static class Base {
+		public String name() {
+			return "base";
+		}
+	}
+
+	public static class Child extends Base {
+		static MethodHandles.Lookup lookup() {
+			return MethodHandles.lookup();
+		}
+
+		@Override
+		public String name() {
+			return "child";
+		}
+	}
+
+	private static FoundMethod.Named find(MethodHandles.Lookup lookup) {
+		return MethodSequence.of(lookup, STRING, SearchMode.findSpecial)
+				.find(BASE, "name", CHILD)
+				.fallback(BASE, "name", CHILD);
+	}
+
+	@Test
+	void lookupInTheSpecialCallerFindsSuperMethod() throws Throwable {
+		FoundMethod.Named found = find(Child.lookup());
+		assertTrue(found.getFound().isPresent());
+		assertEquals("base", (String) found.methodHandle().invoke(new Child()));
+	}
+
+	@Test
+	void lookupIsNotWidenedToTheSpecialCaller() {
+		// the lookup of this class has no private access in Child, even though both are in the same module
+		FoundMethod.Named found = find(MethodHandles.lookup());
+		assertFalse(found.getFound().isPresent());
+		assertInstanceOf(IllegalAccessException.class, found.getErr().orElse(null));
+	}
+}